@@ -1,50 +1,65 @@
 package com.ken.emp;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.stream.Stream;
-
-import javax.annotation.PostConstruct;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
-import com.ken.emp.model.Employee;
-import com.ken.emp.model.Status;
-import com.ken.emp.service.EmployeeService;
+import com.ken.emp.loader.InitialLoadStatus;
+import com.ken.emp.loader.InitialLoader;
+import com.ken.emp.search.EmployeeNameIndex;
+import com.ken.emp.stats.EmployeeStatistics;
 
 /**
  * Main spring boot application loading class.
  * 
- * loading initial data file on start up.
+ * loading initial data file in the background once started.
  * 
  * @author cmenerip
  *
  */
 @SpringBootApplication
+@EnableScheduling
 public class KenEmpApplication {
 
 	private static final Logger logger = LoggerFactory.getLogger(KenEmpApplication.class);
 
-	private static final SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy");
-
 	private static String fileName = null;
 
 	@Autowired
-	private EmployeeService employeeService;
+	private InitialLoader initialLoader;
 
 	@Autowired
 	private ResourceLoader resourceLoader;
 
+	@Autowired
+	private EmployeeNameIndex nameIndex;
+
+	@Autowired
+	private EmployeeStatistics statistics;
+
+	@Autowired
+	private InitialLoadStatus loadStatus;
+
+	// false to load on the thread publishing ApplicationReadyEvent, which
+	// SpringApplication.run waits for; the web server is already started and
+	// employee requests are answered by InitialLoadFilter meanwhile
+	@Value("${kenemp.loader.async:true}")
+	private boolean asyncLoading;
+
+	private String loadError;
+
 	/**
 	 * Application main method
 	 * 
@@ -64,12 +79,36 @@ public class KenEmpApplication {
 	}
 
 	/**
-	 * Init method when spring boot starts.
+	 * Start the initial load once the application is up, so the web server
+	 * answers health checks while employees are loaded. Progress is reported
+	 * by {@link InitialLoadStatus}.
 	 */
-	@PostConstruct
-	private void init() {
-		// loading default employees
-		initialLoading();
+	@EventListener(ApplicationReadyEvent.class)
+	public void init() {
+		if (!asyncLoading) {
+			load();
+			return;
+		}
+		Thread loader = new Thread(this::load, "initial-load");
+		loader.setDaemon(true);
+		loader.start();
+	}
+
+	private void load() {
+		loadStatus.started();
+		String error = null;
+		try {
+			// loading default employees
+			initialLoading();
+		} catch (RuntimeException e) {
+			logger.error("Employees loading failed", e);
+			error = e.toString();
+		}
+		// name typeahead index of the loaded employees
+		nameIndex.rebuild();
+		// headcount and tenure counters of the loaded employees
+		statistics.rebuild();
+		loadStatus.finished(error == null ? loadError : error);
 		logger.info("Application loading finished...");
 	}
 
@@ -90,8 +129,9 @@ public class KenEmpApplication {
 	 * File should be CSV comma separated format with header as in sample of
 	 * static/emps.csv
 	 * 
-	 * skip header, read line by line and map them into a {@link Employee}
-	 * object and persist directly into DB.
+	 * skip header, parse the records in parallel chunks and persist each chunk
+	 * as one batch, or restore from the snapshot of an unchanged file, using
+	 * {@link InitialLoader}.
 	 */
 	private void initialLoading() {
 
@@ -106,26 +146,11 @@ public class KenEmpApplication {
 			banner = resourceLoader.getResource("classpath:static/emps.csv");
 		}
 
-		// reading csv file into stream, try-with-resources
-		try (Stream<String> stream = Files.lines(banner.getFile().toPath())) {
-			// skip the header, process each record and save them one by one to
-			// the DB.
-			stream.skip(1).forEach(line -> {
-				String[] val = line.split(",");
-				try {
-					employeeService.save(new Employee(val[0].trim(), val[1].trim(), val[2].trim(),
-							dateFormat.parse(val[3].trim()), dateFormat.parse(val[4].trim()), Status.ACTIVE));
-				} catch (ParseException e) {
-					e.printStackTrace();
-					logger.error(e.getMessage(), e);
-
-				}
-
-			});
-
+		try {
+			initialLoader.load(banner, loadStatus::rowsLoaded);
 		} catch (IOException ioe) {
-			ioe.printStackTrace();
 			logger.error(ioe.getMessage(), ioe);
+			loadError = ioe.toString();
 		}
 
 	}
@@ -0,0 +1,191 @@
+package com.ken.emp.cache;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.ken.emp.model.Employee;
+import com.ken.emp.service.EmployeeChangeEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Cache of serialized JSON representations of employees.
+ *
+ * Holds the encoded bytes of single employees by id and of the active
+ * employee list, so hot GET requests write bytes to the response without
+ * running Jackson again. Entries are invalidated by every
+ * {@link EmployeeChangeEvent}: the ids of the event for single employees and
+ * the whole list on any change.
+ *
+ */
+@Component
+public class EmployeeJsonCache {
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	// maximum number of cached employee representations
+	@Value("${kenemp.cache.json.max-size:100000}")
+	private int maxSize;
+
+	// time to live of cached representations
+	@Value("${kenemp.cache.json.ttl-seconds:600}")
+	private long ttlSeconds;
+
+	// larger active lists are serialized on every request
+	@Value("${kenemp.cache.json.max-list-bytes:33554432}")
+	private int maxListBytes;
+
+	private ObjectWriter employeeWriter;
+
+	private ObjectWriter listWriter;
+
+	private LongKeyCache<EmployeeJson> employees;
+
+	// incremented on every change, guards the list against stale loads
+	private final AtomicLong generation = new AtomicLong();
+
+	private volatile CachedList activeList;
+
+	/**
+	 * Create the writers and the cache and register its meters
+	 */
+	@PostConstruct
+	private void init() {
+		employeeWriter = objectMapper.writerFor(Employee.class);
+		listWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class,
+				Employee.class));
+		employees = new LongKeyCache<>(maxSize, ttlSeconds, TimeUnit.SECONDS);
+		if (meterRegistry != null) {
+			employees.bindTo(meterRegistry, "employee-json");
+		}
+	}
+
+	/**
+	 * Get the JSON of an employee
+	 *
+	 * @param id
+	 *            employee id
+	 * @param loader
+	 *            loads the employee on a miss, returns null if it is not
+	 *            found
+	 * @return JSON with the version of the employee, null if the employee was
+	 *         not found
+	 */
+	public EmployeeJson getEmployee(long id, LongFunction<Employee> loader) {
+		return employees.get(id, key -> {
+			Employee employee = loader.apply(key);
+			return employee == null ? null
+					: new EmployeeJson(serialize(employeeWriter, employee), employee.getVersion());
+		});
+	}
+
+	/**
+	 * @param id
+	 *            employee id
+	 * @return true if the JSON of the employee is cached
+	 */
+	public boolean containsEmployee(long id) {
+		return employees.getIfPresent(id) != null;
+	}
+
+	/**
+	 * Get the JSON of the active employee list
+	 *
+	 * @param loader
+	 *            loads the active employees on a miss
+	 * @return JSON bytes of the list
+	 */
+	public byte[] getActiveList(Supplier<List<Employee>> loader) {
+		CachedList cached = activeList;
+		long current = generation.get();
+		if (cached != null && cached.generation == current) {
+			return cached.json;
+		}
+		byte[] json = serialize(listWriter, loader.get());
+		if (json.length <= maxListBytes && generation.get() == current) {
+			activeList = new CachedList(current, json);
+		}
+		return json;
+	}
+
+	/**
+	 * Invalidate the representations of changed employees
+	 *
+	 * @param event
+	 *            change of employees
+	 */
+	@EventListener
+	public void onChange(EmployeeChangeEvent event) {
+		generation.incrementAndGet();
+		activeList = null;
+		for (long id : event.getIds()) {
+			employees.invalidate(id);
+		}
+	}
+
+	private static byte[] serialize(ObjectWriter writer, Object value) {
+		try {
+			return writer.writeValueAsBytes(value);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Failed to serialize employees", e);
+		}
+	}
+
+	/**
+	 * Serialized employee with the version it was serialized from
+	 */
+	public static final class EmployeeJson {
+
+		private final byte[] json;
+
+		private final Long version;
+
+		EmployeeJson(byte[] json, Long version) {
+			this.json = json;
+			this.version = version;
+		}
+
+		/**
+		 * @return JSON bytes, shared and not to be modified
+		 */
+		public byte[] getJson() {
+			return json;
+		}
+
+		public Long getVersion() {
+			return version;
+		}
+	}
+
+	/**
+	 * List JSON with the generation it was loaded in
+	 */
+	private static final class CachedList {
+
+		private final long generation;
+
+		private final byte[] json;
+
+		CachedList(long generation, byte[] json) {
+			this.generation = generation;
+			this.json = json;
+		}
+	}
+}
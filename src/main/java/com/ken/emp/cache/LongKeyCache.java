@@ -0,0 +1,417 @@
+package com.ken.emp.cache;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Bounded in-process cache keyed by primitive long.
+ *
+ * Entries live in segments of open addressing tables (linear probing), so
+ * keys are never boxed. When a segment is full an entry is evicted with the
+ * CLOCK algorithm, which approximates least recently used. Entries also
+ * expire after a fixed time to live.
+ *
+ * Loads through {@link #get(long, LongFunction)} and
+ * {@link #getAll(long[], Function)} are not cached when the key was
+ * invalidated while loading, so a slow read cannot put back a value that
+ * a concurrent write has just replaced.
+ *
+ * @param <V>
+ *            type of the values
+ */
+public class LongKeyCache<V> {
+
+	// expiry of entries without time to live
+	private static final long NO_EXPIRY = 0;
+
+	private final Segment<V>[] segments;
+
+	private final int segmentShift;
+
+	private final long ttlNanos;
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * constructor
+	 *
+	 * @param maxSize
+	 *            maximum number of entries
+	 * @param ttl
+	 *            time to live of an entry, 0 for no expiry
+	 * @param unit
+	 *            unit of ttl
+	 */
+	@SuppressWarnings("unchecked")
+	public LongKeyCache(int maxSize, long ttl, TimeUnit unit) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("maxSize must be positive");
+		}
+		int segmentCount = 1;
+		while (segmentCount < 16 && segmentCount * 64 < maxSize) {
+			segmentCount <<= 1;
+		}
+		this.segments = new Segment[segmentCount];
+		// spread the remainder so that the segment capacities add up to maxSize
+		int perSegment = maxSize / segmentCount;
+		int remainder = maxSize % segmentCount;
+		for (int i = 0; i < segmentCount; i++) {
+			segments[i] = new Segment<>(perSegment + (i < remainder ? 1 : 0), evictions);
+		}
+		this.segmentShift = 32 - Integer.numberOfTrailingZeros(segmentCount);
+		this.ttlNanos = unit.toNanos(ttl);
+	}
+
+	/**
+	 * Get a cached value
+	 *
+	 * @param key
+	 *            key
+	 * @return cached value or null
+	 */
+	public V getIfPresent(long key) {
+		int hash = hash(key);
+		V value = segmentFor(hash).get(key, hash, System.nanoTime());
+		if (value != null) {
+			hits.increment();
+		} else {
+			misses.increment();
+		}
+		return value;
+	}
+
+	/**
+	 * Get a cached value, loading and caching it on a miss
+	 *
+	 * @param key
+	 *            key
+	 * @param loader
+	 *            loads the value of a key, may return null which is not
+	 *            cached
+	 * @return cached or loaded value, null if the loader returned null
+	 */
+	public V get(long key, LongFunction<V> loader) {
+		int hash = hash(key);
+		Segment<V> segment = segmentFor(hash);
+		V value = segment.get(key, hash, System.nanoTime());
+		if (value != null) {
+			hits.increment();
+			return value;
+		}
+		misses.increment();
+		long stamp = segment.stamp();
+		value = loader.apply(key);
+		if (value != null) {
+			segment.put(key, hash, value, expiry(), stamp);
+		}
+		return value;
+	}
+
+	/**
+	 * Get the cached values of many keys, loading all misses together
+	 *
+	 * @param keys
+	 *            keys
+	 * @param loader
+	 *            loads the values of the missed keys at once, keys without
+	 *            value are left out of its result
+	 * @return cached or loaded value by key, keys without value are left out
+	 */
+	public Map<Long, V> getAll(long[] keys, Function<long[], Map<Long, V>> loader) {
+		Map<Long, V> values = new HashMap<>(keys.length * 2);
+		long[] missed = new long[keys.length];
+		long[] stamps = new long[keys.length];
+		int misses = 0;
+		long now = System.nanoTime();
+		for (long key : keys) {
+			int hash = hash(key);
+			Segment<V> segment = segmentFor(hash);
+			V value = segment.get(key, hash, now);
+			if (value != null) {
+				hits.increment();
+				values.put(key, value);
+			} else {
+				this.misses.increment();
+				missed[misses] = key;
+				stamps[misses++] = segment.stamp();
+			}
+		}
+		if (misses == 0) {
+			return values;
+		}
+		Map<Long, V> loaded = loader.apply(Arrays.copyOf(missed, misses));
+		for (int i = 0; i < misses; i++) {
+			V value = loaded.get(missed[i]);
+			if (value != null) {
+				int hash = hash(missed[i]);
+				segmentFor(hash).put(missed[i], hash, value, expiry(), stamps[i]);
+				values.put(missed[i], value);
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * Cache a value, replacing any existing value
+	 *
+	 * @param key
+	 *            key
+	 * @param value
+	 *            value, not null
+	 */
+	public void put(long key, V value) {
+		int hash = hash(key);
+		Segment<V> segment = segmentFor(hash);
+		segment.invalidate(key, hash);
+		segment.put(key, hash, value, expiry(), -1);
+	}
+
+	/**
+	 * Remove a key
+	 *
+	 * @param key
+	 *            key
+	 */
+	public void invalidate(long key) {
+		int hash = hash(key);
+		segmentFor(hash).invalidate(key, hash);
+	}
+
+	/**
+	 * Remove all keys
+	 */
+	public void invalidateAll() {
+		for (Segment<V> segment : segments) {
+			segment.clear();
+		}
+	}
+
+	/**
+	 * @return number of entries, including expired entries not yet removed
+	 */
+	public long size() {
+		long size = 0;
+		for (Segment<V> segment : segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+
+	public long hitCount() {
+		return hits.sum();
+	}
+
+	public long missCount() {
+		return misses.sum();
+	}
+
+	public long evictionCount() {
+		return evictions.sum();
+	}
+
+	/**
+	 * Register size, hit, miss and eviction meters tagged with the cache name
+	 *
+	 * @param registry
+	 *            meter registry
+	 * @param name
+	 *            cache name
+	 */
+	public void bindTo(MeterRegistry registry, String name) {
+		Gauge.builder("kenemp.cache.size", this, LongKeyCache::size).tag("cache", name)
+				.description("Number of entries in the cache").register(registry);
+		FunctionCounter.builder("kenemp.cache.gets", this, LongKeyCache::hitCount).tag("cache", name)
+				.tag("result", "hit").description("Cache lookups").register(registry);
+		FunctionCounter.builder("kenemp.cache.gets", this, LongKeyCache::missCount).tag("cache", name)
+				.tag("result", "miss").description("Cache lookups").register(registry);
+		FunctionCounter.builder("kenemp.cache.evictions", this, LongKeyCache::evictionCount).tag("cache", name)
+				.description("Entries evicted because the cache was full").register(registry);
+	}
+
+	private long expiry() {
+		return ttlNanos > 0 ? System.nanoTime() + ttlNanos : NO_EXPIRY;
+	}
+
+	private Segment<V> segmentFor(int hash) {
+		return segments.length == 1 ? segments[0] : segments[hash >>> segmentShift];
+	}
+
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	/**
+	 * Open addressing table guarded by its own lock
+	 */
+	private static final class Segment<T> {
+
+		private final int capacity;
+
+		private final LongAdder evictions;
+
+		private final int mask;
+
+		private final long[] keys;
+
+		private final Object[] values;
+
+		private final long[] expiries;
+
+		private final boolean[] referenced;
+
+		private int size;
+
+		private int hand;
+
+		// incremented on every invalidation, see LongKeyCache#get
+		private long invalidations;
+
+		Segment(int capacity, LongAdder evictions) {
+			this.capacity = capacity;
+			this.evictions = evictions;
+			int length = Integer.highestOneBit(Math.max(2, capacity * 2 - 1)) << 1;
+			this.mask = length - 1;
+			this.keys = new long[length];
+			this.values = new Object[length];
+			this.expiries = new long[length];
+			this.referenced = new boolean[length];
+		}
+
+		@SuppressWarnings("unchecked")
+		synchronized T get(long key, int hash, long now) {
+			int slot = find(key, hash);
+			if (slot < 0) {
+				return null;
+			}
+			if (expired(slot, now)) {
+				remove(slot);
+				return null;
+			}
+			referenced[slot] = true;
+			return (T) values[slot];
+		}
+
+		synchronized long stamp() {
+			return invalidations;
+		}
+
+		/**
+		 * insert or replace, skipped if stamp is not -1 and the segment was
+		 * invalidated since the stamp was taken
+		 */
+		synchronized void put(long key, int hash, T value, long expiry, long stamp) {
+			if (stamp != -1 && stamp != invalidations) {
+				return;
+			}
+			int slot = find(key, hash);
+			if (slot < 0) {
+				if (size >= capacity) {
+					evict();
+				}
+				slot = hash & mask;
+				while (values[slot] != null) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = key;
+				size++;
+			}
+			values[slot] = value;
+			expiries[slot] = expiry;
+			referenced[slot] = false;
+		}
+
+		synchronized void invalidate(long key, int hash) {
+			invalidations++;
+			int slot = find(key, hash);
+			if (slot >= 0) {
+				remove(slot);
+			}
+		}
+
+		synchronized void clear() {
+			invalidations++;
+			for (int i = 0; i < values.length; i++) {
+				values[i] = null;
+			}
+			size = 0;
+		}
+
+		synchronized int size() {
+			return size;
+		}
+
+		private boolean expired(int slot, long now) {
+			return expiries[slot] != NO_EXPIRY && expiries[slot] - now < 0;
+		}
+
+		private int find(long key, int hash) {
+			int slot = hash & mask;
+			while (values[slot] != null) {
+				if (keys[slot] == key) {
+					return slot;
+				}
+				slot = (slot + 1) & mask;
+			}
+			return -1;
+		}
+
+		/**
+		 * CLOCK: clear the reference bit of referenced entries until an
+		 * unreferenced or expired entry is found
+		 */
+		private void evict() {
+			long now = System.nanoTime();
+			while (true) {
+				if (values[hand] != null) {
+					if (!referenced[hand] || expired(hand, now)) {
+						// removal shifts a following entry into the hand slot,
+						// which is then visited on the next eviction
+						remove(hand);
+						evictions.increment();
+						return;
+					}
+					referenced[hand] = false;
+				}
+				hand = (hand + 1) & mask;
+			}
+		}
+
+		/**
+		 * backward shift deletion, keeps probe sequences intact without
+		 * tombstones
+		 */
+		private void remove(int slot) {
+			int gap = slot;
+			int next = (gap + 1) & mask;
+			while (values[next] != null) {
+				int home = hash(keys[next]) & mask;
+				// move the entry into the gap unless its home slot lies
+				// cyclically in (gap, next]
+				if (((next - home) & mask) >= ((next - gap) & mask)) {
+					keys[gap] = keys[next];
+					values[gap] = values[next];
+					expiries[gap] = expiries[next];
+					referenced[gap] = referenced[next];
+					gap = next;
+				}
+				next = (next + 1) & mask;
+			}
+			values[gap] = null;
+			size--;
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package com.ken.emp.config;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Concurrency limit adjusted from the observed latency (AIMD).
+ *
+ * Every request completing within the target latency while the limit is in
+ * use raises the limit by 1/limit, about one per limit's worth of requests.
+ * A request slower than the target, or answered HTTP/SERVICE_UNAVAILABLE 503,
+ * multiplies the limit by the backoff ratio. Requests admitted before the
+ * last decrease do not decrease it again, so a burst of slow requests backs
+ * off once and not once per request.
+ *
+ * Requests beyond the limit wait up to the maximum queue time for a slot and
+ * are shed when they did not get one.
+ *
+ */
+public class AdaptiveLimit {
+
+	private final String name;
+
+	private final int minLimit;
+
+	private final int maxLimit;
+
+	private final long targetLatencyNanos;
+
+	private final double backoffRatio;
+
+	private double limit;
+
+	private int inFlight;
+
+	// System.nanoTime() of the last decrease
+	private long decreasedAt = System.nanoTime();
+
+	private long admitted;
+
+	private long shed;
+
+	/**
+	 * constructor
+	 *
+	 * @param name
+	 *            name of the limit, tag of its meters
+	 * @param initialLimit
+	 *            concurrent requests before any latency was observed
+	 * @param minLimit
+	 *            lower bound of the limit
+	 * @param maxLimit
+	 *            upper bound of the limit
+	 * @param targetLatencyMillis
+	 *            slower requests decrease the limit
+	 * @param backoffRatio
+	 *            factor of a decrease, between 0 and 1
+	 */
+	public AdaptiveLimit(String name, int initialLimit, int minLimit, int maxLimit, long targetLatencyMillis,
+			double backoffRatio) {
+		if (minLimit < 1 || minLimit > maxLimit || backoffRatio <= 0 || backoffRatio >= 1) {
+			throw new IllegalArgumentException("Invalid limit " + name + ": min " + minLimit + ", max " + maxLimit
+					+ ", backoff " + backoffRatio);
+		}
+		this.name = name;
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMillis);
+		this.backoffRatio = backoffRatio;
+		this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+	}
+
+	/**
+	 * Admit a request, waiting for a slot if the limit is reached
+	 *
+	 * @param maxQueueMillis
+	 *            maximum time to wait for a slot
+	 * @return true if the request is admitted, false if it is shed
+	 * @throws InterruptedException
+	 *             if interrupted while waiting
+	 */
+	public synchronized boolean acquire(long maxQueueMillis) throws InterruptedException {
+		if (inFlight >= (int) limit) {
+			long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxQueueMillis);
+			long remaining;
+			while (inFlight >= (int) limit) {
+				remaining = deadline - System.nanoTime();
+				if (remaining <= 0) {
+					shed++;
+					return false;
+				}
+				TimeUnit.NANOSECONDS.timedWait(this, remaining);
+			}
+		}
+		inFlight++;
+		admitted++;
+		return true;
+	}
+
+	/**
+	 * Release the slot of a completed request and adjust the limit
+	 *
+	 * @param admittedAt
+	 *            System.nanoTime() when the request was admitted
+	 * @param overloaded
+	 *            true if the request failed for lack of capacity
+	 */
+	public synchronized void release(long admittedAt, boolean overloaded) {
+		boolean used = inFlight * 2 >= limit;
+		inFlight--;
+		if (overloaded || System.nanoTime() - admittedAt > targetLatencyNanos) {
+			if (admittedAt - decreasedAt > 0) {
+				limit = Math.max(minLimit, limit * backoffRatio);
+				decreasedAt = System.nanoTime();
+			}
+		} else if (used && limit < maxLimit) {
+			int before = (int) limit;
+			limit = Math.min(maxLimit, limit + 1 / limit);
+			if ((int) limit > before) {
+				notifyAll();
+				return;
+			}
+		}
+		notify();
+	}
+
+	/**
+	 * Register limit, in-flight and request meters tagged with the limit name
+	 *
+	 * @param registry
+	 *            meter registry
+	 */
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("kenemp.admission.limit", this, AdaptiveLimit::getLimit).tag("kind", name)
+				.description("Concurrent requests admitted").register(registry);
+		Gauge.builder("kenemp.admission.in-flight", this, AdaptiveLimit::getInFlight).tag("kind", name)
+				.description("Requests being processed").register(registry);
+		FunctionCounter.builder("kenemp.admission.requests", this, AdaptiveLimit::getAdmitted).tag("kind", name)
+				.tag("result", "admitted").description("Requests by admission result").register(registry);
+		FunctionCounter.builder("kenemp.admission.requests", this, AdaptiveLimit::getShed).tag("kind", name)
+				.tag("result", "shed").description("Requests by admission result").register(registry);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return current limit, rounded down
+	 */
+	public synchronized int getLimit() {
+		return (int) limit;
+	}
+
+	public synchronized int getInFlight() {
+		return inFlight;
+	}
+
+	public synchronized long getAdmitted() {
+		return admitted;
+	}
+
+	public synchronized long getShed() {
+		return shed;
+	}
+}
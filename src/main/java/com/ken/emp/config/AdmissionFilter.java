@@ -0,0 +1,205 @@
+package com.ken.emp.config;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Priority;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+import org.glassfish.jersey.server.monitoring.ApplicationEvent;
+import org.glassfish.jersey.server.monitoring.ApplicationEventListener;
+import org.glassfish.jersey.server.monitoring.RequestEvent;
+import org.glassfish.jersey.server.monitoring.RequestEventListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.ken.emp.res.ResourceExecutor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Admission control of the employee end-points.
+ *
+ * Reads and writes have their own {@link AdaptiveLimit}, so slow writes do
+ * not starve reads. Requests beyond the limit wait up to
+ * kenemp.admission.max-queue-ms and are answered with
+ * HTTP/SERVICE_UNAVAILABLE 503 and Retry-After when still not admitted. Slots
+ * are released when Jersey finished the request, also for failed and
+ * asynchronous requests, and the latency adjusts the limit. Only the 503 the
+ * {@link ResourceExecutor} marks as overloaded backs the limit off, not the
+ * 503 of an index or of counters not built yet. The slot is kept
+ * by the request event listener, as request properties are servlet request
+ * attributes which are recycled before an asynchronous request finished.
+ *
+ * Exports and imports are not limited: they stream for as long as the
+ * data takes, their duration says nothing about overload and would only
+ * cut the limits of the other requests.
+ *
+ * Runs after the {@link InitialLoadFilter}, so reads rejected while loading
+ * take no slot.
+ *
+ */
+@Component
+@Priority(Priorities.USER + 100)
+public class AdmissionFilter implements ContainerRequestFilter, ContainerResponseFilter, ApplicationEventListener {
+
+	private static final String ADMISSION = AdmissionFilter.class.getName();
+
+	// streaming end-points, not limited
+	private static final List<String> UNLIMITED_PATHS = Arrays.asList("employees/export", "employees/import");
+
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	@Value("${kenemp.admission.enabled:true}")
+	private boolean enabled;
+
+	// longest wait for a slot before a request is shed
+	@Value("${kenemp.admission.max-queue-ms:50}")
+	private long maxQueueMillis;
+
+	// Retry-After of shed requests
+	@Value("${kenemp.admission.retry-after-seconds:1}")
+	private int retryAfterSeconds;
+
+	@Value("${kenemp.admission.backoff-ratio:0.9}")
+	private double backoffRatio;
+
+	@Value("${kenemp.admission.read.initial-limit:64}")
+	private int readInitialLimit;
+
+	@Value("${kenemp.admission.read.min-limit:4}")
+	private int readMinLimit;
+
+	@Value("${kenemp.admission.read.max-limit:256}")
+	private int readMaxLimit;
+
+	@Value("${kenemp.admission.read.target-latency-ms:250}")
+	private long readTargetLatency;
+
+	@Value("${kenemp.admission.write.initial-limit:16}")
+	private int writeInitialLimit;
+
+	@Value("${kenemp.admission.write.min-limit:2}")
+	private int writeMinLimit;
+
+	@Value("${kenemp.admission.write.max-limit:64}")
+	private int writeMaxLimit;
+
+	@Value("${kenemp.admission.write.target-latency-ms:1000}")
+	private long writeTargetLatency;
+
+	private AdaptiveLimit reads;
+
+	private AdaptiveLimit writes;
+
+	/**
+	 * Create the limits and register their meters
+	 */
+	@PostConstruct
+	public void init() {
+		reads = new AdaptiveLimit("read", readInitialLimit, readMinLimit, readMaxLimit, readTargetLatency,
+				backoffRatio);
+		writes = new AdaptiveLimit("write", writeInitialLimit, writeMinLimit, writeMaxLimit, writeTargetLatency,
+				backoffRatio);
+		if (meterRegistry != null) {
+			reads.bindTo(meterRegistry);
+			writes.bindTo(meterRegistry);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void filter(ContainerRequestContext request) {
+		Admission admission = (Admission) request.getProperty(ADMISSION);
+		if (admission == null) {
+			return;
+		}
+		String method = request.getMethod();
+		AdaptiveLimit limit = HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method) ? reads : writes;
+		boolean admitted;
+		try {
+			admitted = limit.acquire(maxQueueMillis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			admitted = false;
+		}
+		if (!admitted) {
+			request.abortWith(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+					.header(HttpHeaders.RETRY_AFTER, retryAfterSeconds)
+					.entity("Too many concurrent " + limit.getName() + " requests").build());
+			return;
+		}
+		admission.admitted(limit);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+		boolean overloaded = response.getHeaders().remove(ResourceExecutor.OVERLOADED) != null;
+		Admission admission = (Admission) request.getProperty(ADMISSION);
+		if (overloaded && admission != null) {
+			admission.overloaded = true;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onEvent(ApplicationEvent event) {
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public RequestEventListener onRequest(RequestEvent requestEvent) {
+		String path = requestEvent.getUriInfo().getPath();
+		if (!enabled || !path.startsWith("employees") || UNLIMITED_PATHS.stream().anyMatch(path::startsWith)) {
+			return null;
+		}
+		Admission admission = new Admission();
+		requestEvent.getContainerRequest().setProperty(ADMISSION, admission);
+		return admission;
+	}
+
+	/**
+	 * Slot of an employee request, released when the request finished
+	 */
+	private static class Admission implements RequestEventListener {
+
+		private volatile AdaptiveLimit limit;
+
+		private volatile long admittedAt;
+
+		// saturated executor or timed out call
+		private volatile boolean overloaded;
+
+		void admitted(AdaptiveLimit limit) {
+			this.admittedAt = System.nanoTime();
+			this.limit = limit;
+		}
+
+		@Override
+		public void onEvent(RequestEvent event) {
+			if (event.getType() != RequestEvent.Type.FINISHED || limit == null) {
+				return;
+			}
+			limit.release(admittedAt, overloaded);
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package com.ken.emp.config;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.ken.emp.loader.InitialLoadStatus;
+
+/**
+ * Policy of employee reads while the initial load is running. Writes are
+ * rejected whatever the policy: the id sequence is restarted past the loaded
+ * ids at the end of loading, and written employees would make the loader skip
+ * rows as duplicates.
+ *
+ */
+@Component
+public class InitialLoadFilter implements ContainerRequestFilter {
+
+	/**
+	 * What reads get while employees are loaded
+	 */
+	public enum ReadPolicy {
+		/**
+		 * serve the employees loaded so far
+		 */
+		SERVE,
+		/**
+		 * wait for the end of loading up to kenemp.loader.read-wait-ms, then
+		 * reject
+		 */
+		WAIT,
+		/**
+		 * HTTP/SERVICE_UNAVAILABLE 503 with Retry-After
+		 */
+		REJECT
+	}
+
+	@Autowired
+	private InitialLoadStatus status;
+
+	@Value("${kenemp.loader.read-policy:REJECT}")
+	private ReadPolicy policy;
+
+	@Value("${kenemp.loader.read-wait-ms:2000}")
+	private long waitMillis;
+
+	// Retry-After of rejected requests
+	@Value("${kenemp.loader.retry-after-seconds:5}")
+	private int retryAfterSeconds;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void filter(ContainerRequestContext request) {
+		if (status.isReady() || !request.getUriInfo().getPath().startsWith("employees")) {
+			return;
+		}
+		boolean read = isRead(request);
+		if (read && policy == ReadPolicy.SERVE) {
+			return;
+		}
+		if (read && policy == ReadPolicy.WAIT) {
+			try {
+				if (status.awaitReady(waitMillis)) {
+					return;
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		request.abortWith(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+				.header(HttpHeaders.RETRY_AFTER, retryAfterSeconds)
+				.entity("Employees are being loaded, " + status.getRowsLoaded() + " loaded so far").build());
+	}
+
+	private static boolean isRead(ContainerRequestContext request) {
+		String method = request.getMethod();
+		return HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method);
+	}
+}
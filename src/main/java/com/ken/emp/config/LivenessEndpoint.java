@@ -0,0 +1,46 @@
+package com.ken.emp.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import com.ken.emp.loader.InitialLoadStatus;
+
+/**
+ * Liveness probe at /actuator/liveness.
+ *
+ * Answers as soon as the web server is up and independent of the initial
+ * load and the database, unlike /actuator/health which is the readiness
+ * probe.
+ *
+ * The progress of the initial load is reported with the status, as the
+ * health details are only shown to authenticated users.
+ *
+ */
+@Component
+@Endpoint(id = "liveness")
+public class LivenessEndpoint {
+
+	@Autowired
+	private InitialLoadStatus loadStatus;
+
+	/**
+	 * @return status UP and state, rows loaded and elapsed time of the
+	 *         initial load
+	 */
+	@ReadOperation
+	public Map<String, Object> liveness() {
+		Map<String, Object> initialLoad = new LinkedHashMap<>();
+		initialLoad.put("state", loadStatus.getState());
+		initialLoad.put("rowsLoaded", loadStatus.getRowsLoaded());
+		initialLoad.put("elapsedMs", loadStatus.getElapsedMillis());
+		Map<String, Object> liveness = new LinkedHashMap<>();
+		liveness.put("status", "UP");
+		liveness.put("initialLoad", initialLoad);
+		return liveness;
+	}
+}
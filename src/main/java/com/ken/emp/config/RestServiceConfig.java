@@ -3,9 +3,14 @@ package com.ken.emp.config;
 import javax.ws.rs.ApplicationPath;
 
 import org.glassfish.jersey.server.ResourceConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.stereotype.Component;
 
+import com.fasterxml.jackson.jaxrs.cbor.JacksonCBORProvider;
+import com.fasterxml.jackson.jaxrs.smile.JacksonSmileProvider;
 import com.ken.emp.res.EmployeeResource;
+import com.ken.emp.res.SwaggerSpecResource;
 
 import io.swagger.jaxrs.config.BeanConfig;
 import io.swagger.jaxrs.listing.ApiListingResource;
@@ -28,14 +33,34 @@ public class RestServiceConfig extends ResourceConfig {
 
 	/**
 	 * constructor
+	 * 
+	 * @param scanSwagger
+	 *            true to build swagger.json by scanning the resources at
+	 *            runtime instead of serving the spec generated by the build
 	 */
-	public RestServiceConfig() {
+	public RestServiceConfig(@Value("${kenemp.swagger.scan:false}") boolean scanSwagger) {
 		register(EmployeeResource.class);
-		configureSwagger();
+		register(InitialLoadFilter.class);
+		register(AdmissionFilter.class);
+		configureEncodings();
+		if (!scanSwagger && SwaggerSpecResource.isAvailable()) {
+			register(SwaggerSpecResource.class);
+		} else {
+			configureSwagger();
+		}
+	}
+
+	private void configureEncodings() {
+		// binary representations next to JSON, negotiated by Accept and
+		// Content-Type. The builders apply the same modules and date handling
+		// as the JSON mapper.
+		register(new JacksonSmileProvider(Jackson2ObjectMapperBuilder.smile().build()));
+		register(new JacksonCBORProvider(Jackson2ObjectMapperBuilder.cbor().build()));
 	}
 
 	private void configureSwagger() {
-		// swagger.json is Available at /kenEmp/api/v1/swagger.json
+		// swagger.json is Available at /kenEmp/api/v1/swagger.json, scanned on
+		// the first request
 		// add swagger-core's providers to the set up process.
 		register(ApiListingResource.class);
 	    register(SwaggerSerializers.class);
@@ -0,0 +1,137 @@
+package com.ken.emp.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceChainRegistration;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+import org.springframework.web.servlet.resource.CssLinkResourceTransformer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+/**
+ * Static resource configuration of the Swagger UI assets.
+ *
+ * The assets are served under content-hashed URLs, for example
+ * /swagger-ui-8e1b4f3a....js, and the index template resolves them with
+ * @{...} links. Only a hashed URL gets a long-lived immutable Cache-Control,
+ * the same asset requested under its plain URL is sent with no-cache so it is
+ * revalidated against Last-Modified.
+ *
+ * The links of the stylesheets are rewritten to the hashed URLs, so the
+ * stylesheets are not served from their precompressed .gz siblings, which
+ * keep the plain links, but compressed on the fly like the other text
+ * responses. The other assets send the .gz sibling to clients accepting gzip.
+ *
+ */
+@Configuration
+public class StaticResourceConfig implements WebMvcConfigurer {
+
+	/**
+	 * directories of static/ with assets referenced by the Swagger UI page
+	 */
+	private static final String[] ASSET_DIRECTORIES = { "css", "lib", "lang", "images" };
+
+	/**
+	 * the stylesheet directory, its links are rewritten
+	 */
+	private static final String CSS_DIRECTORY = "css";
+
+	/**
+	 * file name carrying the content hash of VersionResourceResolver
+	 */
+	private static final Pattern VERSIONED = Pattern.compile("-[0-9a-f]{32}\\.[^/]*$");
+
+	@Value("${kenemp.assets.max-age-days:365}")
+	private long maxAgeDays;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void addResourceHandlers(ResourceHandlerRegistry registry) {
+		// no Cache-Control here, AssetCacheControl sets it by the request path
+		for (String directory : ASSET_DIRECTORIES) {
+			ResourceChainRegistration chain = registry.addResourceHandler("/" + directory + "/**")
+					.addResourceLocations("classpath:/static/" + directory + "/").resourceChain(true);
+			if (CSS_DIRECTORY.equals(directory)) {
+				addVersions(chain).addTransformer(new CssLinkResourceTransformer());
+			} else {
+				addVersions(chain.addResolver(new EncodedResourceResolver()));
+			}
+		}
+		addVersions(registry.addResourceHandler("/swagger-ui*.js").addResourceLocations("classpath:/static/")
+				.resourceChain(true).addResolver(new EncodedResourceResolver()));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(new AssetCacheControl(
+				immutable(CacheControl.maxAge(maxAgeDays, TimeUnit.DAYS).cachePublic()).getHeaderValue()))
+				.addPathPatterns("/css/**", "/lib/**", "/lang/**", "/images/**", "/swagger-ui*.js");
+	}
+
+	private static ResourceChainRegistration addVersions(ResourceChainRegistration chain) {
+		return chain.addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+	}
+
+	/**
+	 * Rewrites the links of the templates to the hashed URLs
+	 *
+	 * @return filter encoding resource URLs
+	 */
+	@Bean
+	public ResourceUrlEncodingFilter resourceUrlEncodingFilter() {
+		return new ResourceUrlEncodingFilter();
+	}
+
+	/**
+	 * CacheControl of Spring 5.1 has no immutable directive
+	 */
+	private static CacheControl immutable(CacheControl cacheControl) {
+		return new CacheControl() {
+			@Override
+			public String getHeaderValue() {
+				return cacheControl.getHeaderValue() + ", immutable";
+			}
+		};
+	}
+
+	/**
+	 * Sets the Cache-Control of an asset before its handler writes it. A
+	 * hashed URL never changes content, VersionResourceResolver answers 404
+	 * for a hash not matching the content.
+	 */
+	private static class AssetCacheControl extends HandlerInterceptorAdapter {
+
+		private final String versioned;
+
+		private final String unversioned = CacheControl.noCache().getHeaderValue();
+
+		AssetCacheControl(String versioned) {
+			this.versioned = versioned;
+		}
+
+		@Override
+		public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+			boolean hashed = VERSIONED.matcher(request.getRequestURI()).find();
+			response.setHeader(HttpHeaders.CACHE_CONTROL, hashed ? versioned : unversioned);
+			return true;
+		}
+	}
+}
@@ -28,10 +28,13 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
 	 */
 	@Override
 	protected void configure(HttpSecurity http) throws Exception {
-		// Basic authentication for employee delete function only. using in memory user and password given below.
+		// Basic authentication for employee delete, deactivate and purge functions only. using in memory user and password given below.
 		// password == "password"
 		http.csrf().disable().authorizeRequests()
-				.antMatchers(HttpMethod.DELETE, RestServiceConfig.appBasePath + "/employees").authenticated().and()
+				.antMatchers(HttpMethod.DELETE, RestServiceConfig.appBasePath + "/employees").authenticated()
+				.antMatchers(HttpMethod.POST, RestServiceConfig.appBasePath + "/employees/deactivate").authenticated()
+				.antMatchers(HttpMethod.POST, RestServiceConfig.appBasePath + "/employees/purge").authenticated()
+				.and()
 				.httpBasic().authenticationEntryPoint(authEntryPoint);
 	}
 
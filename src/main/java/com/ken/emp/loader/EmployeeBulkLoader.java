@@ -0,0 +1,267 @@
+package com.ken.emp.loader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.ken.emp.model.Employee;
+import com.ken.emp.service.EmployeeService;
+
+/**
+ * Bulk loader for employee CSV files.
+ *
+ * The input is read in chunks of lines, chunks are parsed in parallel on a
+ * small worker pool and every parsed chunk is persisted in order with
+ * {@link EmployeeService#saveAll(List)}, which is a single transaction and a
+ * JDBC batch insert per chunk. The number of chunks in flight is bounded, so
+ * memory use does not depend on the size of the file, and a slow database
+ * slows down reading of the input.
+ *
+ */
+@Component
+public class EmployeeBulkLoader {
+
+	private static final Logger logger = LoggerFactory.getLogger(EmployeeBulkLoader.class);
+
+	private final EmployeeCsvParser parser = new EmployeeCsvParser();
+
+	@Autowired
+	private EmployeeService employeeService;
+
+	// number of lines parsed and persisted together
+	@Value("${kenemp.loader.batch-size:1000}")
+	private int batchSize;
+
+	// number of parser threads, 0 means one per available processor
+	@Value("${kenemp.loader.parallelism:0}")
+	private int parallelism;
+
+	// number of error messages kept in the report
+	@Value("${kenemp.loader.max-reported-errors:100}")
+	private int maxReportedErrors;
+
+	/**
+	 * Load employees from a CSV stream with a header line
+	 *
+	 * @param in
+	 *            UTF-8 encoded CSV input, not closed by this method
+	 * @return load report
+	 * @throws IOException
+	 *             on read failure
+	 */
+	public LoadReport load(InputStream in) throws IOException {
+		return load(in, false);
+	}
+
+	/**
+	 * Load employees from a CSV stream with a header line
+	 *
+	 * @param in
+	 *            UTF-8 encoded CSV input, not closed by this method
+	 * @param skipDuplicates
+	 *            true to skip rows matching an existing employee, see
+	 *            {@link EmployeeService#filterNew(List)}
+	 * @return load report
+	 * @throws IOException
+	 *             on read failure
+	 */
+	public LoadReport load(InputStream in, boolean skipDuplicates) throws IOException {
+		return load(in, skipDuplicates, count -> {
+		});
+	}
+
+	/**
+	 * Load employees from a CSV stream with a header line
+	 *
+	 * @param in
+	 *            UTF-8 encoded CSV input, not closed by this method
+	 * @param skipDuplicates
+	 *            true to skip rows matching an existing employee, see
+	 *            {@link EmployeeService#filterNew(List)}
+	 * @param progress
+	 *            called with the number of employees of every persisted
+	 *            chunk
+	 * @return load report
+	 * @throws IOException
+	 *             on read failure
+	 */
+	public LoadReport load(InputStream in, boolean skipDuplicates, LongConsumer progress) throws IOException {
+		return load(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), skipDuplicates,
+				progress);
+	}
+
+	/**
+	 * Load employees from a CSV reader with a header line
+	 *
+	 * @param reader
+	 *            CSV input, not closed by this method
+	 * @param skipDuplicates
+	 *            true to skip rows matching an existing employee
+	 * @param progress
+	 *            called with the number of employees of every persisted
+	 *            chunk
+	 * @return load report
+	 * @throws IOException
+	 *             on read failure
+	 */
+	public LoadReport load(BufferedReader reader, boolean skipDuplicates, LongConsumer progress) throws IOException {
+		LoadReport report = new LoadReport(maxReportedErrors);
+		int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+		ExecutorService workers = Executors.newFixedThreadPool(threads, new ParserThreadFactory());
+		Deque<Future<Chunk>> inFlight = new ArrayDeque<>();
+		try {
+			// skip the header
+			long lineNumber = reader.readLine() == null ? 0 : 1;
+			List<String> lines;
+			while (!(lines = readLines(reader)).isEmpty()) {
+				final List<String> chunkLines = lines;
+				final long firstLine = lineNumber + 1;
+				lineNumber += lines.size();
+				inFlight.add(workers.submit(() -> parse(chunkLines, firstLine)));
+				if (inFlight.size() >= threads * 2) {
+					persist(inFlight.poll(), skipDuplicates, report, progress);
+				}
+			}
+			while (!inFlight.isEmpty()) {
+				persist(inFlight.poll(), skipDuplicates, report, progress);
+			}
+		} finally {
+			workers.shutdownNow();
+			report.finish();
+		}
+		return report;
+	}
+
+	private List<String> readLines(BufferedReader reader) throws IOException {
+		List<String> lines = new ArrayList<>(batchSize);
+		String line;
+		while (lines.size() < batchSize && (line = reader.readLine()) != null) {
+			lines.add(line);
+		}
+		return lines;
+	}
+
+	private Chunk parse(List<String> lines, long firstLine) {
+		Chunk chunk = new Chunk(firstLine, lines.size());
+		for (int i = 0; i < lines.size(); i++) {
+			String line = lines.get(i);
+			if (line.trim().isEmpty()) {
+				continue;
+			}
+			try {
+				chunk.employees.add(parser.parse(line));
+			} catch (ParseException e) {
+				chunk.errors.add(new RowError(firstLine + i, e.getMessage()));
+			}
+		}
+		return chunk;
+	}
+
+	private void persist(Future<Chunk> future, boolean skipDuplicates, LoadReport report, LongConsumer progress)
+			throws IOException {
+		Chunk chunk;
+		try {
+			chunk = future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Employee loading interrupted");
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Employee parsing failed", e.getCause());
+		}
+
+		report.rowsRead(chunk.employees.size() + chunk.errors.size());
+		for (RowError error : chunk.errors) {
+			report.reject(error.line, error.message);
+		}
+		if (chunk.employees.isEmpty()) {
+			return;
+		}
+		List<Employee> employees = chunk.employees;
+		try {
+			if (skipDuplicates) {
+				employees = employeeService.filterNew(employees);
+				report.duplicates(chunk.employees.size() - employees.size());
+			}
+			if (!employees.isEmpty()) {
+				employeeService.saveAll(employees);
+				report.rowsLoaded(employees.size());
+				progress.accept(employees.size());
+			}
+		} catch (RuntimeException e) {
+			long lastLine = chunk.firstLine + chunk.lineCount - 1;
+			logger.error("Failed to persist lines " + chunk.firstLine + "-" + lastLine, e);
+			report.reject(chunk.firstLine, lastLine, employees.size(), "batch not persisted: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Parsed lines of one chunk
+	 */
+	private static class Chunk {
+
+		private final long firstLine;
+
+		private final int lineCount;
+
+		private final List<Employee> employees;
+
+		private final List<RowError> errors = new ArrayList<>();
+
+		Chunk(long firstLine, int lineCount) {
+			this.firstLine = firstLine;
+			this.lineCount = lineCount;
+			this.employees = new ArrayList<>(lineCount);
+		}
+	}
+
+	/**
+	 * Rejected line of a chunk
+	 */
+	private static class RowError {
+
+		private final long line;
+
+		private final String message;
+
+		RowError(long line, String message) {
+			this.line = line;
+			this.message = message;
+		}
+	}
+
+	/**
+	 * Daemon threads named after the loader
+	 */
+	private static class ParserThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "emp-loader-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
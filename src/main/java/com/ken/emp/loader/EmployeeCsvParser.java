@@ -0,0 +1,130 @@
+package com.ken.emp.loader;
+
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import com.ken.emp.model.Employee;
+import com.ken.emp.model.Status;
+
+/**
+ * Parses a single line of the employee CSV format (see static/emps.csv) into
+ * an {@link Employee}.
+ *
+ * FIRST_NAME,INITIALS,LAST_NAME,DATE_OF_BIRTH,DATE_OF_EMPLOYMENT
+ *
+ * Dates are day/month/year, with or without leading zeros, at midnight UTC
+ * by default like the dates of the JSON representation. Columns may be
+ * enclosed in double quotes to contain commas, with a quote inside written
+ * twice; quoted columns cannot span lines. The parser is stateless and can be
+ * shared between threads.
+ *
+ */
+public final class EmployeeCsvParser {
+
+	/**
+	 * Number of columns expected in each CSV record
+	 */
+	public static final int COLUMNS = 5;
+
+	private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("d/M/uuuu")
+			.withResolverStyle(ResolverStyle.STRICT);
+
+	private final ZoneId zone;
+
+	/**
+	 * constructor using UTC for date conversion
+	 */
+	public EmployeeCsvParser() {
+		this(ZoneOffset.UTC);
+	}
+
+	/**
+	 * constructor
+	 *
+	 * @param zone
+	 *            time zone used to turn parsed dates into {@link Date}
+	 */
+	public EmployeeCsvParser(ZoneId zone) {
+		this.zone = zone;
+	}
+
+	/**
+	 * Parse a CSV record into a new ACTIVE employee
+	 *
+	 * @param line
+	 *            CSV record without line terminator
+	 * @return employee without id
+	 * @throws ParseException
+	 *             if the record does not have enough columns, has an
+	 *             unterminated quote or a date is invalid
+	 */
+	public Employee parse(String line) throws ParseException {
+		List<String> val = split(line);
+		if (val.size() < COLUMNS) {
+			throw new ParseException("Expected " + COLUMNS + " columns but found " + val.size(), 0);
+		}
+		return new Employee(val.get(0).trim(), val.get(1).trim(), val.get(2).trim(), parseDate(val.get(3)),
+				parseDate(val.get(4)), Status.ACTIVE);
+	}
+
+	/**
+	 * Split a CSV record into its columns, unquoting quoted columns
+	 */
+	private static List<String> split(String line) throws ParseException {
+		List<String> columns = new ArrayList<>(COLUMNS);
+		StringBuilder column = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c != '"') {
+					column.append(c);
+				} else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					column.append('"');
+					i++;
+				} else {
+					quoted = false;
+				}
+			} else if (c == ',') {
+				columns.add(column.toString());
+				column.setLength(0);
+			} else if (c == '"' && column.toString().trim().isEmpty()) {
+				column.setLength(0);
+				quoted = true;
+			} else {
+				column.append(c);
+			}
+		}
+		if (quoted) {
+			throw new ParseException("Unterminated quote", line.length());
+		}
+		columns.add(column.toString());
+		return columns;
+	}
+
+	/**
+	 * Parse a day/month/year date column
+	 *
+	 * @param value
+	 *            column value
+	 * @return parsed date at start of day in the parser time zone
+	 * @throws ParseException
+	 *             if the value is not a valid date
+	 */
+	public Date parseDate(String value) throws ParseException {
+		String text = value.trim();
+		try {
+			return Date.from(LocalDate.parse(text, DATE_FORMAT).atStartOfDay(zone).toInstant());
+		} catch (DateTimeParseException e) {
+			throw new ParseException("Unparseable date: \"" + text + "\"", e.getErrorIndex());
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package com.ken.emp.loader;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+
+import com.ken.emp.model.Employee;
+
+/**
+ * Writes employees as CSV records, RFC 4180 quoting, dates as dd/MM/yyyy in
+ * UTC like the JSON representation.
+ *
+ * ID,FIRST_NAME,INITIALS,LAST_NAME,DATE_OF_BIRTH,DATE_OF_EMPLOYMENT,STATUS
+ *
+ */
+public class EmployeeCsvWriter {
+
+	/**
+	 * Header line of the export format
+	 */
+	public static final String HEADER = "ID,FIRST_NAME,INITIALS,LAST_NAME,DATE_OF_BIRTH,DATE_OF_EMPLOYMENT,STATUS";
+
+	private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy")
+			.withZone(ZoneOffset.UTC);
+
+	private final Writer out;
+
+	/**
+	 * constructor
+	 *
+	 * @param out
+	 *            target writer, not closed by this class
+	 */
+	public EmployeeCsvWriter(Writer out) {
+		this.out = out;
+	}
+
+	/**
+	 * Write the header line
+	 *
+	 * @throws IOException
+	 *             on write failure
+	 */
+	public void writeHeader() throws IOException {
+		out.write(HEADER);
+		out.write("\r\n");
+	}
+
+	/**
+	 * Write one employee record
+	 *
+	 * @param employee
+	 *            employee to write
+	 * @throws IOException
+	 *             on write failure
+	 */
+	public void write(Employee employee) throws IOException {
+		out.write(Long.toString(employee.getId()));
+		out.write(',');
+		writeText(employee.getFirstName());
+		out.write(',');
+		writeText(employee.getMiddleInitial());
+		out.write(',');
+		writeText(employee.getLastName());
+		out.write(',');
+		writeDate(employee.getDateOfBirth());
+		out.write(',');
+		writeDate(employee.getDateOfEmployment());
+		out.write(',');
+		if (employee.getStatus() != null) {
+			out.write(employee.getStatus().value());
+		}
+		out.write("\r\n");
+	}
+
+	private void writeText(String value) throws IOException {
+		if (value == null) {
+			return;
+		}
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+				&& value.indexOf('\r') < 0) {
+			out.write(value);
+			return;
+		}
+		out.write('"');
+		out.write(value.replace("\"", "\"\""));
+		out.write('"');
+	}
+
+	private void writeDate(Date date) throws IOException {
+		if (date != null) {
+			out.write(DATE_FORMAT.format(Instant.ofEpochMilli(date.getTime())));
+		}
+	}
+}
@@ -0,0 +1,387 @@
+package com.ken.emp.loader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import com.ken.emp.model.Employee;
+import com.ken.emp.model.Status;
+
+/**
+ * Compact binary snapshot of the EMPLOYEE table.
+ *
+ * Layout, big-endian:
+ *
+ * header: magic (int), format version (short), source length (long), source
+ * CRC32 (long), row count (long)
+ *
+ * record: record length (int), id (long), status ordinal (byte), date of
+ * birth and date of employment as epoch day (int, {@link Integer#MIN_VALUE}
+ * for null), first name, middle initial and last name as UTF-8 with a short
+ * length prefix (-1 for null)
+ *
+ * The source length and checksum identify the CSV file the snapshot was built
+ * from. Snapshots are read through memory-mapped windows of the file.
+ *
+ */
+public class EmployeeSnapshot {
+
+	private static final int MAGIC = 0x4B454D50; // KEMP
+
+	private static final short VERSION = 1;
+
+	private static final int HEADER_SIZE = 4 + 2 + 8 + 8 + 8;
+
+	private static final int ROW_COUNT_OFFSET = HEADER_SIZE - 8;
+
+	private static final int NULL_DATE = Integer.MIN_VALUE;
+
+	private static final int MAX_RECORD_SIZE = 4 + 8 + 1 + 4 + 4 + 3 * (2 + Short.MAX_VALUE);
+
+	private static final long MAP_WINDOW = 64L * 1024 * 1024;
+
+	private static final Status[] STATUSES = Status.values();
+
+	private final Path path;
+
+	private final ZoneId zone;
+
+	/**
+	 * constructor
+	 *
+	 * @param path
+	 *            snapshot file
+	 */
+	public EmployeeSnapshot(Path path) {
+		this(path, ZoneOffset.UTC);
+	}
+
+	/**
+	 * constructor
+	 *
+	 * @param path
+	 *            snapshot file
+	 * @param zone
+	 *            time zone used to convert dates to and from epoch days
+	 */
+	public EmployeeSnapshot(Path path, ZoneId zone) {
+		this.path = path;
+		this.zone = zone;
+	}
+
+	public Path getPath() {
+		return path;
+	}
+
+	/**
+	 * Compute the identity of a snapshot source
+	 *
+	 * @param in
+	 *            source content, read to the end but not closed
+	 * @return source length and CRC32
+	 * @throws IOException
+	 *             on read failure
+	 */
+	public static SourceKey checksum(InputStream in) throws IOException {
+		CRC32 crc = new CRC32();
+		byte[] buffer = new byte[64 * 1024];
+		long length = 0;
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			crc.update(buffer, 0, read);
+			length += read;
+		}
+		return new SourceKey(length, crc.getValue());
+	}
+
+	/**
+	 * Read the snapshot header
+	 *
+	 * @return header or null if there is no valid snapshot
+	 * @throws IOException
+	 *             on read failure
+	 */
+	public Header readHeader() throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+			while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+				// keep reading until the header is complete
+			}
+			buffer.flip();
+			if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getShort() != VERSION) {
+				return null;
+			}
+			return new Header(new SourceKey(buffer.getLong(), buffer.getLong()), buffer.getLong());
+		} catch (NoSuchFileException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Write a new snapshot, replacing the existing one atomically
+	 *
+	 * @param source
+	 *            identity of the source the employees were loaded from
+	 * @param rows
+	 *            called once with a sink accepting every employee to write
+	 * @return number of employees written
+	 * @throws IOException
+	 *             on write failure
+	 */
+	public long write(SourceKey source, Consumer<Consumer<Employee>> rows) throws IOException {
+		Path parent = path.toAbsolutePath().getParent();
+		Files.createDirectories(parent);
+		Path tmp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+		try {
+			long count;
+			try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+				RecordWriter writer = new RecordWriter(channel);
+				writer.buffer.putInt(MAGIC).putShort(VERSION).putLong(source.getLength()).putLong(source.getCrc())
+						.putLong(0);
+				try {
+					rows.accept(writer);
+				} catch (UncheckedIOException e) {
+					throw e.getCause();
+				}
+				writer.flush();
+				count = writer.count;
+				ByteBuffer rowCount = ByteBuffer.allocate(8).putLong(count);
+				rowCount.flip();
+				channel.write(rowCount, ROW_COUNT_OFFSET);
+				channel.force(true);
+			}
+			Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			return count;
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+	}
+
+	/**
+	 * Read all employees of the snapshot in file order
+	 *
+	 * @param action
+	 *            called for each employee, ids are the ones of the snapshotted
+	 *            table
+	 * @return number of employees read
+	 * @throws IOException
+	 *             on read failure or if the snapshot is invalid
+	 */
+	public long read(Consumer<Employee> action) throws IOException {
+		Header header = readHeader();
+		if (header == null) {
+			throw new IOException("Not a valid employee snapshot: " + path);
+		}
+		long count = 0;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			long position = HEADER_SIZE;
+			while (position < size) {
+				MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+						Math.min(MAP_WINDOW, size - position));
+				int consumed = 0;
+				while (window.remaining() >= 4) {
+					int length = window.getInt(window.position());
+					if (length <= 0 || length > MAX_RECORD_SIZE) {
+						throw new IOException("Corrupted employee snapshot at offset " + (position + consumed));
+					}
+					if (window.remaining() < 4 + length) {
+						break;
+					}
+					window.position(window.position() + 4);
+					action.accept(readRecord(window));
+					consumed += 4 + length;
+					count++;
+				}
+				if (consumed == 0) {
+					throw new IOException("Truncated employee snapshot at offset " + position);
+				}
+				position += consumed;
+			}
+		}
+		if (count != header.getRowCount()) {
+			throw new IOException("Employee snapshot has " + count + " rows, expected " + header.getRowCount());
+		}
+		return count;
+	}
+
+	private Employee readRecord(ByteBuffer buffer) {
+		long id = buffer.getLong();
+		Status status = STATUSES[buffer.get()];
+		Date dateOfBirth = toDate(buffer.getInt());
+		Date dateOfEmployment = toDate(buffer.getInt());
+		Employee employee = new Employee(readString(buffer), readString(buffer), readString(buffer), dateOfBirth,
+				dateOfEmployment, status);
+		employee.setId(id);
+		return employee;
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		short length = buffer.getShort();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private Date toDate(int epochDay) {
+		return epochDay == NULL_DATE ? null
+				: Date.from(LocalDate.ofEpochDay(epochDay).atStartOfDay(zone).toInstant());
+	}
+
+	private int toEpochDay(Date date) {
+		return date == null ? NULL_DATE
+				: (int) Instant.ofEpochMilli(date.getTime()).atZone(zone).toLocalDate().toEpochDay();
+	}
+
+	/**
+	 * Buffered writer of snapshot records
+	 */
+	private class RecordWriter implements Consumer<Employee> {
+
+		private final FileChannel channel;
+
+		private final ByteBuffer buffer = ByteBuffer.allocate(256 * 1024);
+
+		private long count;
+
+		RecordWriter(FileChannel channel) {
+			this.channel = channel;
+		}
+
+		@Override
+		public void accept(Employee employee) {
+			byte[] firstName = encode(employee.getFirstName());
+			byte[] middleInitial = encode(employee.getMiddleInitial());
+			byte[] lastName = encode(employee.getLastName());
+			int length = 8 + 1 + 4 + 4 + length(firstName) + length(middleInitial) + length(lastName);
+			try {
+				if (buffer.remaining() < 4 + length) {
+					flush();
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			buffer.putInt(length).putLong(employee.getId()).put((byte) employee.getStatus().ordinal())
+					.putInt(toEpochDay(employee.getDateOfBirth())).putInt(toEpochDay(employee.getDateOfEmployment()));
+			putString(firstName);
+			putString(middleInitial);
+			putString(lastName);
+			count++;
+		}
+
+		private byte[] encode(String value) {
+			if (value == null) {
+				return null;
+			}
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			if (bytes.length > Short.MAX_VALUE) {
+				throw new IllegalArgumentException("Value too long for employee snapshot: " + bytes.length + " bytes");
+			}
+			return bytes;
+		}
+
+		private int length(byte[] bytes) {
+			return 2 + (bytes == null ? 0 : bytes.length);
+		}
+
+		private void putString(byte[] bytes) {
+			if (bytes == null) {
+				buffer.putShort((short) -1);
+			} else {
+				buffer.putShort((short) bytes.length).put(bytes);
+			}
+		}
+
+		void flush() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+	}
+
+	/**
+	 * Identity of the CSV file a snapshot was built from
+	 */
+	public static final class SourceKey {
+
+		private final long length;
+
+		private final long crc;
+
+		public SourceKey(long length, long crc) {
+			this.length = length;
+			this.crc = crc;
+		}
+
+		public long getLength() {
+			return length;
+		}
+
+		public long getCrc() {
+			return crc;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof SourceKey)) {
+				return false;
+			}
+			SourceKey other = (SourceKey) obj;
+			return length == other.length && crc == other.crc;
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(length) * 31 + Long.hashCode(crc);
+		}
+
+		@Override
+		public String toString() {
+			return length + " bytes, crc32 " + Long.toHexString(crc);
+		}
+	}
+
+	/**
+	 * Snapshot header
+	 */
+	public static final class Header {
+
+		private final SourceKey source;
+
+		private final long rowCount;
+
+		Header(SourceKey source, long rowCount) {
+			this.source = source;
+			this.rowCount = rowCount;
+		}
+
+		public SourceKey getSource() {
+			return source;
+		}
+
+		public long getRowCount() {
+			return rowCount;
+		}
+	}
+}
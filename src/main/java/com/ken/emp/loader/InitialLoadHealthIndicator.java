@@ -0,0 +1,37 @@
+package com.ken.emp.loader;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Readiness of the application, /actuator/health is OUT_OF_SERVICE (HTTP 503)
+ * until the initial load finished. The loading progress is a detail of the
+ * health, shown to authenticated users, and part of /actuator/liveness.
+ *
+ * A failed load does not keep the application out of service, as with the
+ * former start up loading the application serves what was loaded and the
+ * error is reported as detail.
+ *
+ */
+@Component
+public class InitialLoadHealthIndicator implements HealthIndicator {
+
+	@Autowired
+	private InitialLoadStatus status;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Health health() {
+		Health.Builder health = status.isReady() ? Health.up() : Health.outOfService();
+		health.withDetail("state", status.getState()).withDetail("rowsLoaded", status.getRowsLoaded())
+				.withDetail("elapsedMs", status.getElapsedMillis());
+		if (status.getError() != null) {
+			health.withDetail("error", status.getError());
+		}
+		return health.build();
+	}
+}
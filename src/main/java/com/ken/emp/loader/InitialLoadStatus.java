@@ -0,0 +1,132 @@
+package com.ken.emp.loader;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Progress of the initial load of employees, which runs in the background
+ * after the application started, see KenEmpApplication.
+ *
+ * Rows are counted by the progress callback of {@link InitialLoader}, so the
+ * CSV import and a snapshot restore report alike, and employees saved by
+ * other requests meanwhile are not counted.
+ *
+ */
+@Component
+public class InitialLoadStatus {
+
+	/**
+	 * State of the initial load
+	 */
+	public enum State {
+		/**
+		 * not started yet
+		 */
+		PENDING,
+		/**
+		 * employees are being loaded, the data is incomplete
+		 */
+		LOADING,
+		/**
+		 * loading finished, successfully or not, and the derived indexes are
+		 * built
+		 */
+		READY
+	}
+
+	private final CountDownLatch ready = new CountDownLatch(1);
+
+	private final AtomicLong rowsLoaded = new AtomicLong();
+
+	private volatile State state = State.PENDING;
+
+	private volatile long startedAt;
+
+	private volatile long finishedAt;
+
+	private volatile String error;
+
+	/**
+	 * Mark the start of loading
+	 */
+	public void started() {
+		startedAt = System.currentTimeMillis();
+		state = State.LOADING;
+	}
+
+	/**
+	 * Mark the end of loading
+	 *
+	 * @param error
+	 *            failure message, null on success
+	 */
+	public void finished(String error) {
+		this.error = error;
+		finishedAt = System.currentTimeMillis();
+		state = State.READY;
+		ready.countDown();
+	}
+
+	/**
+	 * @return true once loading finished
+	 */
+	public boolean isReady() {
+		return state == State.READY;
+	}
+
+	/**
+	 * Wait for the end of loading
+	 *
+	 * @param timeoutMillis
+	 *            maximum time to wait
+	 * @return true if loading finished within the timeout
+	 * @throws InterruptedException
+	 *             if interrupted while waiting
+	 */
+	public boolean awaitReady(long timeoutMillis) throws InterruptedException {
+		return ready.await(timeoutMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Count employees persisted by the initial load
+	 *
+	 * @param count
+	 *            number of employees of a persisted batch
+	 */
+	public void rowsLoaded(long count) {
+		rowsLoaded.addAndGet(count);
+	}
+
+	public State getState() {
+		return state;
+	}
+
+	/**
+	 * @return employees persisted by the initial load so far
+	 */
+	public long getRowsLoaded() {
+		return rowsLoaded.get();
+	}
+
+	/**
+	 * @return milliseconds since loading started, or its duration once
+	 *         finished, 0 if not started
+	 */
+	public long getElapsedMillis() {
+		if (state == State.PENDING) {
+			return 0;
+		}
+		return (state == State.READY ? finishedAt : System.currentTimeMillis()) - startedAt;
+	}
+
+	/**
+	 * @return failure message of the load, null if it succeeded or is not
+	 *         finished
+	 */
+	public String getError() {
+		return error;
+	}
+}
@@ -0,0 +1,167 @@
+package com.ken.emp.loader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import com.ken.emp.loader.EmployeeSnapshot.Header;
+import com.ken.emp.loader.EmployeeSnapshot.SourceKey;
+import com.ken.emp.model.Employee;
+import com.ken.emp.repository.EmployeeSchemaMigration;
+import com.ken.emp.service.EmployeeService;
+
+/**
+ * Start up loading of the employee CSV file.
+ *
+ * When a snapshot path is configured (kenemp.snapshot.path) the loaded
+ * EMPLOYEE table is written to a binary {@link EmployeeSnapshot} after the
+ * CSV import. On the next start up with an unchanged CSV file the import is
+ * skipped if the table already has rows (persistent database), otherwise the
+ * table is restored from the snapshot without parsing the CSV again. A
+ * restore keeps the employees with their ids, inserted with JDBC batches
+ * instead of JPA, and restarts the employee sequence past the highest id.
+ *
+ * Rows matching an employee already in the table are skipped when the CSV
+ * file is imported into a table with rows, so restarts with a persistent
+ * database or a changed CSV file do not duplicate employees.
+ *
+ */
+@Component
+public class InitialLoader {
+
+	private static final Logger logger = LoggerFactory.getLogger(InitialLoader.class);
+
+	@Autowired
+	private EmployeeBulkLoader bulkLoader;
+
+	@Autowired
+	private EmployeeService employeeService;
+
+	@Autowired
+	private EmployeeSchemaMigration schemaMigration;
+
+	// snapshot file, snapshots are disabled when empty
+	@Value("${kenemp.snapshot.path:}")
+	private String snapshotPath;
+
+	@Value("${kenemp.loader.batch-size:1000}")
+	private int batchSize;
+
+	/**
+	 * Load employees from the given CSV file, or from its snapshot
+	 *
+	 * @param source
+	 *            CSV file with header as in static/emps.csv
+	 * @throws IOException
+	 *             on read failure of the CSV file
+	 */
+	public void load(Resource source) throws IOException {
+		load(source, count -> {
+		});
+	}
+
+	/**
+	 * Load employees from the given CSV file, or from its snapshot
+	 *
+	 * @param source
+	 *            CSV file with header as in static/emps.csv
+	 * @param progress
+	 *            called with the number of employees of every persisted batch
+	 * @throws IOException
+	 *             on read failure of the CSV file
+	 */
+	public void load(Resource source, LongConsumer progress) throws IOException {
+		if (snapshotPath.trim().isEmpty()) {
+			importCsv(source, progress);
+			return;
+		}
+
+		EmployeeSnapshot snapshot = new EmployeeSnapshot(Paths.get(snapshotPath.trim()));
+		SourceKey sourceKey;
+		try (InputStream in = source.getInputStream()) {
+			sourceKey = EmployeeSnapshot.checksum(in);
+		}
+
+		Header header = snapshot.readHeader();
+		if (header != null && header.getSource().equals(sourceKey)) {
+			long rows = employeeService.countEmployees();
+			if (rows > 0) {
+				logger.info("Employees file unchanged (" + sourceKey + ") and " + rows
+						+ " employees in database, skipping loading");
+				return;
+			}
+			if (restore(snapshot, progress)) {
+				return;
+			}
+		}
+
+		LoadReport report = importCsv(source, progress);
+		try {
+			long count = snapshot.write(sourceKey, sink -> employeeService.forEachEmployee(null, sink));
+			logger.info("Employees snapshot written to " + snapshot.getPath() + " with " + count + " rows");
+		} catch (IOException | RuntimeException e) {
+			logger.error("Failed to write employees snapshot " + snapshot.getPath() + " after " + report, e);
+		}
+	}
+
+	private LoadReport importCsv(Resource source, LongConsumer progress) throws IOException {
+		// only a table with rows can have duplicates, skip the lookups otherwise
+		boolean skipDuplicates = employeeService.countEmployees() > 0;
+		try (InputStream in = source.getInputStream()) {
+			LoadReport report = bulkLoader.load(in, skipDuplicates, progress);
+			logger.info("Employees loading finished, " + report);
+			for (String error : report.getErrors()) {
+				logger.warn("Rejected " + error);
+			}
+			if (report.getRowsRejected() > report.getErrors().size()) {
+				logger.warn((report.getRowsRejected() - report.getErrors().size()) + " more rows rejected");
+			}
+			return report;
+		}
+	}
+
+	/**
+	 * Restore employees from the snapshot into an empty table, keeping the ids
+	 * of the snapshot, then restart the employee sequence after them.
+	 *
+	 * @return true on success, false if the snapshot could not be read
+	 */
+	private boolean restore(EmployeeSnapshot snapshot, LongConsumer progress) {
+		long started = System.currentTimeMillis();
+		try {
+			// verify the whole snapshot before inserting anything
+			snapshot.read(employee -> {
+			});
+			List<Employee> batch = new ArrayList<>(batchSize);
+			long count = snapshot.read(employee -> {
+				batch.add(employee);
+				if (batch.size() == batchSize) {
+					employeeService.restoreAll(batch);
+					progress.accept(batch.size());
+					batch.clear();
+				}
+			});
+			if (!batch.isEmpty()) {
+				employeeService.restoreAll(batch);
+				progress.accept(batch.size());
+			}
+			schemaMigration.restartSequence();
+			logger.info("Employees restored from snapshot " + snapshot.getPath() + ", " + count + " rows in "
+					+ (System.currentTimeMillis() - started) + " ms");
+			return true;
+		} catch (IOException e) {
+			logger.error("Failed to restore employees snapshot " + snapshot.getPath() + ", loading CSV file", e);
+			return false;
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package com.ken.emp.loader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Summary of a bulk employee load, with row counters, throughput and the
+ * first few rejected rows.
+ *
+ */
+public class LoadReport {
+
+	private final int maxErrors;
+
+	private final long startedAt = System.currentTimeMillis();
+
+	private long elapsedMillis;
+
+	private long rowsRead;
+
+	private long rowsLoaded;
+
+	private long rowsRejected;
+
+	private long rowsDuplicate;
+
+	private final List<String> errors = new ArrayList<>();
+
+	/**
+	 * constructor
+	 *
+	 * @param maxErrors
+	 *            maximum number of error messages to keep, further errors are
+	 *            only counted
+	 */
+	public LoadReport(int maxErrors) {
+		this.maxErrors = maxErrors;
+	}
+
+	void rowsRead(long count) {
+		rowsRead += count;
+	}
+
+	void rowsLoaded(long count) {
+		rowsLoaded += count;
+	}
+
+	void duplicates(long count) {
+		rowsDuplicate += count;
+	}
+
+	void reject(long line, String message) {
+		rowsRejected++;
+		if (errors.size() < maxErrors) {
+			errors.add("line " + line + ": " + message);
+		}
+	}
+
+	void reject(long firstLine, long lastLine, long count, String message) {
+		rowsRejected += count;
+		if (errors.size() < maxErrors) {
+			errors.add("lines " + firstLine + "-" + lastLine + ": " + message);
+		}
+	}
+
+	void finish() {
+		elapsedMillis = System.currentTimeMillis() - startedAt;
+	}
+
+	public long getRowsRead() {
+		return rowsRead;
+	}
+
+	public long getRowsLoaded() {
+		return rowsLoaded;
+	}
+
+	public long getRowsRejected() {
+		return rowsRejected;
+	}
+
+	/**
+	 * @return rows skipped because the employee already exists
+	 */
+	public long getRowsDuplicate() {
+		return rowsDuplicate;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	/**
+	 * @return loaded rows per second over the whole load
+	 */
+	public long getRowsPerSecond() {
+		return elapsedMillis > 0 ? rowsLoaded * 1000 / elapsedMillis : rowsLoaded;
+	}
+
+	/**
+	 * @return error messages of the first rejected rows
+	 */
+	public List<String> getErrors() {
+		return Collections.unmodifiableList(errors);
+	}
+
+	@Override
+	public String toString() {
+		return rowsLoaded + " of " + rowsRead + " rows loaded, " + rowsRejected + " rejected, " + rowsDuplicate
+				+ " duplicate in " + elapsedMillis
+				+ " ms (" + getRowsPerSecond() + " rows/sec)";
+	}
+}
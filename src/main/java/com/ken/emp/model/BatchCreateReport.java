@@ -0,0 +1,44 @@
+package com.ken.emp.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a batch create
+ * 
+ */
+public class BatchCreateReport {
+
+	// Atomic - true if the batch was all or nothing
+	private boolean atomic;
+
+	// Items - result per employee, in request order
+	private final List<BatchItemResult> items = new ArrayList<>();
+
+	public boolean isAtomic() {
+		return atomic;
+	}
+
+	public void setAtomic(boolean atomic) {
+		this.atomic = atomic;
+	}
+
+	public List<BatchItemResult> getItems() {
+		return items;
+	}
+
+	/**
+	 * @return number of created employees
+	 */
+	public long getCreated() {
+		return items.stream().filter(BatchItemResult::isCreated).count();
+	}
+
+	/**
+	 * @return number of employees not created
+	 */
+	public long getFailed() {
+		return items.size() - getCreated();
+	}
+
+}
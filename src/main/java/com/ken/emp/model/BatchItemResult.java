@@ -0,0 +1,70 @@
+package com.ken.emp.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Result of one employee of a batch create
+ * 
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+
+	// Index - position of the employee in the request
+	private int index;
+
+	// ID - assigned id, null if the employee was not created
+	private Long id;
+
+	// Version - version of the created employee
+	private Long version;
+
+	// Error - reason the employee was not created
+	private String error;
+
+	public BatchItemResult() {
+	}
+
+	public BatchItemResult(int index) {
+		this.index = index;
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public void setIndex(int index) {
+		this.index = index;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	public void setError(String error) {
+		this.error = error;
+	}
+
+	/**
+	 * @return true if the employee was created
+	 */
+	public boolean isCreated() {
+		return id != null;
+	}
+
+}
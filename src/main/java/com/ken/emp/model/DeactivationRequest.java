@@ -0,0 +1,34 @@
+package com.ken.emp.model;
+
+import java.util.List;
+
+/**
+ * Employees to turn from ACTIVE to INACTIVE status, given either by their ids
+ * or by a filter
+ * 
+ */
+public class DeactivationRequest {
+
+	// Ids - ids of the employees
+	private List<Long> ids;
+
+	// Filter - criteria of the employees
+	private EmployeeFilter filter;
+
+	public List<Long> getIds() {
+		return ids;
+	}
+
+	public void setIds(List<Long> ids) {
+		this.ids = ids;
+	}
+
+	public EmployeeFilter getFilter() {
+		return filter;
+	}
+
+	public void setFilter(EmployeeFilter filter) {
+		this.filter = filter;
+	}
+
+}
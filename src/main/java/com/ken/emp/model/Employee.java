@@ -2,18 +2,26 @@ package com.ken.emp.model;
 
 import java.util.Date;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
+import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
-import javax.persistence.SequenceGenerator;
-import javax.persistence.Temporal;
-import javax.persistence.TemporalType;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import io.swagger.annotations.ApiModelProperty;
 /**
@@ -24,12 +32,23 @@ import io.swagger.annotations.ApiModelProperty;
  *
  */
 @Entity(name = "EMPLOYEE")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "employee")
+@Table(name = "EMPLOYEE", indexes = { @Index(name = "idx_employee_name", columnList = "lastName, firstName"),
+		@Index(name = "idx_employee_last_name_id", columnList = "lastName, id"),
+		@Index(name = "idx_employee_first_name_id", columnList = "firstName, id"),
+		@Index(name = "idx_employee_birth_id", columnList = "dateOfBirth, id"),
+		@Index(name = "idx_employee_employment_id", columnList = "dateOfEmployment, id"),
+		@Index(name = "idx_employee_status_id", columnList = "status, id") })
 public class Employee {
 
-	// ID - Unique identifier for an employee
+	// ID - Unique identifier for an employee, the sequence pre-allocates a
+	// JDBC batch of ids per call. Ids reserved ahead of the insert are kept.
 	@Id
 	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employee_gen")
-	@SequenceGenerator(name = "employee_gen", sequenceName = "employee_seq", allocationSize = 25)
+	@GenericGenerator(name = "employee_gen", strategy = "com.ken.emp.repository.EmployeeIdGenerator", parameters = {
+			@Parameter(name = "sequence_name", value = "employee_seq"),
+			@Parameter(name = "increment_size", value = "500") })
 	@Column(name = "id", updatable = false, nullable = false)
 	private long id;
 
@@ -44,13 +63,15 @@ public class Employee {
 
 	// DateOfBirth - Employee birthday and year
 	@ApiModelProperty(required = true,example = "10/10/2016")
-	@Temporal(TemporalType.DATE)
+	@Convert(converter = UtcDateConverter.class)
+	@Column(columnDefinition = "DATE")
 	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd/MM/yyyy")
 	private Date dateOfBirth;
 
 	// DateOfEmployment - Employee start date
 	@ApiModelProperty(required = true,example = "10/10/2016")
-	@Temporal(TemporalType.DATE)
+	@Convert(converter = UtcDateConverter.class)
+	@Column(columnDefinition = "DATE")
 	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd/MM/yyyy")
 	private Date dateOfEmployment;
 
@@ -58,6 +79,13 @@ public class Employee {
 	@Column(name="status", nullable = false)
 	private Status status;
 
+	// Version - incremented on every update, null until first saved
+	@Version
+	@Column(name = "version", nullable = false)
+	@ApiModelProperty(readOnly = true)
+	@JsonProperty(access = JsonProperty.Access.READ_ONLY)
+	private Long version;
+
 	/*
 	 * empty constructor
 	 */
@@ -143,4 +171,12 @@ public class Employee {
 		this.status = status;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,110 @@
+package com.ken.emp.model;
+
+import java.util.Date;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import io.swagger.annotations.ApiModelProperty;
+
+/**
+ * Criteria selecting employees, all given criteria must match
+ * 
+ */
+public class EmployeeFilter {
+
+	// FirstName - exact first name
+	private String firstName;
+
+	// FirstNamePrefix - beginning of the first name
+	private String firstNamePrefix;
+
+	// LastName - exact last name
+	private String lastName;
+
+	// BornFrom - first date of birth, inclusive
+	@ApiModelProperty(example = "01/01/1980")
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd/MM/yyyy")
+	private Date bornFrom;
+
+	// BornTo - last date of birth, inclusive
+	@ApiModelProperty(example = "31/12/1989")
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd/MM/yyyy")
+	private Date bornTo;
+
+	// EmployedFrom - first date of employment, inclusive
+	@ApiModelProperty(example = "01/01/2016")
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd/MM/yyyy")
+	private Date employedFrom;
+
+	// EmployedTo - last date of employment, inclusive
+	@ApiModelProperty(example = "31/12/2016")
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd/MM/yyyy")
+	private Date employedTo;
+
+	public String getFirstName() {
+		return firstName;
+	}
+
+	public void setFirstName(String firstName) {
+		this.firstName = firstName;
+	}
+
+	public String getFirstNamePrefix() {
+		return firstNamePrefix;
+	}
+
+	public void setFirstNamePrefix(String firstNamePrefix) {
+		this.firstNamePrefix = firstNamePrefix;
+	}
+
+	public String getLastName() {
+		return lastName;
+	}
+
+	public void setLastName(String lastName) {
+		this.lastName = lastName;
+	}
+
+	public Date getBornFrom() {
+		return bornFrom;
+	}
+
+	public void setBornFrom(Date bornFrom) {
+		this.bornFrom = bornFrom;
+	}
+
+	public Date getBornTo() {
+		return bornTo;
+	}
+
+	public void setBornTo(Date bornTo) {
+		this.bornTo = bornTo;
+	}
+
+	public Date getEmployedFrom() {
+		return employedFrom;
+	}
+
+	public void setEmployedFrom(Date employedFrom) {
+		this.employedFrom = employedFrom;
+	}
+
+	public Date getEmployedTo() {
+		return employedTo;
+	}
+
+	public void setEmployedTo(Date employedTo) {
+		this.employedTo = employedTo;
+	}
+
+	/**
+	 * @return true if no criteria is given, the filter matches all employees
+	 */
+	@JsonIgnore
+	public boolean isEmpty() {
+		return firstName == null && firstNamePrefix == null && lastName == null && bornFrom == null && bornTo == null
+				&& employedFrom == null && employedTo == null;
+	}
+
+}
@@ -0,0 +1,26 @@
+package com.ken.emp.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a lookup of employees by ids
+ * 
+ */
+public class EmployeeLookup {
+
+	// Items - found employees, in the order of the requested ids
+	private final List<Employee> items = new ArrayList<>();
+
+	// NotFound - requested ids without active employee, in request order
+	private final List<Long> notFound = new ArrayList<>();
+
+	public List<Employee> getItems() {
+		return items;
+	}
+
+	public List<Long> getNotFound() {
+		return notFound;
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.ken.emp.model;
+
+/**
+ * Name of an employee, as suggested by the name typeahead
+ * 
+ */
+public class EmployeeName {
+
+	// ID - Unique identifier of the employee
+	private final long id;
+
+	// FirstName - Employees first name
+	private final String firstName;
+
+	// MiddleInitial - Employees middle initial
+	private final String middleInitial;
+
+	// LastName - Employee last name
+	private final String lastName;
+
+	/**
+	 * constructor
+	 * 
+	 * @param id
+	 * @param firstName
+	 * @param middleInitial
+	 * @param lastName
+	 */
+	public EmployeeName(long id, String firstName, String middleInitial, String lastName) {
+		this.id = id;
+		this.firstName = firstName;
+		this.middleInitial = middleInitial;
+		this.lastName = lastName;
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public String getFirstName() {
+		return firstName;
+	}
+
+	public String getMiddleInitial() {
+		return middleInitial;
+	}
+
+	public String getLastName() {
+		return lastName;
+	}
+
+}
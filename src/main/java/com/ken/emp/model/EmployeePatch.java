@@ -0,0 +1,69 @@
+package com.ken.emp.model;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import io.swagger.annotations.ApiModelProperty;
+
+/**
+ * Partial update of an employee.
+ *
+ * Only the properties present in the request are changed, a property given
+ * as null is set to null. The optional version is the version of the
+ * employee the changes were made against.
+ *
+ */
+public class EmployeePatch {
+
+	// changed properties by attribute name of Employee, in request order
+	private final Map<String, Object> changes = new LinkedHashMap<>();
+
+	private Long version;
+
+	/**
+	 * @return changed properties by attribute name of {@link Employee}
+	 */
+	public Map<String, Object> changes() {
+		return Collections.unmodifiableMap(changes);
+	}
+
+	public void setFirstName(String firstName) {
+		changes.put("firstName", firstName);
+	}
+
+	public void setMiddleInitial(String middleInitial) {
+		changes.put("middleInitial", middleInitial);
+	}
+
+	public void setLastName(String lastName) {
+		changes.put("lastName", lastName);
+	}
+
+	@ApiModelProperty(example = "10/10/2016")
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd/MM/yyyy")
+	public void setDateOfBirth(Date dateOfBirth) {
+		changes.put("dateOfBirth", dateOfBirth);
+	}
+
+	@ApiModelProperty(example = "10/10/2016")
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd/MM/yyyy")
+	public void setDateOfEmployment(Date dateOfEmployment) {
+		changes.put("dateOfEmployment", dateOfEmployment);
+	}
+
+	public void setStatus(Status status) {
+		changes.put("status", status);
+	}
+
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+}
@@ -0,0 +1,58 @@
+package com.ken.emp.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Headcount and tenure aggregates of the employees
+ * 
+ */
+public class EmployeeStats {
+
+	// Total - number of employees of any status
+	private long total;
+
+	// Headcount - number of employees by status
+	private final Map<Status, Long> headcount = new LinkedHashMap<>();
+
+	// HiresByYear - number of employees of any status by year of employment
+	private final Map<Integer, Long> hiresByYear = new TreeMap<>();
+
+	// Tenure - number of active employees by years since their month of
+	// employment: <1, 1-2, 2-5, 5-10, 10+, or not started yet
+	private final Map<String, Long> tenure = new LinkedHashMap<>();
+
+	// WithoutDateOfEmployment - number of employees of any status without
+	// date of employment, not in hiresByYear and tenure
+	private long withoutDateOfEmployment;
+
+	public long getTotal() {
+		return total;
+	}
+
+	public void setTotal(long total) {
+		this.total = total;
+	}
+
+	public Map<Status, Long> getHeadcount() {
+		return headcount;
+	}
+
+	public Map<Integer, Long> getHiresByYear() {
+		return hiresByYear;
+	}
+
+	public Map<String, Long> getTenure() {
+		return tenure;
+	}
+
+	public long getWithoutDateOfEmployment() {
+		return withoutDateOfEmployment;
+	}
+
+	public void setWithoutDateOfEmployment(long withoutDateOfEmployment) {
+		this.withoutDateOfEmployment = withoutDateOfEmployment;
+	}
+
+}
@@ -0,0 +1,40 @@
+package com.ken.emp.model;
+
+import java.util.List;
+
+/**
+ * One page of a keyset (cursor) paginated result
+ * 
+ * @param <T>
+ *            type of the items
+ */
+public class KeysetPage<T> {
+
+	// Items - items of this page in result order
+	private final List<T> items;
+
+	// Next - opaque token of the next page, null on the last page
+	private final String next;
+
+	/**
+	 * constructor
+	 * 
+	 * @param items
+	 *            items of this page
+	 * @param next
+	 *            token of the next page, null on the last page
+	 */
+	public KeysetPage(List<T> items, String next) {
+		this.items = items;
+		this.next = next;
+	}
+
+	public List<T> getItems() {
+		return items;
+	}
+
+	public String getNext() {
+		return next;
+	}
+
+}
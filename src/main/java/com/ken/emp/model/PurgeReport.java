@@ -0,0 +1,38 @@
+package com.ken.emp.model;
+
+/**
+ * Result of a bulk delete
+ * 
+ */
+public class PurgeReport {
+
+	// Requested - number of distinct ids requested
+	private long requested;
+
+	// Deleted - number of deleted employees
+	private long deleted;
+
+	public long getRequested() {
+		return requested;
+	}
+
+	public void setRequested(long requested) {
+		this.requested = requested;
+	}
+
+	public long getDeleted() {
+		return deleted;
+	}
+
+	public void setDeleted(long deleted) {
+		this.deleted = deleted;
+	}
+
+	/**
+	 * @return number of requested ids without employee
+	 */
+	public long getMissing() {
+		return requested - deleted;
+	}
+
+}
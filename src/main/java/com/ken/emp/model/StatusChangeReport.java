@@ -0,0 +1,33 @@
+package com.ken.emp.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a bulk status change
+ * 
+ */
+public class StatusChangeReport {
+
+	// Affected - ids of the employees whose status was changed
+	private final List<Long> affected = new ArrayList<>();
+
+	// Unchanged - ids of the employees which did not have the source status
+	private final List<Long> unchanged = new ArrayList<>();
+
+	// Missing - ids without employee
+	private final List<Long> missing = new ArrayList<>();
+
+	public List<Long> getAffected() {
+		return affected;
+	}
+
+	public List<Long> getUnchanged() {
+		return unchanged;
+	}
+
+	public List<Long> getMissing() {
+		return missing;
+	}
+
+}
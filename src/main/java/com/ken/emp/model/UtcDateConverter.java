@@ -0,0 +1,38 @@
+package com.ken.emp.model;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Converts the dates of {@link Employee}, held as midnight UTC like the dates
+ * of the JSON and CSV representations, to SQL DATE columns and back.
+ *
+ * The JDBC driver binds and reads a DATE in the time zone of the JVM, so the
+ * day is carried over by its local date instead of its instant: a date is
+ * stored as the same day in every time zone and read back at midnight UTC.
+ *
+ */
+@Converter
+public class UtcDateConverter implements AttributeConverter<Date, java.sql.Date> {
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public java.sql.Date convertToDatabaseColumn(Date date) {
+		return date == null ? null
+				: java.sql.Date.valueOf(Instant.ofEpochMilli(date.getTime()).atZone(ZoneOffset.UTC).toLocalDate());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Date convertToEntityAttribute(java.sql.Date date) {
+		return date == null ? null : Date.from(date.toLocalDate().atStartOfDay(ZoneOffset.UTC).toInstant());
+	}
+}
@@ -0,0 +1,57 @@
+package com.ken.emp.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Durability of an employee created asynchronously
+ *
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WriteStatus {
+
+	/**
+	 * State of an asynchronous create
+	 */
+	public enum State {
+		/**
+		 * accepted and waiting for the next batch insert
+		 */
+		QUEUED,
+		/**
+		 * committed to the database
+		 */
+		SAVED,
+		/**
+		 * the insert failed, the employee is not created
+		 */
+		FAILED
+	}
+
+	// ID - id reserved for the employee
+	private final long id;
+
+	// State - QUEUED, SAVED or FAILED
+	private final State state;
+
+	// Error - reason the employee was not created
+	private final String error;
+
+	public WriteStatus(long id, State state, String error) {
+		this.id = id;
+		this.state = state;
+		this.error = error;
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public State getState() {
+		return state;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+}
@@ -0,0 +1,125 @@
+package com.ken.emp.repository;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sparse fieldset of employee queries, the employee attributes a client asked
+ * for. Only these columns are selected and serialized.
+ *
+ */
+public final class EmployeeFields {
+
+	/**
+	 * selectable employee attributes, in the order of the full representation
+	 */
+	public static final List<String> ATTRIBUTES = Collections.unmodifiableList(Arrays.asList("id", "firstName",
+			"middleInitial", "lastName", "dateOfBirth", "dateOfEmployment", "status", "version"));
+
+	// Jackson formats the dates of Employee in UTC unless configured otherwise
+	private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy")
+			.withZone(ZoneOffset.UTC);
+
+	private final Set<String> attributes;
+
+	private EmployeeFields(Set<String> attributes) {
+		this.attributes = Collections.unmodifiableSet(attributes);
+	}
+
+	/**
+	 * Parse a fields parameter, comma separated attribute names, for example
+	 * id,firstName,lastName
+	 *
+	 * @param value
+	 *            fields parameter
+	 * @return parsed fields, null if the value is null or empty which means
+	 *         the full employee
+	 * @throws IllegalArgumentException
+	 *             on unknown attribute
+	 */
+	public static EmployeeFields parse(String value) {
+		if (value == null || value.trim().isEmpty()) {
+			return null;
+		}
+		Set<String> attributes = new LinkedHashSet<>();
+		for (String field : value.split(",")) {
+			String attribute = field.trim();
+			if (attribute.isEmpty()) {
+				continue;
+			}
+			if (!ATTRIBUTES.contains(attribute)) {
+				throw new IllegalArgumentException("Unknown field " + attribute);
+			}
+			attributes.add(attribute);
+		}
+		if (attributes.isEmpty()) {
+			return null;
+		}
+		return new EmployeeFields(attributes);
+	}
+
+	/**
+	 * @return requested attributes, in request order
+	 */
+	public Set<String> getAttributes() {
+		return attributes;
+	}
+
+	/**
+	 * @param sort
+	 *            sort order of the query
+	 * @return requested attributes with the id and the sort key, which
+	 *         keyset pagination needs to continue after a row
+	 */
+	public Set<String> withKeys(EmployeeSort sort) {
+		Set<String> selected = new LinkedHashSet<>(attributes);
+		selected.add("id");
+		selected.add(sort.getKey().attribute());
+		return selected;
+	}
+
+	/**
+	 * Representation of a selected row
+	 *
+	 * @param row
+	 *            selected values by attribute, may have more attributes than
+	 *            requested
+	 * @return requested values by attribute, dates formatted as in the full
+	 *         employee
+	 */
+	public Map<String, Object> project(Map<String, Object> row) {
+		Map<String, Object> json = new LinkedHashMap<>(attributes.size() * 2);
+		for (String attribute : attributes) {
+			Object value = row.get(attribute);
+			if (value instanceof Date) {
+				value = DATE_FORMAT.format(Instant.ofEpochMilli(((Date) value).getTime()));
+			}
+			json.put(attribute, value);
+		}
+		return json;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof EmployeeFields && attributes.equals(((EmployeeFields) obj).attributes);
+	}
+
+	@Override
+	public int hashCode() {
+		return attributes.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return String.join(",", attributes);
+	}
+}
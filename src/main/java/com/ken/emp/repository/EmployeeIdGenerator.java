@@ -0,0 +1,30 @@
+package com.ken.emp.repository;
+
+import java.io.Serializable;
+
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import com.ken.emp.model.Employee;
+
+/**
+ * Sequence generator of employee ids which keeps the id of an employee
+ * persisted with an id already taken from the sequence, see
+ * {@link EmployeeRepositoryCustom#reserveIds(int)}. Employees without id get
+ * the next value of the sequence.
+ *
+ */
+public class EmployeeIdGenerator extends SequenceStyleGenerator {
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Serializable generate(SharedSessionContractImplementor session, Object object) throws HibernateException {
+		if (object instanceof Employee && ((Employee) object).getId() != 0) {
+			return ((Employee) object).getId();
+		}
+		return super.generate(session, object);
+	}
+}
@@ -1,8 +1,15 @@
 package com.ken.emp.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
@@ -15,7 +22,12 @@ import com.ken.emp.model.Status;
  * @author cmenerip
  *
  */
-public interface EmployeeRepository extends CrudRepository<Employee, Long> {
+public interface EmployeeRepository extends CrudRepository<Employee, Long>, EmployeeRepositoryCustom {
+
+	/**
+	 * Hibernate query cache region of the cached employee queries
+	 */
+	String QUERY_REGION = "employee-queries";
 
 	/**
 	 * Retrieve an employee using given id and status
@@ -26,7 +38,21 @@ public interface EmployeeRepository extends CrudRepository<Employee, Long> {
 	 * @return Optional object with employee
 	 */
 	@Query("SELECT emp FROM EMPLOYEE emp where emp.id = :id and emp.status = :status")
+	@QueryHints({ @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+			@QueryHint(name = "org.hibernate.cacheRegion", value = QUERY_REGION) })
 	Optional<Employee> findEmployeeByIdAndStatus(@Param("id") Long id, @Param("status") Status status);
+
+	/**
+	 * Retrieve the version of an employee using given id and status, without
+	 * loading the employee
+	 * 
+	 * @param id id of an employee
+	 * @param status status of an employee
+	 * 
+	 * @return Optional version of the employee
+	 */
+	@Query("SELECT emp.version FROM EMPLOYEE emp where emp.id = :id and emp.status = :status")
+	Optional<Long> findVersionByIdAndStatus(@Param("id") Long id, @Param("status") Status status);
 	
 	/**
 	 * Retrieve all employees using given status
@@ -35,6 +61,44 @@ public interface EmployeeRepository extends CrudRepository<Employee, Long> {
 	 * @return list of employees filtered with given status
 	 */
 	@Query("SELECT emp FROM EMPLOYEE emp where emp.status = :status")
+	@QueryHints({ @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+			@QueryHint(name = "org.hibernate.cacheRegion", value = QUERY_REGION) })
 	Iterable<Employee> findAllEmployeeByStatus(@Param("status") Status status);
 
+	/**
+	 * Retrieve the identifying fields of all employees with one of the given
+	 * last names
+	 * 
+	 * @param lastNames
+	 *            last names of the employees
+	 * 
+	 * @return first name, middle initial, last name and date of birth of each
+	 *         matching employee
+	 */
+	@Query("SELECT emp.firstName, emp.middleInitial, emp.lastName, emp.dateOfBirth FROM EMPLOYEE emp where emp.lastName in :lastNames")
+	List<Object[]> findIdentityByLastNameIn(@Param("lastNames") Collection<String> lastNames);
+
+	/**
+	 * Count the employees by status and month of employment
+	 * 
+	 * @return status, year and month of employment (null without date) and
+	 *         number of employees of each group
+	 */
+	@Query("SELECT emp.status, year(emp.dateOfEmployment), month(emp.dateOfEmployment), count(emp) FROM EMPLOYEE emp "
+			+ "group by emp.status, year(emp.dateOfEmployment), month(emp.dateOfEmployment)")
+	List<Object[]> countByStatusAndEmploymentMonth();
+
+	/**
+	 * Retrieve and lock the status of the employees with the given ids, to be
+	 * called in a transaction
+	 * 
+	 * @param ids
+	 *            ids of the employees
+	 * 
+	 * @return id and status of each existing employee
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT emp.id, emp.status FROM EMPLOYEE emp where emp.id in :ids")
+	List<Object[]> findStatusByIdIn(@Param("ids") Collection<Long> ids);
+
 }
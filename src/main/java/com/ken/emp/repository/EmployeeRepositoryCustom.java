@@ -0,0 +1,166 @@
+package com.ken.emp.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import com.ken.emp.model.Employee;
+import com.ken.emp.model.EmployeeFilter;
+import com.ken.emp.model.Status;
+
+/**
+ * Custom employee data access that does not fit derived or JPQL queries
+ * 
+ * Updates and deletes are plain JDBC statements: a JPQL bulk statement
+ * evicts the whole employee region of the second-level cache and every
+ * query region. These evict only the changed employees, and the employee
+ * query region, once the transaction completes.
+ * 
+ */
+public interface EmployeeRepositoryCustom {
+
+	/**
+	 * Stream employees ordered by id through a forward-only JDBC cursor,
+	 * without loading them into the persistence context
+	 * 
+	 * @param status
+	 *            status of the employees, null for all employees
+	 * @param action
+	 *            called for each employee row, the instance is not managed
+	 */
+	void forEachEmployee(Status status, Consumer<Employee> action);
+
+	/**
+	 * Retrieve one page of employees in keyset order. Each page is read from
+	 * the (sort key, id) index starting right after the previous page, so the
+	 * cost of a page does not depend on its position.
+	 * 
+	 * Employees without a value for the sort key come after all others in
+	 * ascending order and before them in descending order.
+	 * 
+	 * @param status
+	 *            status of the employees, null for all employees
+	 * @param filter
+	 *            criteria of the employees, null for all employees
+	 * @param sort
+	 *            sort order
+	 * @param after
+	 *            position after the last row of the previous page, null for
+	 *            the first page
+	 * @param limit
+	 *            maximum number of employees
+	 * @return employees of the page, not managed
+	 */
+	List<Employee> findPage(Status status, EmployeeFilter filter, EmployeeSort sort, KeysetCursor after, int limit);
+
+	/**
+	 * Retrieve one page of employees in keyset order as in
+	 * {@link #findPage(Status, EmployeeFilter, EmployeeSort, KeysetCursor, int)},
+	 * selecting only the given attributes with a tuple query. No entity is
+	 * loaded into the persistence context.
+	 * 
+	 * @param status
+	 *            status of the employees, null for all employees
+	 * @param filter
+	 *            criteria of the employees, null for all employees
+	 * @param sort
+	 *            sort order
+	 * @param after
+	 *            position after the last row of the previous page, null for
+	 *            the first page
+	 * @param limit
+	 *            maximum number of employees
+	 * @param attributes
+	 *            attribute names of {@link Employee} to select
+	 * @return selected values by attribute of each employee of the page
+	 */
+	List<Map<String, Object>> findPage(Status status, EmployeeFilter filter, EmployeeSort sort, KeysetCursor after,
+			int limit, Set<String> attributes);
+
+	/**
+	 * Update some attributes of an employee in a single conditional UPDATE,
+	 * incrementing its version, without loading it
+	 * 
+	 * @param id
+	 *            employee id
+	 * @param expectedVersion
+	 *            version the employee must have, null to update any version
+	 * @param changes
+	 *            new values by attribute name of {@link Employee}, not empty
+	 * @return number of updated rows, 0 if there is no employee with the id
+	 *         and expected version
+	 */
+	int patch(long id, Long expectedVersion, Map<String, Object> changes);
+
+	/**
+	 * Change the status of the employees with the given ids in a single
+	 * statement, incrementing their version
+	 * 
+	 * @param ids
+	 *            ids of the employees
+	 * @param from
+	 *            current status, employees with another status are not
+	 *            changed
+	 * @param to
+	 *            new status
+	 * 
+	 * @return number of changed employees
+	 */
+	int updateStatus(Collection<Long> ids, Status from, Status to);
+
+	/**
+	 * Delete an employee with a single statement, without loading it
+	 * 
+	 * @param id
+	 *            id of the employee
+	 * 
+	 * @return number of deleted employees, 0 or 1
+	 */
+	int purgeById(long id);
+
+	/**
+	 * Delete the employees with the given ids with a single statement,
+	 * without loading them
+	 * 
+	 * @param ids
+	 *            ids of the employees
+	 * 
+	 * @return number of deleted employees
+	 */
+	int purgeByIdIn(Collection<Long> ids);
+
+	/**
+	 * Retrieve the ids of the employees matching a filter
+	 * 
+	 * @param status
+	 *            status of the employees, null for all employees
+	 * @param filter
+	 *            criteria of the employees
+	 * @return ids in ascending order
+	 */
+	List<Long> findIds(Status status, EmployeeFilter filter);
+
+	/**
+	 * Insert employees with their own ids in JDBC batches, without the
+	 * persistence context and the id generator. The ids must not be handed
+	 * out by the employee sequence, see
+	 * {@link EmployeeSchemaMigration#restartSequence()}.
+	 * 
+	 * @param employees
+	 *            employees with id, their version is set to 0
+	 */
+	void insertAll(List<Employee> employees);
+
+	/**
+	 * Take ids from the employee sequence ahead of the insert. An employee
+	 * persisted with a reserved id keeps it, see {@link EmployeeIdGenerator}.
+	 * 
+	 * @param count
+	 *            number of ids
+	 * @return distinct ids, never assigned by the sequence again
+	 */
+	List<Long> reserveIds(int count);
+
+}
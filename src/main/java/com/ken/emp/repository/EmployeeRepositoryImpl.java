@@ -0,0 +1,429 @@
+package com.ken.emp.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.ken.emp.model.Employee;
+import com.ken.emp.model.EmployeeFilter;
+import com.ken.emp.model.Status;
+import com.ken.emp.model.UtcDateConverter;
+
+/**
+ * Implementation of {@link EmployeeRepositoryCustom}, picked up by Spring Data
+ * as fragment of {@link EmployeeRepository}
+ * 
+ */
+public class EmployeeRepositoryImpl implements EmployeeRepositoryCustom {
+
+	private static final EmployeeRowMapper rowMapper = new EmployeeRowMapper();
+
+	private static final UtcDateConverter DATES = new UtcDateConverter();
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	// rows fetched per round-trip by streaming cursors
+	@Value("${kenemp.jdbc.fetch-size:1000}")
+	private int fetchSize;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void forEachEmployee(Status status, Consumer<Employee> action) {
+		String sql = "SELECT " + EmployeeRowMapper.COLUMNS + " FROM employee"
+				+ (status != null ? " WHERE status = ?" : "") + " ORDER BY id";
+		jdbcTemplate.query(con -> {
+			PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+					ResultSet.CONCUR_READ_ONLY);
+			ps.setFetchSize(fetchSize);
+			if (status != null) {
+				ps.setInt(1, status.ordinal());
+			}
+			return ps;
+		}, (ResultSet rs) -> action.accept(rowMapper.mapRow(rs, 0)));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<Employee> findPage(Status status, EmployeeFilter filter, EmployeeSort sort, KeysetCursor after,
+			int limit) {
+		return findKeyset(Employee.class, (query, emp) -> query.select(emp), status, filter, sort, after, limit);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<Map<String, Object>> findPage(Status status, EmployeeFilter filter, EmployeeSort sort,
+			KeysetCursor after, int limit, Set<String> attributes) {
+		List<Tuple> rows = findKeyset(Tuple.class, (query, emp) -> {
+			List<Selection<?>> selections = new ArrayList<>(attributes.size());
+			for (String attribute : attributes) {
+				selections.add(emp.get(attribute).alias(attribute));
+			}
+			query.multiselect(selections);
+		}, status, filter, sort, after, limit);
+
+		List<Map<String, Object>> page = new ArrayList<>(rows.size());
+		for (Tuple row : rows) {
+			Map<String, Object> values = new LinkedHashMap<>(attributes.size() * 2);
+			for (String attribute : attributes) {
+				values.put(attribute, row.get(attribute));
+			}
+			page.add(values);
+		}
+		return page;
+	}
+
+	/**
+	 * Read a keyset page of the given selection
+	 */
+	private <T> List<T> findKeyset(Class<T> type, BiConsumer<CriteriaQuery<T>, Root<Employee>> selection,
+			Status status, EmployeeFilter filter, EmployeeSort sort, KeysetCursor after, int limit) {
+		if (sort.getKey() == EmployeeSort.Key.ID) {
+			return findRange(type, selection, status, filter, sort, Range.ALL, after, limit);
+		}
+
+		// rows with and without a value for the sort key are read as separate
+		// index ranges, so that each query has a start key
+		Range[] ranges = sort.isDescending() ? new Range[] { Range.NULLS, Range.VALUES }
+				: new Range[] { Range.VALUES, Range.NULLS };
+		int first = 0;
+		if (after != null && (after.getLastValue() == null) != (ranges[0] == Range.NULLS)) {
+			first = 1;
+		}
+
+		List<T> page = new ArrayList<>();
+		for (int i = first; i < ranges.length && page.size() < limit; i++) {
+			page.addAll(findRange(type, selection, status, filter, sort, ranges[i], i == first ? after : null,
+					limit - page.size()));
+		}
+		return page;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private <T> List<T> findRange(Class<T> type, BiConsumer<CriteriaQuery<T>, Root<Employee>> selection,
+			Status status, EmployeeFilter filter, EmployeeSort sort, Range range, KeysetCursor after, int limit) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<T> query = cb.createQuery(type);
+		Root<Employee> emp = query.from(Employee.class);
+		Path<Long> id = emp.get("id");
+		Path key = emp.get(sort.getKey().attribute());
+		boolean descending = sort.isDescending();
+
+		List<Predicate> where = new ArrayList<>();
+		if (status != null) {
+			where.add(cb.equal(emp.get("status"), status));
+		}
+		addFilter(cb, emp, filter, where);
+		if (range == Range.VALUES) {
+			where.add(cb.isNotNull(key));
+			if (after != null) {
+				// key >= last AND (key > last OR id > lastId), the first part is
+				// the index start key
+				Comparable last = (Comparable) after.getLastValue();
+				where.add(descending ? cb.lessThanOrEqualTo(key, last) : cb.greaterThanOrEqualTo(key, last));
+				where.add(cb.or(descending ? cb.lessThan(key, last) : cb.greaterThan(key, last),
+						descending ? cb.lessThan(id, after.getLastId()) : cb.greaterThan(id, after.getLastId())));
+			}
+			query.orderBy(descending ? cb.desc(key) : cb.asc(key), descending ? cb.desc(id) : cb.asc(id));
+		} else {
+			if (range == Range.NULLS) {
+				where.add(cb.isNull(key));
+			}
+			if (after != null) {
+				where.add(descending ? cb.lessThan(id, after.getLastId()) : cb.greaterThan(id, after.getLastId()));
+			}
+			query.orderBy(descending ? cb.desc(id) : cb.asc(id));
+		}
+		selection.accept(query, emp);
+		query.where(where.toArray(new Predicate[where.size()]));
+
+		return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+	}
+
+	/**
+	 * Index range of a keyset query
+	 */
+	private enum Range {
+		// all rows, for the id sort
+		ALL,
+		// rows with a value for the sort key
+		VALUES,
+		// rows without a value for the sort key
+		NULLS
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@Transactional
+	public int patch(long id, Long expectedVersion, Map<String, Object> changes) {
+		StringBuilder sql = new StringBuilder("UPDATE employee SET ");
+		List<Object> args = new ArrayList<>(changes.size() + 2);
+		for (Map.Entry<String, Object> change : changes.entrySet()) {
+			sql.append(column(change.getKey())).append(" = ?, ");
+			args.add(jdbcValue(change.getValue()));
+		}
+		sql.append("version = version + 1 WHERE id = ?");
+		args.add(id);
+		if (expectedVersion != null) {
+			sql.append(" AND version = ?");
+			args.add(expectedVersion);
+		}
+		int updated = jdbcTemplate.update(sql.toString(), args.toArray());
+		if (updated > 0) {
+			evictAfterCompletion(Collections.singletonList(id));
+		}
+		return updated;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@Transactional
+	public int updateStatus(Collection<Long> ids, Status from, Status to) {
+		if (ids.isEmpty()) {
+			return 0;
+		}
+		List<Object> args = new ArrayList<>(ids.size() + 2);
+		args.add(to.ordinal());
+		args.addAll(ids);
+		args.add(from.ordinal());
+		int updated = jdbcTemplate.update("UPDATE employee SET status = ?, version = version + 1 WHERE id IN ("
+				+ placeholders(ids.size()) + ") AND status = ?", args.toArray());
+		if (updated > 0) {
+			evictAfterCompletion(ids);
+		}
+		return updated;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@Transactional
+	public int purgeById(long id) {
+		return purgeByIdIn(Collections.singletonList(id));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@Transactional
+	public int purgeByIdIn(Collection<Long> ids) {
+		if (ids.isEmpty()) {
+			return 0;
+		}
+		int deleted = jdbcTemplate.update("DELETE FROM employee WHERE id IN (" + placeholders(ids.size()) + ")",
+				ids.toArray());
+		if (deleted > 0) {
+			evictAfterCompletion(ids);
+		}
+		return deleted;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@Transactional
+	public void insertAll(List<Employee> employees) {
+		if (employees.isEmpty()) {
+			return;
+		}
+		List<Long> ids = new ArrayList<>(employees.size());
+		jdbcTemplate.batchUpdate("INSERT INTO employee (" + EmployeeRowMapper.COLUMNS
+				+ ") VALUES (?, ?, ?, ?, ?, ?, ?, ?)", employees, employees.size(), (ps, employee) -> {
+					employee.setVersion(0L);
+					ps.setLong(1, employee.getId());
+					ps.setString(2, employee.getFirstName());
+					ps.setString(3, employee.getMiddleInitial());
+					ps.setString(4, employee.getLastName());
+					ps.setObject(5, jdbcValue(employee.getDateOfBirth()), Types.DATE);
+					ps.setObject(6, jdbcValue(employee.getDateOfEmployment()), Types.DATE);
+					ps.setInt(7, employee.getStatus().ordinal());
+					ps.setLong(8, employee.getVersion());
+					ids.add(employee.getId());
+				});
+		evictAfterCompletion(ids);
+	}
+
+	/**
+	 * Evict the given employees and the employee query region from the
+	 * second-level cache once the current transaction completes, so a
+	 * concurrent read cannot cache the rows as they were before the commit
+	 */
+	private void evictAfterCompletion(Collection<Long> ids) {
+		List<Long> evicted = new ArrayList<>(ids);
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			evict(evicted);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCompletion(int status) {
+				evict(evicted);
+			}
+		});
+	}
+
+	private void evict(List<Long> ids) {
+		Cache cache = entityManager.getEntityManagerFactory().getCache();
+		for (Long id : ids) {
+			cache.evict(Employee.class, id);
+		}
+		// cached query results are not invalidated by JDBC statements
+		cache.unwrap(org.hibernate.Cache.class).evictQueryRegion(EmployeeRepository.QUERY_REGION);
+	}
+
+	/**
+	 * Column of an attribute of {@link Employee}, as named by the Spring
+	 * physical naming strategy
+	 */
+	private static String column(String attribute) {
+		if (!EmployeeFields.ATTRIBUTES.contains(attribute)) {
+			throw new IllegalArgumentException("Unknown attribute " + attribute);
+		}
+		return attribute.replaceAll("([a-z])([A-Z])", "$1_$2").toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Value bound as JPA does: status by ordinal and dates converted by the
+	 * {@link UtcDateConverter}
+	 */
+	private static Object jdbcValue(Object value) {
+		if (value instanceof Status) {
+			return ((Status) value).ordinal();
+		}
+		if (value instanceof Date) {
+			return DATES.convertToDatabaseColumn((Date) value);
+		}
+		return value;
+	}
+
+	private static String placeholders(int count) {
+		return String.join(", ", Collections.nCopies(count, "?"));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<Long> findIds(Status status, EmployeeFilter filter) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Long> query = cb.createQuery(Long.class);
+		Root<Employee> emp = query.from(Employee.class);
+		Path<Long> id = emp.get("id");
+
+		List<Predicate> where = new ArrayList<>();
+		if (status != null) {
+			where.add(cb.equal(emp.get("status"), status));
+		}
+		addFilter(cb, emp, filter, where);
+		query.select(id).where(where.toArray(new Predicate[where.size()])).orderBy(cb.asc(id));
+
+		return entityManager.createQuery(query).getResultList();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@Transactional
+	public List<Long> reserveIds(int count) {
+		// the generator of the entity, so reserved ids come from the same
+		// pooled allocation as the ids of persisted employees
+		SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+		IdentifierGenerator generator = session.getFactory().getMetamodel().entityPersister(Employee.class)
+				.getIdentifierGenerator();
+		List<Long> ids = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			ids.add((Long) generator.generate(session, null));
+		}
+		return ids;
+	}
+
+	/**
+	 * Add the predicates of the given criteria, all of them sargable so that
+	 * they can be an index start or stop key
+	 */
+	private static void addFilter(CriteriaBuilder cb, Root<Employee> emp, EmployeeFilter filter,
+			List<Predicate> where) {
+		if (filter == null) {
+			return;
+		}
+		Path<String> firstName = emp.get("firstName");
+		if (filter.getFirstName() != null) {
+			where.add(cb.equal(firstName, filter.getFirstName()));
+		}
+		String prefix = filter.getFirstNamePrefix();
+		if (prefix != null && !prefix.isEmpty()) {
+			// prefix <= firstName < prefix with its last character incremented,
+			// instead of LIKE which is not an index range with a parameter
+			where.add(cb.greaterThanOrEqualTo(firstName, prefix));
+			char last = prefix.charAt(prefix.length() - 1);
+			if (last != Character.MAX_VALUE) {
+				where.add(cb.lessThan(firstName, prefix.substring(0, prefix.length() - 1) + (char) (last + 1)));
+			}
+		}
+		if (filter.getLastName() != null) {
+			where.add(cb.equal(emp.get("lastName"), filter.getLastName()));
+		}
+		addRange(cb, emp.get("dateOfBirth"), filter.getBornFrom(), filter.getBornTo(), where);
+		addRange(cb, emp.get("dateOfEmployment"), filter.getEmployedFrom(), filter.getEmployedTo(), where);
+	}
+
+	private static void addRange(CriteriaBuilder cb, Path<Date> date, Date from, Date to, List<Predicate> where) {
+		if (from != null) {
+			where.add(cb.greaterThanOrEqualTo(date, from));
+		}
+		if (to != null) {
+			where.add(cb.lessThanOrEqualTo(date, to));
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package com.ken.emp.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.springframework.jdbc.core.RowMapper;
+
+import com.ken.emp.model.Employee;
+import com.ken.emp.model.Status;
+import com.ken.emp.model.UtcDateConverter;
+
+/**
+ * Maps a row of the EMPLOYEE table to an unmanaged {@link Employee}.
+ * 
+ * Status is stored by ordinal and dates are read with the
+ * {@link UtcDateConverter}, as mapped by JPA.
+ * 
+ */
+public class EmployeeRowMapper implements RowMapper<Employee> {
+
+	/**
+	 * Column list matching this mapper
+	 */
+	public static final String COLUMNS = "id, first_name, middle_initial, last_name, date_of_birth, date_of_employment, status, version";
+
+	private static final Status[] STATUSES = Status.values();
+
+	private static final UtcDateConverter DATES = new UtcDateConverter();
+
+	@Override
+	public Employee mapRow(ResultSet rs, int rowNum) throws SQLException {
+		Employee employee = new Employee(rs.getString("first_name"), rs.getString("middle_initial"),
+				rs.getString("last_name"), DATES.convertToEntityAttribute(rs.getDate("date_of_birth")),
+				DATES.convertToEntityAttribute(rs.getDate("date_of_employment")), STATUSES[rs.getInt("status")]);
+		employee.setId(rs.getLong("id"));
+		long version = rs.getLong("version");
+		employee.setVersion(rs.wasNull() ? null : version);
+		return employee;
+	}
+}
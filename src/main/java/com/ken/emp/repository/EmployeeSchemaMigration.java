@@ -0,0 +1,148 @@
+package com.ken.emp.repository;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Start up migration of the EMPLOYEE table and sequence created by earlier
+ * versions, which hibernate.ddl-auto=update does not change, and restart of
+ * the sequence after a restore with the ids of a snapshot.
+ *
+ * Runs after Hibernate updated the schema and before the initial load. The
+ * statements are Derby SQL, on other databases a failing migration is only
+ * logged and has to be done by hand.
+ *
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class EmployeeSchemaMigration {
+
+	private static final Logger logger = LoggerFactory.getLogger(EmployeeSchemaMigration.class);
+
+	// increment_size of the employee id generator, see Employee
+	private static final int ID_ALLOCATION_SIZE = 500;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Migrate the EMPLOYEE table and sequence
+	 */
+	@PostConstruct
+	public void migrate() {
+		migrateVersion();
+		migrateSequence();
+	}
+
+	/**
+	 * Make the version column NOT NULL, employees without version get version
+	 * 0. Their ETag would otherwise end in "null" and never change, and
+	 * conditional updates of them would never match.
+	 */
+	private void migrateVersion() {
+		try {
+			if (!isNullable("EMPLOYEE", "VERSION")) {
+				return;
+			}
+			int rows = jdbcTemplate.update("UPDATE employee SET version = 0 WHERE version IS NULL");
+			jdbcTemplate.execute("ALTER TABLE employee ALTER COLUMN version NOT NULL");
+			logger.info("Employee version column made NOT NULL, " + rows + " employees without version set to 0");
+		} catch (DataAccessException e) {
+			logger.warn("Employee version column could not be made NOT NULL", e);
+		}
+	}
+
+	/**
+	 * Recreate EMPLOYEE_SEQ with INCREMENT BY the id allocation size. The
+	 * pooled optimizer of Hibernate takes each sequence value as the last id
+	 * of a block of allocation size ids, with a smaller increment the blocks
+	 * overlap and ids are handed out twice. Derby has no ALTER SEQUENCE, the
+	 * new sequence starts past the ids already used.
+	 */
+	private void migrateSequence() {
+		try {
+			String schema = jdbcTemplate.queryForObject("VALUES CURRENT SCHEMA", String.class);
+			List<Long> increments = jdbcTemplate.queryForList("SELECT s.INCREMENT FROM SYS.SYSSEQUENCES s"
+					+ " JOIN SYS.SYSSCHEMAS c ON s.SCHEMAID = c.SCHEMAID"
+					+ " WHERE s.SEQUENCENAME = 'EMPLOYEE_SEQ' AND c.SCHEMANAME = ?", Long.class, schema);
+			if (increments.isEmpty() || increments.get(0) == ID_ALLOCATION_SIZE) {
+				return;
+			}
+			long firstFree = firstFree(nextSequenceValue(schema), maxId());
+			recreateSequence(firstFree);
+			logger.info("Employee sequence recreated with increment " + ID_ALLOCATION_SIZE + " instead of "
+					+ increments.get(0) + ", next id " + firstFree);
+		} catch (DataAccessException e) {
+			logger.warn("Employee sequence could not be migrated to increment " + ID_ALLOCATION_SIZE, e);
+		}
+	}
+
+	/**
+	 * Restart EMPLOYEE_SEQ past the highest employee id, after employees were
+	 * inserted with ids not taken from the sequence. Must run before the
+	 * sequence hands out ids in this process, as Hibernate keeps the block of
+	 * ids it fetched last.
+	 *
+	 * @throws DataAccessException
+	 *             if the sequence could not be recreated
+	 */
+	public void restartSequence() {
+		String schema = jdbcTemplate.queryForObject("VALUES CURRENT SCHEMA", String.class);
+		Long next = nextSequenceValue(schema);
+		Long maxId = maxId();
+		// the next block of ids ends with the next value
+		if (maxId == null || next != null && next - ID_ALLOCATION_SIZE >= maxId) {
+			return;
+		}
+		long firstFree = firstFree(next, maxId);
+		recreateSequence(firstFree);
+		logger.info("Employee sequence restarted, next id " + firstFree);
+	}
+
+	/**
+	 * @return first id after the ids handed out by the sequence and the ids
+	 *         in the table
+	 */
+	private static long firstFree(Long next, Long maxId) {
+		return Math.max(next == null ? 1 : next, maxId == null ? 1 : maxId + 1);
+	}
+
+	private Long maxId() {
+		return jdbcTemplate.queryForObject("SELECT MAX(id) FROM employee", Long.class);
+	}
+
+	private Long nextSequenceValue(String schema) {
+		return jdbcTemplate.queryForObject("VALUES SYSCS_UTIL.SYSCS_PEEK_AT_SEQUENCE(?, 'EMPLOYEE_SEQ')", Long.class,
+				schema);
+	}
+
+	/**
+	 * Recreate EMPLOYEE_SEQ so that its first block of ids starts at the
+	 * given id
+	 */
+	private void recreateSequence(long firstFree) {
+		jdbcTemplate.execute("DROP SEQUENCE employee_seq RESTRICT");
+		jdbcTemplate.execute("CREATE SEQUENCE employee_seq AS BIGINT START WITH "
+				+ (firstFree + ID_ALLOCATION_SIZE - 1) + " INCREMENT BY " + ID_ALLOCATION_SIZE);
+	}
+
+	private boolean isNullable(String table, String column) {
+		return jdbcTemplate.execute((ConnectionCallback<Boolean>) con -> {
+			try (ResultSet rs = con.getMetaData().getColumns(null, null, table, column)) {
+				return rs.next() && rs.getInt("NULLABLE") == DatabaseMetaData.columnNullable;
+			}
+		});
+	}
+}
@@ -0,0 +1,118 @@
+package com.ken.emp.repository;
+
+/**
+ * Sort order of paginated employee queries, a sort key followed by id as tie
+ * breaker in the same direction.
+ * 
+ */
+public final class EmployeeSort {
+
+	/**
+	 * Sortable employee attributes, each one backed by an index on (key, id)
+	 */
+	public enum Key {
+
+		ID("id"), FIRST_NAME("firstName"), LAST_NAME("lastName"), DATE_OF_BIRTH("dateOfBirth"), DATE_OF_EMPLOYMENT(
+				"dateOfEmployment");
+
+		private final String attribute;
+
+		Key(String attribute) {
+			this.attribute = attribute;
+		}
+
+		/**
+		 * @return JPA attribute name of the key
+		 */
+		public String attribute() {
+			return attribute;
+		}
+
+		/**
+		 * @return true if the attribute is a date
+		 */
+		public boolean isDate() {
+			return this == DATE_OF_BIRTH || this == DATE_OF_EMPLOYMENT;
+		}
+
+		static Key fromAttribute(String attribute) {
+			for (Key key : values()) {
+				if (key.attribute.equals(attribute)) {
+					return key;
+				}
+			}
+			throw new IllegalArgumentException("Unknown sort key " + attribute);
+		}
+	}
+
+	/**
+	 * default order, ascending id
+	 */
+	public static final EmployeeSort BY_ID = new EmployeeSort(Key.ID, false);
+
+	private final Key key;
+
+	private final boolean descending;
+
+	/**
+	 * constructor
+	 * 
+	 * @param key
+	 *            sort key
+	 * @param descending
+	 *            true for descending order
+	 */
+	public EmployeeSort(Key key, boolean descending) {
+		this.key = key;
+		this.descending = descending;
+	}
+
+	/**
+	 * Parse a sort parameter, an attribute name optionally prefixed with '-'
+	 * for descending order, for example -dateOfEmployment
+	 * 
+	 * @param value
+	 *            sort parameter, null or empty for {@link #BY_ID}
+	 * @return parsed sort
+	 * @throws IllegalArgumentException
+	 *             on unknown attribute
+	 */
+	public static EmployeeSort parse(String value) {
+		if (value == null || value.trim().isEmpty()) {
+			return BY_ID;
+		}
+		String attribute = value.trim();
+		boolean descending = attribute.startsWith("-");
+		if (descending || attribute.startsWith("+")) {
+			attribute = attribute.substring(1);
+		}
+		return new EmployeeSort(Key.fromAttribute(attribute), descending);
+	}
+
+	public Key getKey() {
+		return key;
+	}
+
+	public boolean isDescending() {
+		return descending;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof EmployeeSort)) {
+			return false;
+		}
+		EmployeeSort other = (EmployeeSort) obj;
+		return key == other.key && descending == other.descending;
+	}
+
+	@Override
+	public int hashCode() {
+		return key.hashCode() * 2 + (descending ? 1 : 0);
+	}
+
+	@Override
+	public String toString() {
+		return (descending ? "-" : "") + key.attribute();
+	}
+}
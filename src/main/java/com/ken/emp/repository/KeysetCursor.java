@@ -0,0 +1,142 @@
+package com.ken.emp.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+import com.ken.emp.model.Employee;
+
+/**
+ * Position after the last row of a keyset page, encoded as an opaque token
+ * for clients.
+ * 
+ */
+public final class KeysetCursor {
+
+	private static final String VERSION = "1";
+
+	private final EmployeeSort sort;
+
+	private final long lastId;
+
+	// sort key value of the last row, String or Date, null for a null key
+	private final Object lastValue;
+
+	/**
+	 * constructor
+	 * 
+	 * @param sort
+	 *            sort of the paginated query
+	 * @param lastId
+	 *            id of the last row
+	 * @param lastValue
+	 *            sort key value of the last row
+	 */
+	public KeysetCursor(EmployeeSort sort, long lastId, Object lastValue) {
+		this.sort = sort;
+		this.lastId = lastId;
+		this.lastValue = lastValue;
+	}
+
+	/**
+	 * Cursor positioned after the given employee
+	 * 
+	 * @param sort
+	 *            sort of the paginated query
+	 * @param last
+	 *            last employee of the page
+	 * @return cursor
+	 */
+	public static KeysetCursor after(EmployeeSort sort, Employee last) {
+		Object value;
+		switch (sort.getKey()) {
+		case FIRST_NAME:
+			value = last.getFirstName();
+			break;
+		case LAST_NAME:
+			value = last.getLastName();
+			break;
+		case DATE_OF_BIRTH:
+			value = last.getDateOfBirth();
+			break;
+		case DATE_OF_EMPLOYMENT:
+			value = last.getDateOfEmployment();
+			break;
+		default:
+			value = null;
+		}
+		return new KeysetCursor(sort, last.getId(), value);
+	}
+
+	public EmployeeSort getSort() {
+		return sort;
+	}
+
+	public long getLastId() {
+		return lastId;
+	}
+
+	public Object getLastValue() {
+		return lastValue;
+	}
+
+	/**
+	 * @return opaque token of this cursor
+	 */
+	public String encode() {
+		StringBuilder token = new StringBuilder(VERSION).append('|').append(sort).append('|').append(lastId)
+				.append('|');
+		if (lastValue == null) {
+			token.append('n');
+		} else if (lastValue instanceof Date) {
+			token.append('d').append(((Date) lastValue).getTime());
+		} else {
+			token.append('s').append(lastValue);
+		}
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString(token.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Decode a token created by {@link #encode()}
+	 * 
+	 * @param token
+	 *            opaque token
+	 * @param sort
+	 *            sort of the requested page, which must be the one of the token
+	 * @return decoded cursor
+	 * @throws IllegalArgumentException
+	 *             if the token is invalid or was issued for another sort
+	 */
+	public static KeysetCursor decode(String token, EmployeeSort sort) {
+		String decoded;
+		try {
+			decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Invalid page token", e);
+		}
+		String[] parts = decoded.split("\\|", 4);
+		if (parts.length != 4 || !VERSION.equals(parts[0]) || parts[3].isEmpty()) {
+			throw new IllegalArgumentException("Invalid page token");
+		}
+		if (!EmployeeSort.parse(parts[1]).equals(sort)) {
+			throw new IllegalArgumentException("Page token was issued for sort " + parts[1]);
+		}
+		try {
+			long lastId = Long.parseLong(parts[2]);
+			String value = parts[3].substring(1);
+			switch (parts[3].charAt(0)) {
+			case 'n':
+				return new KeysetCursor(sort, lastId, null);
+			case 'd':
+				return new KeysetCursor(sort, lastId, new Date(Long.parseLong(value)));
+			case 's':
+				return new KeysetCursor(sort, lastId, value);
+			default:
+				throw new IllegalArgumentException("Invalid page token");
+			}
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid page token", e);
+		}
+	}
+}
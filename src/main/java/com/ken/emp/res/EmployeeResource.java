@@ -1,26 +1,79 @@
 package com.ken.emp.res;
 
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.PATCH;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.Variant;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ken.emp.cache.EmployeeJsonCache;
+import com.ken.emp.cache.EmployeeJsonCache.EmployeeJson;
+import com.ken.emp.loader.EmployeeBulkLoader;
+import com.ken.emp.loader.EmployeeCsvParser;
+import com.ken.emp.loader.EmployeeCsvWriter;
+import com.ken.emp.loader.LoadReport;
+import com.ken.emp.model.BatchCreateReport;
+import com.ken.emp.model.DeactivationRequest;
 import com.ken.emp.model.Employee;
+import com.ken.emp.model.EmployeeFilter;
+import com.ken.emp.model.EmployeeLookup;
+import com.ken.emp.model.EmployeeName;
+import com.ken.emp.model.EmployeePatch;
+import com.ken.emp.model.EmployeeStats;
+import com.ken.emp.model.PurgeReport;
 import com.ken.emp.model.Status;
+import com.ken.emp.model.StatusChangeReport;
+import com.ken.emp.model.WriteStatus;
+import com.ken.emp.repository.EmployeeFields;
+import com.ken.emp.repository.EmployeeSort;
+import com.ken.emp.search.EmployeeNameIndex;
+import com.ken.emp.service.EmployeeChangeCounter;
 import com.ken.emp.service.EmployeeService;
+import com.ken.emp.service.EmployeeWriteBehind;
+import com.ken.emp.stats.EmployeeStatistics;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -32,6 +85,13 @@ import io.swagger.annotations.Authorization;
  * This class implements employee resource and its end-points such as
  * GET,POST,PUT and DELETE
  * 
+ * End-points reading or writing the database run on the
+ * {@link ResourceExecutor}, not on the request thread, and answer
+ * HTTP/SERVICE_UNAVAILABLE 503 when it is saturated. Reads also answer 503
+ * when their timeout expired, writes run to completion as a write given up
+ * on may still commit. In-memory end-points and the streaming of exports
+ * and imports stay on the request thread.
+ * 
  * @author cmenerip
  *
  */
@@ -42,43 +102,531 @@ public class EmployeeResource {
 
 	private static final Logger logger = LoggerFactory.getLogger(EmployeeResource.class);
 
+	/**
+	 * media type of employee CSV files
+	 */
+	public static final String TEXT_CSV = "text/csv";
+
+	/**
+	 * media type of newline-delimited JSON
+	 */
+	public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+	/**
+	 * media type of Smile, binary JSON
+	 */
+	public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+
+	/**
+	 * media type of CBOR
+	 */
+	public static final String APPLICATION_CBOR = "application/cbor";
+
+	// representations of employees, in order of preference
+	private static final List<Variant> ENCODINGS = Variant.mediaTypes(MediaType.APPLICATION_JSON_TYPE,
+			MediaType.valueOf(APPLICATION_SMILE), MediaType.valueOf(APPLICATION_CBOR)).build();
+
+	/**
+	 * page size when paging without limit
+	 */
+	public static final int DEFAULT_PAGE_SIZE = 100;
+
+	/**
+	 * maximum page size
+	 */
+	public static final int MAX_PAGE_SIZE = 1000;
+
+	/**
+	 * maximum number of name suggestions
+	 */
+	public static final int MAX_SUGGESTIONS = 100;
+
+	/**
+	 * maximum number of employees of a batch create
+	 */
+	public static final int MAX_BATCH_SIZE = 10000;
+
+	/**
+	 * maximum number of ids of a lookup
+	 */
+	public static final int MAX_LOOKUP_IDS = 1000;
+
+	/**
+	 * HTTP/MULTI_STATUS 207, not defined by {@link Response.Status}
+	 */
+	private static final int MULTI_STATUS = 207;
+
+	// request and response headers of asynchronous processing (RFC 7240)
+	private static final String PREFER = "Prefer";
+
+	private static final String PREFERENCE_APPLIED = "Preference-Applied";
+
+	private static final String RESPOND_ASYNC = "respond-async";
+
 	@Autowired
 	private EmployeeService employeeService;
 
+	@Autowired
+	private EmployeeBulkLoader bulkLoader;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private EmployeeJsonCache jsonCache;
+
+	@Autowired
+	private EmployeeChangeCounter changeCounter;
+
+	@Autowired
+	private EmployeeNameIndex nameIndex;
+
+	@Autowired
+	private EmployeeStatistics statistics;
+
+	@Autowired
+	private ResourceExecutor executor;
+
+	// timeout of reads, writes are not abandoned once started
+	@Value("${kenemp.async.timeout.read-ms:5000}")
+	private long readTimeout;
+
+	@Autowired
+	private EmployeeWriteBehind writeBehind;
+
+	// Retry-After of creates rejected by a full write-behind queue
+	@Value("${kenemp.write-behind.retry-after-seconds:1}")
+	private int writeBehindRetryAfterSeconds;
+
 	/**
-	 * Get all active employees
+	 * Get all active employees, one page of them when any of limit, next or
+	 * sort is given, or the active employees with the given ids
+	 * 
+	 * Pages are keyset paginated: the response has the items of the page and
+	 * an opaque next token to pass for the following page, which is null on
+	 * the last page. The unpaged list is written from its cached JSON and
+	 * tagged with the change counter of the employee table, so polling clients
+	 * get HTTP/NOT_MODIFIED 304 until an employee is written. The tag is weak
+	 * as Tomcat does not compress responses with a strong ETag, it is only
+	 * used by If-None-Match which compares weakly. With ids the
+	 * response is the lookup of
+	 * {@link #lookupEmployees(AsyncResponse, List)}. With fields
+	 * only the given attributes are selected and returned.
 	 * 
-	 * @return list of active employees as response
+	 * @param async
+	 *            suspended response, resumed with list or page of active
+	 *            employees as response and HTTP/OK 200, HTTP/NOT_MODIFIED 304 if
+	 *            the list matches If-None-Match, HTTP/BAD_REQUEST 400 on invalid
+	 *            paging parameters, ids or fields
+	 * @param request
+	 *            request, for If-None-Match
+	 * @param ids
+	 *            comma separated ids of the employees to look up
+	 * @param limit
+	 *            maximum number of employees in a page
+	 * @param next
+	 *            token of the page returned with the previous page
+	 * @param sort
+	 *            sort key (id, firstName, lastName, dateOfBirth or
+	 *            dateOfEmployment), prefixed with '-' for descending order
+	 * @param fields
+	 *            comma separated attributes of the employees to return, all
+	 *            by default
 	 */
 	@GET
 	@Path("/")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	@ApiOperation(value = "Get all active employees", response = Employee.class)
 	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully retreive employees"),
+			@ApiResponse(code = 304, message = "Employees not modified"),
+			@ApiResponse(code = 400, message = "Invalid paging parameters"),
+			@ApiResponse(code = 500, message = "Unexpected error") })
+	public void getAllEmployees(@Suspended AsyncResponse async, @Context Request request, @QueryParam("ids") String ids,
+			@QueryParam("limit") Integer limit, @QueryParam("next") String next, @QueryParam("sort") String sort,
+			@QueryParam("fields") String fields) {
+		executor.submit(async, readTimeout, () -> getAllEmployees(request, ids, limit, next, sort, fields));
+	}
+
+	private Response getAllEmployees(Request request, String ids, Integer limit, String next, String sort,
+			String fields) {
+
+		EmployeeFields selected;
+		try {
+			selected = EmployeeFields.parse(fields);
+		} catch (IllegalArgumentException e) {
+			return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+		}
+		if (ids != null) {
+			List<Long> idList = new ArrayList<>();
+			try {
+				for (String id : ids.split(",")) {
+					if (!id.trim().isEmpty()) {
+						idList.add(Long.valueOf(id.trim()));
+					}
+				}
+			} catch (NumberFormatException e) {
+				return Response.status(Response.Status.BAD_REQUEST).entity("ids must be comma separated numbers")
+						.build();
+			}
+			return lookupEmployees(idList);
+		}
+		if (limit == null && next == null && sort == null) {
+			MediaType binary = binaryType(request);
+			// taken before loading, a concurrent write only makes the tag stale.
+			// Weak, the list is only validated by GET and a strong tag stops
+			// Tomcat from compressing it.
+			EntityTag tag = new EntityTag(changeCounter.getTag() + (selected == null ? "" : ";" + selected)
+					+ (binary == null ? "" : "+" + binary.getSubtype()), true);
+			ResponseBuilder notModified = request.evaluatePreconditions(tag);
+			if (notModified != null) {
+				return notModified.build();
+			}
+			if (selected != null) {
+				return Response.ok().entity(employeeService.getAllActiveEmployees(selected)).tag(tag).build();
+			}
+			if (binary != null) {
+				return Response.ok().entity(employeeService.getAllActiveEmployees()).type(binary).tag(tag).build();
+			}
+			return Response.ok().entity(jsonCache.getActiveList(employeeService::getAllActiveEmployees)).tag(tag)
+					.build();
+		}
+
+		int size = limit == null ? DEFAULT_PAGE_SIZE : limit;
+		if (size < 1 || size > MAX_PAGE_SIZE) {
+			return Response.status(Response.Status.BAD_REQUEST)
+					.entity("limit must be between 1 and " + MAX_PAGE_SIZE).build();
+		}
+		try {
+			if (selected != null) {
+				return Response.ok().entity(employeeService.searchEmployees(Status.ACTIVE, null,
+						EmployeeSort.parse(sort), next == null || next.isEmpty() ? null : next, size, selected))
+						.build();
+			}
+			return Response.ok().entity(employeeService.getActiveEmployees(EmployeeSort.parse(sort),
+					next == null || next.isEmpty() ? null : next, size)).build();
+		} catch (IllegalArgumentException e) {
+			return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+		}
+	}
+
+	/**
+	 * Get the active employees with the given ids
+	 * 
+	 * Cached employees are served from memory, all others are read with a
+	 * single query, so a client resolves many ids in one round-trip.
+	 * 
+	 * @param async
+	 *            suspended response, resumed with active employees in the order
+	 *            of the ids and the ids without active employee as response and
+	 *            HTTP/OK 200, HTTP/BAD_REQUEST 400 without ids or with too many
+	 *            ids
+	 * @param ids
+	 *            ids of the employees
+	 */
+	@POST
+	@Path("/lookup")
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
+	@Consumes({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
+	@ApiOperation(value = "Get active employees by their ids", response = EmployeeLookup.class)
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully retreive the employees"),
+			@ApiResponse(code = 400, message = "No ids or too many ids given") })
+	public void lookupEmployees(@Suspended AsyncResponse async, List<Long> ids) {
+		executor.submit(async, readTimeout, () -> lookupEmployees(ids));
+	}
+
+	private Response lookupEmployees(List<Long> ids) {
+
+		if (ids == null || ids.isEmpty() || ids.size() > MAX_LOOKUP_IDS) {
+			return Response.status(Response.Status.BAD_REQUEST)
+					.entity("between 1 and " + MAX_LOOKUP_IDS + " ids must be given").build();
+		}
+		return Response.ok().entity(employeeService.getActiveEmployees(ids)).build();
+	}
+
+	/**
+	 * Search employees page by page
+	 * 
+	 * All given criteria must match. They are evaluated by the database on
+	 * the EMPLOYEE indexes, pages are keyset paginated as in
+	 * {@link #getAllEmployees(AsyncResponse, Request, String, Integer, String, String, String)};
+	 * the next token is only valid with the same criteria. With fields only the
+	 * given attributes are selected and returned.
+	 * 
+	 * @param async
+	 *            suspended response, resumed with page of matching employees as
+	 *            response and HTTP/OK 200, HTTP/BAD_REQUEST 400 on invalid
+	 *            criteria, paging parameters or fields
+	 * @param lastName
+	 *            last name
+	 * @param firstName
+	 *            first name prefix
+	 * @param status
+	 *            status, any status by default
+	 * @param employedFrom
+	 *            first date of employment (dd/MM/yyyy), inclusive
+	 * @param employedTo
+	 *            last date of employment (dd/MM/yyyy), inclusive
+	 * @param bornFrom
+	 *            first date of birth (dd/MM/yyyy), inclusive
+	 * @param bornTo
+	 *            last date of birth (dd/MM/yyyy), inclusive
+	 * @param limit
+	 *            maximum number of employees in a page
+	 * @param next
+	 *            token of the page returned with the previous page
+	 * @param sort
+	 *            sort key, prefixed with '-' for descending order
+	 * @param fields
+	 *            comma separated attributes of the employees to return, all
+	 *            by default
+	 */
+	@GET
+	@Path("/search")
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
+	@ApiOperation(value = "Search employees page by page", response = Employee.class, responseContainer = "List")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully retreive employees"),
+			@ApiResponse(code = 400, message = "Invalid criteria or paging parameters"),
 			@ApiResponse(code = 500, message = "Unexpected error") })
-	public Response getAllEmployees() {
+	public void searchEmployees(@Suspended AsyncResponse async, @QueryParam("lastName") String lastName,
+			@QueryParam("firstName") String firstName, @QueryParam("status") Status status,
+			@QueryParam("employedFrom") String employedFrom, @QueryParam("employedTo") String employedTo,
+			@QueryParam("bornFrom") String bornFrom, @QueryParam("bornTo") String bornTo,
+			@QueryParam("limit") Integer limit, @QueryParam("next") String next, @QueryParam("sort") String sort,
+			@QueryParam("fields") String fields) {
+		executor.submit(async, readTimeout, () -> searchEmployees(lastName, firstName, status, employedFrom,
+				employedTo, bornFrom, bornTo, limit, next, sort, fields));
+	}
+
+	private Response searchEmployees(String lastName, String firstName, Status status, String employedFrom,
+			String employedTo, String bornFrom, String bornTo, Integer limit, String next, String sort, String fields) {
 
-		return Response.ok().entity(employeeService.getAllActiveEmployees()).build();
+		int size = limit == null ? DEFAULT_PAGE_SIZE : limit;
+		if (size < 1 || size > MAX_PAGE_SIZE) {
+			return Response.status(Response.Status.BAD_REQUEST)
+					.entity("limit must be between 1 and " + MAX_PAGE_SIZE).build();
+		}
+		EmployeeFilter filter = new EmployeeFilter();
+		filter.setLastName(lastName);
+		filter.setFirstNamePrefix(firstName);
+		try {
+			EmployeeCsvParser dates = new EmployeeCsvParser();
+			filter.setEmployedFrom(employedFrom == null ? null : dates.parseDate(employedFrom));
+			filter.setEmployedTo(employedTo == null ? null : dates.parseDate(employedTo));
+			filter.setBornFrom(bornFrom == null ? null : dates.parseDate(bornFrom));
+			filter.setBornTo(bornTo == null ? null : dates.parseDate(bornTo));
+		} catch (ParseException e) {
+			return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+		}
+		try {
+			EmployeeFields selected = EmployeeFields.parse(fields);
+			if (selected != null) {
+				return Response.ok().entity(employeeService.searchEmployees(status, filter, EmployeeSort.parse(sort),
+						next == null || next.isEmpty() ? null : next, size, selected)).build();
+			}
+			return Response.ok().entity(employeeService.searchEmployees(status, filter, EmployeeSort.parse(sort),
+					next == null || next.isEmpty() ? null : next, size)).build();
+		} catch (IllegalArgumentException e) {
+			return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+		}
 	}
 
 	/**
-	 * Get an active employee by its id
+	 * Suggest active employees for a name typeahead
 	 * 
-	 * @return employee as response and HTTP/OK 200, HTTP/NOT_FOUNF 404 on
-	 *         employee not found
+	 * Every word of the query must be the beginning of the first name, a
+	 * middle initial or the last name, ignoring case and accents. Served from
+	 * an in-memory index without database access.
+	 * 
+	 * @param query
+	 *            beginnings of the name words
+	 * @param limit
+	 *            maximum number of suggestions, 10 by default
+	 * @return matching employee names as response and HTTP/OK 200,
+	 *         HTTP/BAD_REQUEST 400 on invalid limit,
+	 *         HTTP/SERVICE_UNAVAILABLE 503 while the index is built
 	 */
 	@GET
-	@Path("/{id}")
+	@Path("/suggest")
 	@Produces(MediaType.APPLICATION_JSON)
+	@ApiOperation(value = "Suggest active employees for a name typeahead", response = EmployeeName.class, responseContainer = "List")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully suggest employees"),
+			@ApiResponse(code = 400, message = "Invalid limit"),
+			@ApiResponse(code = 503, message = "Name index not built yet") })
+	public Response suggestEmployees(@QueryParam("q") String query,
+			@QueryParam("limit") @DefaultValue("10") int limit) {
+
+		if (limit < 1 || limit > MAX_SUGGESTIONS) {
+			return Response.status(Response.Status.BAD_REQUEST)
+					.entity("limit must be between 1 and " + MAX_SUGGESTIONS).build();
+		}
+		if (!nameIndex.isReady()) {
+			return Response.status(Response.Status.SERVICE_UNAVAILABLE).entity("Name index not built yet").build();
+		}
+		return Response.ok().entity(nameIndex.suggest(query, limit)).build();
+	}
+
+	/**
+	 * Get headcount by status, hires per year and tenure of the employees
+	 * 
+	 * The aggregates are read from in-memory counters kept up to date on
+	 * every write, without a database query.
+	 * 
+	 * @return aggregates as response and HTTP/OK 200,
+	 *         HTTP/SERVICE_UNAVAILABLE 503 while the counters are built
+	 */
+	@GET
+	@Path("/stats")
+	@Produces(MediaType.APPLICATION_JSON)
+	@ApiOperation(value = "Get headcount and tenure aggregates of the employees", response = EmployeeStats.class)
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully retreive the aggregates"),
+			@ApiResponse(code = 503, message = "Statistics not built yet") })
+	public Response getStats() {
+
+		if (!statistics.isReady()) {
+			return Response.status(Response.Status.SERVICE_UNAVAILABLE).entity("Statistics not built yet").build();
+		}
+		return Response.ok().entity(statistics.getStats()).build();
+	}
+
+	/**
+	 * Export employees as CSV or newline-delimited JSON
+	 * 
+	 * Rows are streamed from a database cursor straight to the response, so
+	 * memory use does not depend on the number of employees.
+	 * 
+	 * @param format
+	 *            csv (default) or ndjson
+	 * @param status
+	 *            optional status filter, all employees by default
+	 * @return streamed employees as response and HTTP/OK 200,
+	 *         HTTP/BAD_REQUEST 400 on unknown format
+	 */
+	@GET
+	@Path("/export")
+	@Produces({ TEXT_CSV, APPLICATION_NDJSON })
+	@ApiOperation(value = "Export employees as CSV or newline-delimited JSON", response = Employee.class, responseContainer = "List")
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully export employees"),
+			@ApiResponse(code = 400, message = "Unknown export format"),
+			@ApiResponse(code = 500, message = "Unexpected error") })
+	public Response exportEmployees(@QueryParam("format") @DefaultValue("csv") String format,
+			@QueryParam("status") Status status) {
+
+		StreamingOutput output;
+		String mediaType;
+		if ("csv".equalsIgnoreCase(format)) {
+			mediaType = TEXT_CSV;
+			output = out -> {
+				Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+				EmployeeCsvWriter csv = new EmployeeCsvWriter(writer);
+				csv.writeHeader();
+				writer.flush();
+				exportRows(status, writer, csv::write);
+			};
+		} else if ("ndjson".equalsIgnoreCase(format)) {
+			mediaType = APPLICATION_NDJSON;
+			ObjectWriter jsonWriter = objectMapper.writerFor(Employee.class)
+					.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+			output = out -> {
+				JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+						.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+				exportRows(status, generator, employee -> {
+					jsonWriter.writeValue(generator, employee);
+					generator.writeRaw('\n');
+				});
+			};
+		} else {
+			return Response.status(Response.Status.BAD_REQUEST).entity("Unknown export format " + format).build();
+		}
+
+		return Response.ok(output, mediaType).build();
+	}
+
+	/**
+	 * Write all employees of the given status through the row writer,
+	 * flushing after the first row so the client receives data right away
+	 */
+	private void exportRows(Status status, Flushable target, RowWriter rowWriter) throws IOException {
+		long[] count = { 0 };
+		try {
+			employeeService.forEachEmployee(status, employee -> {
+				try {
+					rowWriter.write(employee);
+					if (++count[0] == 1) {
+						target.flush();
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		target.flush();
+	}
+
+	/**
+	 * Get an active employee by its id, written from its cached JSON
+	 * 
+	 * The response is tagged with the id and version of the employee. A
+	 * conditional request whose JSON is not cached, and every binary one, is
+	 * first evaluated against the version of the employee alone, so an
+	 * unchanged employee is answered without loading and encoding it.
+	 * 
+	 * @param async
+	 *            suspended response, resumed with employee as response and
+	 *            HTTP/OK 200, HTTP/NOT_MODIFIED 304 if the employee matches
+	 *            If-None-Match, HTTP/NOT_FOUNF 404 on employee not found
+	 * @param ifNoneMatch
+	 *            tags of the representations the client has
+	 */
+	@GET
+	@Path("/{id}")
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	@ApiOperation(value = "Get an active employee by its id", response = Employee.class)
 	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully retreive the employee"),
+			@ApiResponse(code = 304, message = "Employee not modified"),
 			@ApiResponse(code = 404, message = "Resource not found for this id"),
 			@ApiResponse(code = 500, message = "Unexpected error") })
-	public Response getEmployee(@PathParam("id") long id) {
+	public void getEmployee(@Suspended AsyncResponse async, @Context Request request, @PathParam("id") long id,
+			@HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+		executor.submit(async, readTimeout, () -> getEmployee(request, id, ifNoneMatch != null));
+	}
 
-		Optional<Employee> emp = employeeService.getActiveEmployee(id);
-		if (emp.isPresent()) {
-			return Response.ok().entity(emp).build();
+	private Response getEmployee(Request request, long id, boolean conditional) {
+
+		MediaType binary = binaryType(request);
+		if (conditional && (binary != null || !jsonCache.containsEmployee(id))) {
+			Optional<Long> version = employeeService.getActiveVersion(id);
+			if (!version.isPresent()) {
+				return Response.status(Response.Status.NOT_FOUND).entity("Resource not found for id = " + id).build();
+			}
+			ResponseBuilder notModified = request.evaluatePreconditions(
+					binary != null ? entityTag(id, version.get(), binary) : entityTag(id, version.get()));
+			if (notModified != null) {
+				return notModified.build();
+			}
+		}
+		if (binary != null) {
+			// binary representations are encoded from the cached employee
+			Optional<Employee> employee = employeeService.getActiveEmployee(id);
+			if (!employee.isPresent()) {
+				return Response.status(Response.Status.NOT_FOUND).entity("Resource not found for id = " + id).build();
+			}
+			EntityTag tag = entityTag(id, employee.get().getVersion(), binary);
+			ResponseBuilder notModified = request.evaluatePreconditions(tag);
+			if (notModified != null) {
+				return notModified.build();
+			}
+			return Response.ok().entity(employee.get()).type(binary).tag(tag).build();
+		}
+		EmployeeJson emp = jsonCache.getEmployee(id, key -> employeeService.getActiveEmployee(key).orElse(null));
+		if (emp != null) {
+			EntityTag tag = entityTag(id, emp.getVersion());
+			ResponseBuilder notModified = request.evaluatePreconditions(tag);
+			if (notModified != null) {
+				return notModified.build();
+			}
+			return Response.ok().entity(emp.getJson()).tag(tag).build();
 		} else {
 			return Response.status(Response.Status.NOT_FOUND).entity("Resource not found for id = " + id).build();
 		}
@@ -87,27 +635,58 @@ public class EmployeeResource {
 	/**
 	 * Create a new employee resource
 	 * 
+	 * With Prefer: respond-async the employee is created write-behind: it gets
+	 * its id right away and is inserted with the next batch of
+	 * {@link EmployeeWriteBehind}. The response then is HTTP/ACCEPTED 202 with
+	 * the Location of its {@link #getWriteStatus(AsyncResponse, long) write
+	 * status}, and the employee can be read once the status is SAVED.
+	 * 
+	 * @param async
+	 *            suspended response, resumed with employee as response with id
+	 *            assigned and HTTP/CREATED 201 on success, HTTP/ACCEPTED 202
+	 *            when created write-behind, HTTP/SERVICE_UNAVAILABLE 503 if
+	 *            the write-behind queue is full, HTTP/INTERNAL_SERVER_ERROR
+	 *            500 on exception
+	 * @param prefer
+	 *            respond-async to create the employee write-behind
 	 * @param employee
 	 *            employee to be created
-	 * @return employee as response with id assigned and HTTP/CREATED 201 on
-	 *         success, HTTP/INTERNAL_SERVER_ERROR 500 on exception
 	 */
 	@POST
 	@Path("/")
-	@Produces(MediaType.APPLICATION_JSON)
-	@Consumes(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
+	@Consumes({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	@ApiOperation(value = "Create a new employee resource", response = Employee.class)
 	@ApiResponses(value = { @ApiResponse(code = 201, message = "Successfully created the employee"),
+			@ApiResponse(code = 202, message = "Employee queued for creation, see the Location for its status"),
+			@ApiResponse(code = 503, message = "Too many employees queued for creation"),
 			@ApiResponse(code = 500, message = "Unexpected error") })
-	public Response newEmployee(Employee employee) {
+	public void newEmployee(@Suspended AsyncResponse async, @HeaderParam(PREFER) String prefer, Employee employee) {
+		executor.submit(async, () -> newEmployee(prefer, employee));
+	}
+
+	private Response newEmployee(String prefer, Employee employee) {
 		// FIXME if resource already exist ?
 		String error = null;
 		try {
+			// ids are taken from the sequence, not from the request
+			employee.setId(0);
+			if (prefer != null && prefer.contains(RESPOND_ASYNC) && writeBehind.isEnabled()) {
+				Optional<WriteStatus> status = writeBehind.submit(employee);
+				if (!status.isPresent()) {
+					return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+							.header(HttpHeaders.RETRY_AFTER, writeBehindRetryAfterSeconds)
+							.entity("Too many employees queued for creation").build();
+				}
+				return Response.accepted(employee).header(PREFERENCE_APPLIED, RESPOND_ASYNC)
+						.location(URI.create("employees/writes/" + employee.getId())).build();
+			}
 			if (employee.getStatus() == null) {
 				employee.setStatus(Status.ACTIVE);
 			}
 			employeeService.save(employee);
-			return Response.status(Response.Status.CREATED).entity(employee).build();
+			return Response.status(Response.Status.CREATED).entity(employee)
+					.tag(entityTag(employee.getId(), employee.getVersion())).build();
 		} catch (Exception e) {
 			e.printStackTrace();
 			error = e.getMessage();
@@ -119,30 +698,154 @@ public class EmployeeResource {
 
 	}
 
+	/**
+	 * Get the write status of an employee created write-behind
+	 * 
+	 * @param async
+	 *            suspended response, resumed with QUEUED, SAVED or FAILED
+	 *            status as response and HTTP/OK 200, HTTP/NOT_FOUNF 404 if no
+	 *            employee was created with the id
+	 * @param id
+	 *            employee id returned by the create
+	 */
+	@GET
+	@Path("/writes/{id}")
+	@Produces(MediaType.APPLICATION_JSON)
+	@ApiOperation(value = "Get the write status of an employee created write-behind", response = WriteStatus.class)
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully retreive the write status"),
+			@ApiResponse(code = 404, message = "Employee not found"),
+			@ApiResponse(code = 500, message = "Unexpected error") })
+	public void getWriteStatus(@Suspended AsyncResponse async, @PathParam("id") long id) {
+		executor.submit(async, readTimeout, () -> getWriteStatus(id));
+	}
+
+	private Response getWriteStatus(long id) {
+		Optional<WriteStatus> status = writeBehind.getStatus(id);
+		if (status.isPresent()) {
+			return Response.ok().entity(status.get()).build();
+		}
+		// the status expired or the employee was created synchronously
+		if (employeeService.getEmployee(id).isPresent()) {
+			return Response.ok().entity(new WriteStatus(id, WriteStatus.State.SAVED, null)).build();
+		}
+		return Response.status(Response.Status.NOT_FOUND).entity("Resource not found for id = " + id).build();
+	}
+
+	/**
+	 * Create many employees
+	 * 
+	 * Employees are inserted with JDBC batches. The response has a result per
+	 * employee in request order, with the assigned id or the reason it was
+	 * not created. Unless atomic, failures of some employees do not prevent
+	 * the creation of the others.
+	 * 
+	 * @param async
+	 *            suspended response, resumed with results as response and
+	 *            HTTP/CREATED 201 if all employees were created,
+	 *            HTTP/MULTI_STATUS 207 if some were not, HTTP/BAD_REQUEST 400 on
+	 *            an empty or too large batch or when an atomic batch is
+	 *            rejected, HTTP/INTERNAL_SERVER_ERROR 500 on exception
+	 * @param employees
+	 *            employees to be created
+	 * @param atomic
+	 *            true to create all employees or none
+	 */
+	@POST
+	@Path("/batch")
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
+	@Consumes({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
+	@ApiOperation(value = "Create many employees", response = BatchCreateReport.class)
+	@ApiResponses(value = { @ApiResponse(code = 201, message = "Successfully created all employees"),
+			@ApiResponse(code = 207, message = "Some employees were not created"),
+			@ApiResponse(code = 400, message = "Invalid batch, or atomic batch rejected"),
+			@ApiResponse(code = 500, message = "Unexpected error") })
+	public void newEmployees(@Suspended AsyncResponse async, List<Employee> employees,
+			@QueryParam("atomic") @DefaultValue("false") boolean atomic) {
+		executor.submit(async, () -> newEmployees(employees, atomic));
+	}
+
+	private Response newEmployees(List<Employee> employees, boolean atomic) {
+
+		if (employees == null || employees.isEmpty() || employees.size() > MAX_BATCH_SIZE) {
+			return Response.status(Response.Status.BAD_REQUEST)
+					.entity("between 1 and " + MAX_BATCH_SIZE + " employees must be given").build();
+		}
+		try {
+			BatchCreateReport report = employeeService.createAll(employees, atomic);
+			logger.info("Employees batch created: " + report.getCreated() + ", failed: " + report.getFailed());
+			if (report.getFailed() == 0) {
+				return Response.status(Response.Status.CREATED).entity(report).build();
+			}
+			return Response.status(atomic ? Response.Status.BAD_REQUEST.getStatusCode() : MULTI_STATUS)
+					.entity(report).build();
+		} catch (Exception e) {
+			logger.error(e.getMessage(), e);
+			return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
+		}
+	}
+
+	/**
+	 * Import employees from a CSV upload
+	 * 
+	 * The body has the same format as the initial loading file
+	 * (static/emps.csv) including the header line. Rows are parsed and
+	 * persisted in batches while the upload is read, rows matching an
+	 * existing employee are skipped.
+	 * 
+	 * @param csv
+	 *            CSV upload
+	 * @return import summary as response and HTTP/OK 200 on success,
+	 *         HTTP/INTERNAL_SERVER_ERROR 500 on read failure
+	 */
+	@POST
+	@Path("/import")
+	@Produces(MediaType.APPLICATION_JSON)
+	@Consumes(TEXT_CSV)
+	@ApiOperation(value = "Import employees from a CSV upload", response = LoadReport.class)
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully imported the upload"),
+			@ApiResponse(code = 500, message = "Unexpected error") })
+	public Response importEmployees(InputStream csv) {
+		try {
+			LoadReport report = bulkLoader.load(csv, true);
+			logger.info("Employees import finished, " + report);
+			return Response.ok().entity(report).build();
+		} catch (IOException e) {
+			logger.error(e.getMessage(), e);
+			return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
+		}
+	}
+
 	/**
 	 * Update employee resource
 	 * 
+	 * @param async
+	 *            suspended response, resumed with updated employee as response
+	 *            and HTTP/OK 201 on success, HTTP/INTERNAL_SERVER_ERROR 500 on
+	 *            exception and HTTP/NOT_FOUNF 404 on employee not found
 	 * @param employee
 	 *            employee to be updated
-	 * @return updated employee as response and HTTP/OK 201 on success,
-	 *         HTTP/INTERNAL_SERVER_ERROR 500 on exception and HTTP/NOT_FOUNF
-	 *         404 on employee not found
 	 */
 	@PUT
 	@Path("/")
-	@Produces(MediaType.APPLICATION_JSON)
-	@Consumes(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
+	@Consumes({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	@ApiOperation(value = "Update employee resource", response = Employee.class)
 	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully update the employee"),
 			@ApiResponse(code = 404, message = "Resource not found for this id"),
 			@ApiResponse(code = 500, message = "Unexpected error") })
-	public Response updateEmployee(Employee employee) {
+	public void updateEmployee(@Suspended AsyncResponse async, Employee employee) {
+		executor.submit(async, () -> updateEmployee(employee));
+	}
+
+	private Response updateEmployee(Employee employee) {
 		Optional<Employee> emp = employeeService.getEmployee(employee.getId());
 		String error = null;
 		if (emp.isPresent()) {
 			try {
+				employee.setVersion(emp.get().getVersion());
 				employeeService.save(employee);
-				return Response.ok().entity(employee).build();
+				return Response.ok().entity(employee).tag(entityTag(employee.getId(), employee.getVersion()))
+						.build();
 			} catch (Exception e) {
 				e.printStackTrace();
 				error = e.getMessage();
@@ -158,13 +861,89 @@ public class EmployeeResource {
 
 	}
 
+	/**
+	 * Update the given properties of an employee
+	 * 
+	 * Properties missing in the body are left unchanged. The update is a
+	 * single conditional UPDATE statement: when a version is given, by
+	 * If-Match with the ETag of the employee or as version property of the
+	 * body, the employee is only updated if it still has that version.
+	 * 
+	 * @param async
+	 *            suspended response, resumed with HTTP/NO_CONTENT 204 on success
+	 *            with the new ETag if a version was given, HTTP/BAD_REQUEST 400
+	 *            on empty patch, HTTP/NOT_FOUNF 404 on employee not found,
+	 *            HTTP/CONFLICT 409 if the employee has another version,
+	 *            HTTP/PRECONDITION_FAILED 412 if If-Match is not an ETag of the
+	 *            employee, HTTP/INTERNAL_SERVER_ERROR 500 on exception
+	 * @param id
+	 *            employee id
+	 * @param ifMatch
+	 *            ETag of the employee version the changes were made against
+	 * @param patch
+	 *            changed properties
+	 */
+	@PATCH
+	@Path("/{id}")
+	@Produces(MediaType.APPLICATION_JSON)
+	@Consumes(MediaType.APPLICATION_JSON)
+	@ApiOperation(value = "Update the given properties of an employee")
+	@ApiResponses(value = { @ApiResponse(code = 204, message = "Successfully update the employee"),
+			@ApiResponse(code = 400, message = "No properties to update"),
+			@ApiResponse(code = 404, message = "Resource not found for this id"),
+			@ApiResponse(code = 409, message = "Employee was modified concurrently"),
+			@ApiResponse(code = 412, message = "If-Match is not an ETag of this employee"),
+			@ApiResponse(code = 500, message = "Unexpected error") })
+	public void patchEmployee(@Suspended AsyncResponse async, @PathParam("id") long id,
+			@HeaderParam(HttpHeaders.IF_MATCH) String ifMatch, EmployeePatch patch) {
+		executor.submit(async, () -> patchEmployee(id, ifMatch, patch));
+	}
+
+	private Response patchEmployee(long id, String ifMatch, EmployeePatch patch) {
+
+		if (patch == null || patch.changes().isEmpty()) {
+			return Response.status(Response.Status.BAD_REQUEST).entity("No properties to update").build();
+		}
+		if (patch.changes().containsKey("status") && patch.changes().get("status") == null) {
+			return Response.status(Response.Status.BAD_REQUEST).entity("status must not be null").build();
+		}
+		Long expectedVersion = patch.getVersion();
+		if (ifMatch != null && !"*".equals(ifMatch.trim())) {
+			expectedVersion = version(id, ifMatch.trim());
+			if (expectedVersion == null) {
+				return Response.status(Response.Status.PRECONDITION_FAILED)
+						.entity("If-Match is not an ETag of employee id = " + id).build();
+			}
+		}
+
+		try {
+			switch (employeeService.patch(id, expectedVersion, patch)) {
+			case UPDATED:
+				return expectedVersion == null ? Response.noContent().build()
+						: Response.noContent().tag(entityTag(id, expectedVersion + 1)).build();
+			case CONFLICT:
+				return Response.status(Response.Status.CONFLICT)
+						.entity("Resource (id = " + id + ") was modified, version " + expectedVersion + " is stale")
+						.build();
+			default:
+				return Response.status(Response.Status.NOT_FOUND).entity("Resource not found for id = " + id)
+						.build();
+			}
+		} catch (Exception e) {
+			logger.error(e.getMessage(), e);
+			return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
+		}
+	}
+
 	/**
 	 * Remove employee resource, and delete it from database
 	 * 
+	 * @param async
+	 *            suspended response, resumed with updated employee as response
+	 *            and HTTP/OK 200 on success, HTTP/NOT_FOUNF 404 on employee not
+	 *            found
 	 * @param employee
 	 *            employee to be deleted
-	 * @return updated employee as response and HTTP/OK 200 on success,
-	 *         HTTP/NOT_FOUNF 404 on employee not found
 	 */
 	@DELETE
 	@Path("/{id}")
@@ -173,7 +952,11 @@ public class EmployeeResource {
 	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully delete the employee"),
 			@ApiResponse(code = 404, message = "Resource not found for this id"),
 			@ApiResponse(code = 500, message = "Unexpected error") })
-	public Response delete(@PathParam("id") long id) {
+	public void delete(@Suspended AsyncResponse async, @PathParam("id") long id) {
+		executor.submit(async, () -> delete(id));
+	}
+
+	private Response delete(long id) {
 
 		if (employeeService.delete(id)) {
 			return Response.ok().entity("Resource  (id = " + id + ") deleted successfully.").build();
@@ -181,14 +964,61 @@ public class EmployeeResource {
 		return Response.status(Response.Status.NOT_FOUND).entity("Resource not found for id = " + id).build();
 	}
 
+	/**
+	 * Remove many employees, and delete them from database
+	 * 
+	 * Employees are deleted in batches, each with a single DELETE statement
+	 * and without loading them.
+	 * 
+	 * @param async
+	 *            suspended response, resumed with number of requested, deleted
+	 *            and missing employees as response and HTTP/OK 200 on success,
+	 *            HTTP/BAD_REQUEST 400 without ids, HTTP/INTERNAL_SERVER_ERROR
+	 *            500 on exception
+	 * @param ids
+	 *            ids of the employees to be deleted
+	 */
+	@POST
+	@Path("/purge")
+	@Produces(MediaType.APPLICATION_JSON)
+	@Consumes(MediaType.APPLICATION_JSON)
+	@ApiOperation(value = "Remove many employees, and delete them from database", response = PurgeReport.class, authorizations = {
+			@Authorization(value = "basicAuth") })
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully delete the employees"),
+			@ApiResponse(code = 400, message = "No ids given"),
+			@ApiResponse(code = 500, message = "Unexpected error") })
+	public void purge(@Suspended AsyncResponse async, List<Long> ids) {
+		executor.submit(async, () -> purge(ids));
+	}
+
+	private Response purge(List<Long> ids) {
+
+		if (ids == null) {
+			return Response.status(Response.Status.BAD_REQUEST).entity("ids must be given").build();
+		}
+		try {
+			PurgeReport report = employeeService.purge(ids);
+			logger.info("Employees purged: " + report.getDeleted() + ", missing: " + report.getMissing());
+			return Response.ok().entity(report).build();
+		} catch (Exception e) {
+			logger.error(e.getMessage(), e);
+			return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
+		}
+	}
+
 	/**
 	 * Turn employee from ACTIVE to INACTIVE status
 	 * 
+	 * Only the status is changed, by a single UPDATE statement, other
+	 * attributes of the given employee are ignored.
+	 * 
+	 * @param async
+	 *            suspended response, resumed with the stored employee as
+	 *            response and HTTP/OK 200 on success,
+	 *            HTTP/INTERNAL_SERVER_ERROR 500 on exception and
+	 *            HTTP/NOT_FOUNF 404 on employee not found
 	 * @param employee
-	 *            employee to be in-activated
-	 * @return updated employee as response and HTTP/OK 201 on success,
-	 *         HTTP/INTERNAL_SERVER_ERROR 500 on exception and HTTP/NOT_FOUNF
-	 *         404 on employee not found
+	 *            employee to be in-activated, only its id is used
 	 */
 	@DELETE
 	@Path("/")
@@ -198,27 +1028,135 @@ public class EmployeeResource {
 	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully changed the status of the employee"),
 			@ApiResponse(code = 404, message = "Resource not found for this id"),
 			@ApiResponse(code = 500, message = "Unexpected error") })
-	public Response delete(Employee employee) {
+	public void delete(@Suspended AsyncResponse async, Employee employee) {
+		executor.submit(async, () -> delete(employee));
+	}
 
-		Optional<Employee> emp = employeeService.getEmployee(employee.getId());
-		String error = null;
-		if (emp.isPresent()) {
-			try {
-				employee.setStatus(Status.INACTIVE);
-				employeeService.save(employee);
-				return Response.ok().entity(employee).build();
-			} catch (Exception e) {
-				e.printStackTrace();
-				error = e.getMessage();
-				logger.error(error, e);
+	private Response delete(Employee employee) {
 
+		String error = null;
+		try {
+			StatusChangeReport report = employeeService.deactivate(Collections.singletonList(employee.getId()));
+			// read back after the invalidation, the body is not what is stored
+			Optional<Employee> stored = report.getMissing().isEmpty() ? employeeService.getEmployee(employee.getId())
+					: Optional.empty();
+			if (stored.isPresent()) {
+				return Response.ok().entity(stored.get())
+						.tag(entityTag(employee.getId(), stored.get().getVersion())).build();
 			}
-			return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(error).build();
-		} else {
 			return Response.status(Response.Status.NOT_FOUND).entity("Resource not found for id = " + employee.getId())
 					.build();
+		} catch (Exception e) {
+			e.printStackTrace();
+			error = e.getMessage();
+			logger.error(error, e);
+
+		}
+		return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(error).build();
+	}
+
+	/**
+	 * Turn many employees from ACTIVE to INACTIVE status, given by their ids
+	 * or by a filter
+	 * 
+	 * Employees are changed in batches, each with a single UPDATE statement.
+	 * 
+	 * @param async
+	 *            suspended response, resumed with deactivated, already inactive
+	 *            and missing ids as response and HTTP/OK 200 on success,
+	 *            HTTP/BAD_REQUEST 400 unless either ids or a non-empty filter is
+	 *            given, HTTP/INTERNAL_SERVER_ERROR 500 on exception
+	 * @param request
+	 *            ids or filter of the employees
+	 */
+	@POST
+	@Path("/deactivate")
+	@Produces(MediaType.APPLICATION_JSON)
+	@Consumes(MediaType.APPLICATION_JSON)
+	@ApiOperation(value = "Turn many employees from ACTIVE to INACTIVE status", response = StatusChangeReport.class, authorizations = {
+			@Authorization(value = "basicAuth") })
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "Successfully changed the status of the employees"),
+			@ApiResponse(code = 400, message = "Neither ids nor filter given"),
+			@ApiResponse(code = 500, message = "Unexpected error") })
+	public void deactivate(@Suspended AsyncResponse async, DeactivationRequest request) {
+		executor.submit(async, () -> deactivate(request));
+	}
+
+	private Response deactivate(DeactivationRequest request) {
+
+		if (request == null || (request.getIds() == null) == (request.getFilter() == null)) {
+			return Response.status(Response.Status.BAD_REQUEST).entity("Either ids or filter must be given").build();
+		}
+		if (request.getFilter() != null && request.getFilter().isEmpty()) {
+			return Response.status(Response.Status.BAD_REQUEST).entity("filter must have at least one criteria")
+					.build();
+		}
+		try {
+			StatusChangeReport report = request.getIds() != null ? employeeService.deactivate(request.getIds())
+					: employeeService.deactivate(request.getFilter());
+			logger.info("Employees deactivated: " + report.getAffected().size() + ", unchanged: "
+					+ report.getUnchanged().size() + ", missing: " + report.getMissing().size());
+			return Response.ok().entity(report).build();
+		} catch (Exception e) {
+			logger.error(e.getMessage(), e);
+			return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
+		}
+	}
 
+	/**
+	 * Strong entity tag of a version of an employee
+	 */
+	private static EntityTag entityTag(long id, Long version) {
+		return new EntityTag(id + "-" + version);
+	}
+
+	/**
+	 * ETag of a version of an employee in a binary representation
+	 */
+	private static EntityTag entityTag(long id, Long version, MediaType binary) {
+		return new EntityTag(id + "-" + version + "+" + binary.getSubtype());
+	}
+
+	/**
+	 * Negotiate the representation of employees
+	 * 
+	 * @return accepted binary media type, null for JSON
+	 */
+	private static MediaType binaryType(Request request) {
+		Variant variant = request.selectVariant(ENCODINGS);
+		if (variant == null || MediaType.APPLICATION_JSON_TYPE.isCompatible(variant.getMediaType())) {
+			return null;
 		}
+		return variant.getMediaType();
+	}
+
+	/**
+	 * Version of an employee from its ETag
+	 * 
+	 * @return version or null if the tag is not a strong ETag of the employee
+	 */
+	private static Long version(long id, String etag) {
+		try {
+			EntityTag tag = EntityTag.valueOf(etag);
+			String prefix = id + "-";
+			if (tag.isWeak() || !tag.getValue().startsWith(prefix)) {
+				return null;
+			}
+			// the same version in any representation
+			String version = tag.getValue().substring(prefix.length());
+			int encoding = version.indexOf('+');
+			return Long.valueOf(encoding < 0 ? version : version.substring(0, encoding));
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Writer of a single exported employee
+	 */
+	private interface RowWriter {
+
+		void write(Employee employee) throws IOException;
 	}
 
 }
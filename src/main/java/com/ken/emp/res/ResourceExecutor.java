@@ -0,0 +1,247 @@
+package com.ken.emp.res;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Executor of the blocking resource methods, isolated from the Tomcat request
+ * threads.
+ *
+ * Resource methods take a suspended {@link AsyncResponse} and hand their work
+ * to {@link #submit(AsyncResponse, long, Supplier)}, the request thread is
+ * released until the response is resumed. The executor is bounded
+ * by kenemp.async.threads and kenemp.async.queue-capacity, requests beyond
+ * are answered with HTTP/SERVICE_UNAVAILABLE 503 right away, as are calls
+ * running longer than their timeout. Calls which must not be abandoned once
+ * started, such as writes, are submitted without timeout.
+ *
+ * With kenemp.async.virtual-threads every call runs on its own virtual
+ * thread when the JDK has them (Java 21 and later), bounded to the same
+ * number of concurrent calls. With kenemp.async.enabled=false calls run on
+ * the request thread.
+ *
+ * The 503 of a saturated executor or a timed out call carries the
+ * {@link #OVERLOADED} header, so admission control tells it from the 503 of a
+ * resource which is merely not ready.
+ *
+ */
+@Component
+public class ResourceExecutor {
+
+	private static final Logger logger = LoggerFactory.getLogger(ResourceExecutor.class);
+
+	/**
+	 * header marking an overload 503, removed before the response is sent
+	 */
+	public static final String OVERLOADED = "X-KenEmp-Overloaded";
+
+	@Value("${kenemp.async.enabled:true}")
+	private boolean enabled;
+
+	@Value("${kenemp.async.threads:64}")
+	private int threads;
+
+	@Value("${kenemp.async.queue-capacity:1000}")
+	private int queueCapacity;
+
+	@Value("${kenemp.async.virtual-threads:false}")
+	private boolean virtualThreads;
+
+	// Retry-After of rejected and timed out calls
+	@Value("${kenemp.async.retry-after-seconds:1}")
+	private int retryAfterSeconds;
+
+	private ExecutorService executor;
+
+	// bound of the virtual thread executor, null for the thread pool
+	private Semaphore permits;
+
+	private ScheduledExecutorService timer;
+
+	/**
+	 * Create the executors
+	 */
+	@PostConstruct
+	public void start() {
+		if (!enabled) {
+			return;
+		}
+		if (virtualThreads) {
+			executor = newVirtualThreadExecutor();
+			if (executor != null) {
+				permits = new Semaphore(threads + queueCapacity);
+			}
+		}
+		if (executor == null) {
+			executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+					new ArrayBlockingQueue<>(queueCapacity), new NamedThreadFactory("resource-"));
+		}
+		timer = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("resource-timeout-"));
+	}
+
+	/**
+	 * Shut down the executors
+	 */
+	@PreDestroy
+	public void stop() {
+		if (executor != null) {
+			executor.shutdownNow();
+			timer.shutdownNow();
+		}
+	}
+
+	/**
+	 * Run a resource call on the executor
+	 *
+	 * @param timeoutMillis
+	 *            maximum duration of the call, 0 for no timeout
+	 * @param call
+	 *            blocking resource call
+	 * @return response of the call, HTTP/SERVICE_UNAVAILABLE 503 if the
+	 *         executor is saturated or the call timed out. Exceptions of the
+	 *         call complete the stage exceptionally.
+	 */
+	public CompletionStage<Response> submit(long timeoutMillis, Supplier<Response> call) {
+		CompletableFuture<Response> response = new CompletableFuture<>();
+		if (executor == null) {
+			complete(response, call);
+			return response;
+		}
+		if (permits != null && !permits.tryAcquire()) {
+			response.complete(unavailable("Too many concurrent requests"));
+			return response;
+		}
+		Future<?> task;
+		try {
+			task = executor.submit(() -> {
+				try {
+					complete(response, call);
+				} finally {
+					if (permits != null) {
+						permits.release();
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			if (permits != null) {
+				permits.release();
+			}
+			response.complete(unavailable("Too many concurrent requests"));
+			return response;
+		}
+		if (timeoutMillis > 0) {
+			Future<?> timeout = timer.schedule(() -> {
+				if (response.complete(unavailable("Request timed out after " + timeoutMillis + " ms"))) {
+					task.cancel(true);
+				}
+			}, timeoutMillis, TimeUnit.MILLISECONDS);
+			response.whenComplete((r, e) -> timeout.cancel(false));
+		}
+		return response;
+	}
+
+	/**
+	 * Run a resource call on the executor without timeout and resume the
+	 * suspended response with its result
+	 *
+	 * @param async
+	 *            suspended response of the resource method
+	 * @param call
+	 *            blocking resource call
+	 */
+	public void submit(AsyncResponse async, Supplier<Response> call) {
+		submit(async, 0, call);
+	}
+
+	/**
+	 * Run a resource call on the executor and resume the suspended response
+	 * with its result
+	 *
+	 * @param async
+	 *            suspended response of the resource method
+	 * @param timeoutMillis
+	 *            maximum duration of the call, 0 for no timeout
+	 * @param call
+	 *            blocking resource call
+	 */
+	public void submit(AsyncResponse async, long timeoutMillis, Supplier<Response> call) {
+		submit(timeoutMillis, call).whenComplete((response, e) -> {
+			if (e != null) {
+				async.resume(e);
+			} else {
+				async.resume(response);
+			}
+		});
+	}
+
+	private static void complete(CompletableFuture<Response> response, Supplier<Response> call) {
+		try {
+			response.complete(call.get());
+		} catch (RuntimeException | Error e) {
+			response.completeExceptionally(e);
+		}
+	}
+
+	private Response unavailable(String message) {
+		return Response.status(Response.Status.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, retryAfterSeconds)
+				.header(OVERLOADED, true).entity(message).build();
+	}
+
+	/**
+	 * @return Executors.newVirtualThreadPerTaskExecutor() of Java 21 and
+	 *         later, null on older JDKs
+	 */
+	private static ExecutorService newVirtualThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			logger.warn("Virtual threads are not available on Java " + System.getProperty("java.version")
+					+ ", using a thread pool");
+			return null;
+		}
+	}
+
+	/**
+	 * Daemon threads named with a prefix
+	 */
+	private static class NamedThreadFactory implements ThreadFactory {
+
+		private final String prefix;
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		NamedThreadFactory(String prefix) {
+			this.prefix = prefix;
+		}
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, prefix + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
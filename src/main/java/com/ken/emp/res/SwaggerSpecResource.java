@@ -0,0 +1,141 @@
+package com.ken.emp.res;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+import javax.inject.Singleton;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+
+import io.swagger.annotations.Api;
+
+/**
+ * Serves the swagger.json generated by the swagger-maven-plugin during the
+ * build, see pom.xml. The resource is a singleton reading the spec and its
+ * gzip sibling once, so no resource is scanned at runtime.
+ *
+ */
+@Path("swagger.json")
+@Api(hidden = true)
+@Singleton
+public class SwaggerSpecResource {
+
+	/**
+	 * classpath location of the generated spec
+	 */
+	public static final String SPEC = "/swagger/swagger.json";
+
+	private static final Logger logger = LoggerFactory.getLogger(SwaggerSpecResource.class);
+
+	private final byte[] json;
+
+	private final byte[] gzip;
+
+	private final EntityTag tag;
+
+	private final EntityTag gzipTag;
+
+	/**
+	 * constructor reading the generated spec from the classpath, see
+	 * {@link #isAvailable()}
+	 */
+	public SwaggerSpecResource() {
+		try {
+			json = read(SPEC);
+			gzip = read(SPEC + ".gz");
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to read " + SPEC, e);
+		}
+		if (json == null) {
+			throw new IllegalStateException(SPEC + " not found on the classpath");
+		}
+		String hash = DigestUtils.md5DigestAsHex(json);
+		this.tag = new EntityTag(hash);
+		this.gzipTag = new EntityTag(hash + "-gzip");
+	}
+
+	/**
+	 * @return true if the spec was generated, false for example when running
+	 *         from an IDE without the Maven build
+	 */
+	public static boolean isAvailable() {
+		if (SwaggerSpecResource.class.getResource(SPEC) == null) {
+			logger.warn("{} not found on the classpath", SPEC);
+			return false;
+		}
+		return true;
+	}
+
+	private static byte[] read(String path) throws IOException {
+		try (InputStream in = SwaggerSpecResource.class.getResourceAsStream(path)) {
+			return in == null ? null : StreamUtils.copyToByteArray(in);
+		}
+	}
+
+	/**
+	 * Get the API spec, precompressed if the client accepts gzip
+	 *
+	 * @param request
+	 *            request of the conditional GET
+	 * @param acceptEncoding
+	 *            Accept-Encoding header
+	 * @return HTTP/OK 200 with the spec, HTTP/NOT_MODIFIED 304 if the ETag
+	 *         matches
+	 */
+	@GET
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response getSpec(@Context Request request, @HeaderParam(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding) {
+		boolean compressed = gzip != null && acceptsGzip(acceptEncoding);
+		EntityTag etag = compressed ? gzipTag : tag;
+		ResponseBuilder notModified = request.evaluatePreconditions(etag);
+		ResponseBuilder response = notModified != null ? notModified
+				: Response.ok().entity(compressed ? gzip : json);
+		if (compressed) {
+			response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+		}
+		return response.tag(etag).header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).build();
+	}
+
+	/**
+	 * @return true if gzip is listed and not refused with q=0
+	 */
+	static boolean acceptsGzip(String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return false;
+		}
+		for (String coding : acceptEncoding.split(",")) {
+			String[] parts = coding.trim().split(";");
+			if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+				continue;
+			}
+			for (int i = 1; i < parts.length; i++) {
+				String param = parts[i].trim();
+				if (param.startsWith("q=")) {
+					try {
+						return Double.parseDouble(param.substring(2)) > 0;
+					} catch (NumberFormatException e) {
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,456 @@
+package com.ken.emp.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.ken.emp.model.Employee;
+import com.ken.emp.model.EmployeeName;
+import com.ken.emp.model.Status;
+import com.ken.emp.service.EmployeeChangeEvent;
+import com.ken.emp.service.EmployeeService;
+
+/**
+ * In-memory token prefix index over the names of active employees, for name
+ * typeahead.
+ *
+ * First name, middle initial and last name are split into lower case tokens
+ * without accents. Each token maps to the sorted ids of the employees having
+ * it (a posting list of primitive longs), and tokens are kept in a sorted map
+ * so that all tokens starting with a prefix are one range of the map. A query
+ * walks the postings of its most selective prefix in token order and keeps the
+ * employees whose names also match the other prefixes, until enough are found
+ * or a bounded number of postings was read.
+ *
+ * The index is built by {@link #rebuild()} after the initial loading and kept
+ * up to date by {@link EmployeeChangeEvent}s. Readers do not lock, writers
+ * replace posting lists (copy on write) one at a time.
+ *
+ */
+@Component
+public class EmployeeNameIndex {
+
+	private static final Logger logger = LoggerFactory.getLogger(EmployeeNameIndex.class);
+
+	private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+	private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+	private static final long[] NO_IDS = new long[0];
+
+	@Autowired(required = false)
+	private EmployeeService employeeService;
+
+	// maximum number of postings read by one query
+	@Value("${kenemp.suggest.max-scan:20000}")
+	private int maxScan = 20000;
+
+	private volatile State state = new State();
+
+	private volatile boolean ready;
+
+	// ids changed while a rebuild is scanning the table, guarded by this
+	private Set<Long> changedWhileBuilding;
+
+	/**
+	 * @return true once the index was built
+	 */
+	public boolean isReady() {
+		return ready;
+	}
+
+	/**
+	 * @return number of indexed employees
+	 */
+	public int size() {
+		return state.entries.size();
+	}
+
+	/**
+	 * Build the index from the active employees of the database
+	 */
+	public void rebuild() {
+		rebuild(sink -> employeeService.forEachEmployee(Status.ACTIVE, sink));
+	}
+
+	/**
+	 * Build the index from the given active employees, replacing the current
+	 * index when done. Changes published meanwhile are applied afterwards.
+	 *
+	 * @param employees
+	 *            called once with a sink accepting every active employee
+	 */
+	void rebuild(Consumer<Consumer<Employee>> employees) {
+		long started = System.currentTimeMillis();
+		synchronized (this) {
+			changedWhileBuilding = new HashSet<>();
+		}
+		Map<String, LongList> postings = new HashMap<>();
+		State built = new State();
+		employees.accept(employee -> {
+			Entry entry = new Entry(employee);
+			built.entries.put(employee.getId(), entry);
+			for (String token : entry.tokens()) {
+				postings.computeIfAbsent(token, key -> new LongList()).add(employee.getId());
+			}
+		});
+		for (Map.Entry<String, LongList> posting : postings.entrySet()) {
+			built.postings.put(posting.getKey(), posting.getValue().toSortedArray());
+		}
+
+		Set<Long> changed;
+		synchronized (this) {
+			state = built;
+			ready = true;
+			changed = changedWhileBuilding;
+			changedWhileBuilding = null;
+			for (Long id : changed) {
+				reload(id);
+			}
+		}
+		logger.info("Employee name index built with " + built.entries.size() + " employees and "
+				+ built.postings.size() + " tokens in " + (System.currentTimeMillis() - started) + " ms, "
+				+ changed.size() + " changes applied afterwards");
+	}
+
+	/**
+	 * Find active employees by name prefixes
+	 *
+	 * @param query
+	 *            prefixes of name tokens, separated by spaces or punctuation;
+	 *            every prefix must match a token of the employee name
+	 * @param limit
+	 *            maximum number of employees
+	 * @return matching employees, ordered by the matching token of the most
+	 *         selective prefix and id
+	 */
+	public List<EmployeeName> suggest(String query, int limit) {
+		List<String> prefixes = tokenize(query);
+		if (prefixes.isEmpty() || limit < 1) {
+			return Collections.emptyList();
+		}
+		State current = state;
+		// walk the prefix with the fewest postings, counted up to the fewest
+		// so far and at most up to the scan limit
+		NavigableMap<String, long[]> range = null;
+		String driver = null;
+		long fewest = maxScan + 1L;
+		for (String prefix : prefixes) {
+			NavigableMap<String, long[]> candidate = current.postings.subMap(prefix, true,
+					prefix + Character.MAX_VALUE, false);
+			if (prefixes.size() == 1) {
+				range = candidate;
+				driver = prefix;
+				break;
+			}
+			long count = 0;
+			for (long[] ids : candidate.values()) {
+				count += ids.length;
+				if (count >= fewest) {
+					break;
+				}
+			}
+			if (range == null) {
+				range = candidate;
+				driver = prefix;
+			}
+			if (count < fewest) {
+				fewest = count;
+				range = candidate;
+				driver = prefix;
+			}
+		}
+		List<String> others = new ArrayList<>(prefixes.size() - 1);
+		for (String prefix : prefixes) {
+			if (prefix != driver) {
+				others.add(" " + prefix);
+			}
+		}
+
+		List<EmployeeName> result = new ArrayList<>(Math.min(limit, 64));
+		Set<Long> seen = new HashSet<>();
+		int scanned = 0;
+		for (long[] ids : range.values()) {
+			for (long id : ids) {
+				if (++scanned > maxScan) {
+					return result;
+				}
+				if (!seen.add(id)) {
+					continue;
+				}
+				Entry entry = current.entries.get(id);
+				if (entry != null && entry.matches(others)) {
+					result.add(entry.name);
+					if (result.size() == limit) {
+						return result;
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Apply a change of employees
+	 *
+	 * @param event
+	 *            change of employees
+	 */
+	@EventListener
+	public synchronized void onChange(EmployeeChangeEvent event) {
+		if (changedWhileBuilding != null) {
+			for (long id : event.getIds()) {
+				changedWhileBuilding.add(id);
+			}
+		}
+		if (!ready) {
+			return;
+		}
+		switch (event.getKind()) {
+		case SAVED:
+			List<Entry> active = new ArrayList<>();
+			List<Long> inactive = new ArrayList<>();
+			for (Employee employee : event.getEmployees()) {
+				if (employee.getStatus() == Status.ACTIVE) {
+					active.add(new Entry(employee));
+				} else {
+					inactive.add(employee.getId());
+				}
+			}
+			apply(active, inactive);
+			break;
+		case STATUS_CHANGED:
+			if (event.getStatus() != Status.ACTIVE) {
+				apply(Collections.emptyList(), ids(event.getIds()));
+				break;
+			}
+			// activated employees are read again
+		case UPDATED:
+			for (long id : event.getIds()) {
+				reload(id);
+			}
+			break;
+		case DELETED:
+			apply(Collections.emptyList(), ids(event.getIds()));
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Read an employee again and index or remove it, called with the lock
+	 */
+	private void reload(long id) {
+		Employee employee = employeeService == null ? null : employeeService.getEmployee(id).orElse(null);
+		if (employee != null && employee.getStatus() == Status.ACTIVE) {
+			apply(Collections.singletonList(new Entry(employee)), Collections.emptyList());
+		} else {
+			apply(Collections.emptyList(), Collections.singletonList(id));
+		}
+	}
+
+	/**
+	 * Index or re-index the added entries and remove the removed ids, one
+	 * copy of each affected posting list. Called with the lock.
+	 */
+	private void apply(List<Entry> added, Collection<Long> removed) {
+		State current = state;
+		Map<String, LongList> additions = new HashMap<>();
+		Map<String, LongList> removals = new HashMap<>();
+		for (Long id : removed) {
+			Entry old = current.entries.remove(id);
+			if (old != null) {
+				for (String token : old.tokens()) {
+					removals.computeIfAbsent(token, key -> new LongList()).add(id);
+				}
+			}
+		}
+		for (Entry entry : added) {
+			long id = entry.name.getId();
+			Entry old = current.entries.put(id, entry);
+			if (old != null) {
+				for (String token : old.tokens()) {
+					removals.computeIfAbsent(token, key -> new LongList()).add(id);
+				}
+			}
+			for (String token : entry.tokens()) {
+				additions.computeIfAbsent(token, key -> new LongList()).add(id);
+			}
+		}
+
+		Set<String> tokens = new HashSet<>(removals.keySet());
+		tokens.addAll(additions.keySet());
+		for (String token : tokens) {
+			LongList add = additions.get(token);
+			LongList remove = removals.get(token);
+			long[] ids = merge(current.postings.getOrDefault(token, NO_IDS),
+					add == null ? NO_IDS : add.toSortedArray(), remove == null ? NO_IDS : remove.toSortedArray());
+			if (ids.length == 0) {
+				current.postings.remove(token);
+			} else {
+				current.postings.put(token, ids);
+			}
+		}
+	}
+
+	/**
+	 * Sorted union of current and added ids, without the removed ids that
+	 * are not added again
+	 */
+	static long[] merge(long[] current, long[] added, long[] removed) {
+		long[] merged = new long[current.length + added.length];
+		int size = 0;
+		int c = 0;
+		int a = 0;
+		int r = 0;
+		while (c < current.length || a < added.length) {
+			long id;
+			if (a == added.length || (c < current.length && current[c] < added[a])) {
+				id = current[c++];
+				while (r < removed.length && removed[r] < id) {
+					r++;
+				}
+				if (r < removed.length && removed[r] == id) {
+					continue;
+				}
+			} else {
+				id = added[a++];
+				if (c < current.length && current[c] == id) {
+					c++;
+				}
+			}
+			if (size == 0 || merged[size - 1] != id) {
+				merged[size++] = id;
+			}
+		}
+		return size == merged.length ? merged : Arrays.copyOf(merged, size);
+	}
+
+	private static List<Long> ids(long[] ids) {
+		List<Long> list = new ArrayList<>(ids.length);
+		for (long id : ids) {
+			list.add(id);
+		}
+		return list;
+	}
+
+	/**
+	 * Split a text into lower case tokens without accents
+	 */
+	static List<String> tokenize(String text) {
+		if (text == null) {
+			return Collections.emptyList();
+		}
+		String normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+				.toLowerCase(Locale.ROOT);
+		List<String> tokens = new ArrayList<>();
+		for (String token : SEPARATORS.split(normalized)) {
+			if (!token.isEmpty()) {
+				tokens.add(token);
+			}
+		}
+		return tokens;
+	}
+
+	/**
+	 * Postings and indexed entries
+	 */
+	private static final class State {
+
+		private final ConcurrentSkipListMap<String, long[]> postings = new ConcurrentSkipListMap<>();
+
+		private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Indexed employee with its tokens, as " token token ..." for prefix
+	 * checks
+	 */
+	private static final class Entry {
+
+		private final EmployeeName name;
+
+		private final String tokens;
+
+		Entry(Employee employee) {
+			this.name = new EmployeeName(employee.getId(), employee.getFirstName(), employee.getMiddleInitial(),
+					employee.getLastName());
+			StringBuilder joined = new StringBuilder();
+			for (String part : new String[] { employee.getFirstName(), employee.getMiddleInitial(),
+					employee.getLastName() }) {
+				for (String token : tokenize(part)) {
+					joined.append(' ').append(token);
+				}
+			}
+			this.tokens = joined.toString();
+		}
+
+		Set<String> tokens() {
+			Set<String> set = new LinkedHashSet<>();
+			for (String token : SEPARATORS.split(tokens)) {
+				if (!token.isEmpty()) {
+					set.add(token);
+				}
+			}
+			return set;
+		}
+
+		/**
+		 * @param prefixes
+		 *            prefixes, each preceded by a space
+		 */
+		boolean matches(List<String> prefixes) {
+			for (String prefix : prefixes) {
+				if (!tokens.contains(prefix)) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Growable list of primitive longs
+	 */
+	private static final class LongList {
+
+		private long[] values = new long[4];
+
+		private int size;
+
+		void add(long value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		long[] toSortedArray() {
+			long[] array = Arrays.copyOf(values, size);
+			Arrays.sort(array);
+			return array;
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package com.ken.emp.service;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Table level change counter of the EMPLOYEE table.
+ *
+ * Counts the {@link EmployeeChangeEvent}s of this process. The counter starts
+ * over on restart, so its tag is prefixed with an id of the process start up
+ * to never repeat a tag of an earlier run.
+ *
+ */
+@Component
+public class EmployeeChangeCounter {
+
+	private final String bootId = Long.toHexString(UUID.randomUUID().getMostSignificantBits());
+
+	private final AtomicLong changes = new AtomicLong();
+
+	/**
+	 * Count a change
+	 *
+	 * @param event
+	 *            change of employees
+	 */
+	@EventListener
+	public void onChange(EmployeeChangeEvent event) {
+		changes.incrementAndGet();
+	}
+
+	/**
+	 * @return number of changes since start up
+	 */
+	public long getChanges() {
+		return changes.get();
+	}
+
+	/**
+	 * @return tag identifying the current state of the table, changes on
+	 *         every write
+	 */
+	public String getTag() {
+		return bootId + "-" + changes.get();
+	}
+}
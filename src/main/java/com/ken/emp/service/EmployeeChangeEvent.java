@@ -0,0 +1,132 @@
+package com.ken.emp.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.ken.emp.model.Employee;
+import com.ken.emp.model.Status;
+
+/**
+ * Published by {@link EmployeeService} after employees were written.
+ *
+ * Listeners holding derived state (caches of employees or of their
+ * representations) use it to invalidate or update that state. The event is
+ * published synchronously on the writing thread once the write completed.
+ *
+ */
+public class EmployeeChangeEvent {
+
+	/**
+	 * Kind of change
+	 */
+	public enum Kind {
+		/**
+		 * employees were created or replaced, see {@link #getEmployees()}
+		 */
+		SAVED,
+		/**
+		 * attributes of employees were updated in the database without
+		 * loading them, see {@link #getIds()}
+		 */
+		UPDATED,
+		/**
+		 * status of employees was changed in the database without loading
+		 * them, see {@link #getIds()} and {@link #getStatus()}
+		 */
+		STATUS_CHANGED,
+		/**
+		 * employees were removed from the database, see {@link #getIds()}.
+		 * Bulk deletes may include ids that did not exist.
+		 */
+		DELETED
+	}
+
+	private static final long[] NO_IDS = new long[0];
+
+	private final Kind kind;
+
+	private final List<Employee> employees;
+
+	private final long[] ids;
+
+	private final Status status;
+
+	private EmployeeChangeEvent(Kind kind, List<Employee> employees, long[] ids, Status status) {
+		this.kind = kind;
+		this.employees = employees;
+		this.ids = ids;
+		this.status = status;
+	}
+
+	/**
+	 * @param employees
+	 *            saved employees, with their ids assigned
+	 * @return event of saved employees
+	 */
+	public static EmployeeChangeEvent saved(List<Employee> employees) {
+		long[] ids = new long[employees.size()];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = employees.get(i).getId();
+		}
+		return new EmployeeChangeEvent(Kind.SAVED, Collections.unmodifiableList(new ArrayList<>(employees)), ids,
+				null);
+	}
+
+	/**
+	 * @param ids
+	 *            ids of the updated employees
+	 * @return event of employees updated in place
+	 */
+	public static EmployeeChangeEvent updated(long... ids) {
+		return new EmployeeChangeEvent(Kind.UPDATED, Collections.emptyList(), ids == null ? NO_IDS : ids, null);
+	}
+
+	/**
+	 * @param status
+	 *            new status of the employees
+	 * @param ids
+	 *            ids of the changed employees
+	 * @return event of a status change
+	 */
+	public static EmployeeChangeEvent statusChanged(Status status, long... ids) {
+		return new EmployeeChangeEvent(Kind.STATUS_CHANGED, Collections.emptyList(), ids == null ? NO_IDS : ids,
+				status);
+	}
+
+	/**
+	 * @param ids
+	 *            ids of the deleted employees
+	 * @return event of deleted employees
+	 */
+	public static EmployeeChangeEvent deleted(long... ids) {
+		return new EmployeeChangeEvent(Kind.DELETED, Collections.emptyList(), ids == null ? NO_IDS : ids, null);
+	}
+
+	public Kind getKind() {
+		return kind;
+	}
+
+	/**
+	 * @return saved employees, empty unless the kind is SAVED. They may be
+	 *         shared with caches and must not be modified.
+	 */
+	public List<Employee> getEmployees() {
+		return employees;
+	}
+
+	/**
+	 * @return ids of all changed employees
+	 */
+	public long[] getIds() {
+		return ids;
+	}
+
+	/**
+	 * @return new status of the employees if the kind is STATUS_CHANGED,
+	 *         otherwise null
+	 */
+	public Status getStatus() {
+		return status;
+	}
+}
@@ -1,11 +1,24 @@
 package com.ken.emp.service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.springframework.stereotype.Component;
 
+import com.ken.emp.model.BatchCreateReport;
 import com.ken.emp.model.Employee;
+import com.ken.emp.model.EmployeeFilter;
+import com.ken.emp.model.EmployeeLookup;
+import com.ken.emp.model.EmployeePatch;
+import com.ken.emp.model.KeysetPage;
+import com.ken.emp.model.PurgeReport;
+import com.ken.emp.model.Status;
+import com.ken.emp.model.StatusChangeReport;
+import com.ken.emp.repository.EmployeeFields;
+import com.ken.emp.repository.EmployeeSort;
 
 /**
  * Employee service interface for all functionality
@@ -25,13 +38,84 @@ public interface EmployeeService {
 	public void saveAll(List<Employee> empls);
 
 	/**
-	 * Save an employee
+	 * Insert employees keeping their ids, into a table without them, with
+	 * JDBC batch inserts that bypass the persistence context. The employee
+	 * sequence has to be restarted past the ids afterwards.
+	 * 
+	 * @param empls
+	 *            list of employees with ids to be inserted
+	 */
+	public void restoreAll(List<Employee> empls);
+
+	/**
+	 * Create new employees with batched inserts
+	 * 
+	 * Employees without a date of birth or of employment, or with an id, are
+	 * rejected, a missing status is ACTIVE. When atomic, all employees are
+	 * created in one transaction or none is. Otherwise the employees are
+	 * inserted in transactions of a batch each, and the employees of a failed
+	 * batch are retried one by one, so only the failing ones are not created.
+	 * 
+	 * @param employees
+	 *            employees to be created, their ids and versions are set to
+	 *            the created ones
+	 * @param atomic
+	 *            true to create all employees or none
+	 * @return result per employee
+	 */
+	public BatchCreateReport createAll(List<Employee> employees, boolean atomic);
+
+	/**
+	 * Save an employee, a new employee when its version is null
 	 * 
 	 * @param employee
-	 *            employee to be saved
+	 *            employee to be saved, its id and version are set to the
+	 *            saved ones
 	 */
 	public void save(Employee employee);
 
+	/**
+	 * Outcome of {@link EmployeeService#patch(long, Long, EmployeePatch)}
+	 */
+	public enum PatchResult {
+		UPDATED, NOT_FOUND, CONFLICT
+	}
+
+	/**
+	 * Update the changed properties of an employee with a single UPDATE
+	 * statement, without reading it first
+	 * 
+	 * @param id
+	 *            employee id
+	 * @param expectedVersion
+	 *            version the employee must still have, null to update
+	 *            whatever version is stored
+	 * @param patch
+	 *            changed properties
+	 * @return UPDATED, NOT_FOUND if there is no employee with the id or
+	 *         CONFLICT if it has another version than the expected one
+	 */
+	public PatchResult patch(long id, Long expectedVersion, EmployeePatch patch);
+
+	/**
+	 * Turn employees from ACTIVE to INACTIVE status, with one UPDATE
+	 * statement per batch of ids
+	 * 
+	 * @param ids
+	 *            ids of the employees
+	 * @return deactivated, already inactive and missing ids
+	 */
+	public StatusChangeReport deactivate(Collection<Long> ids);
+
+	/**
+	 * Turn all active employees matching a filter to INACTIVE status
+	 * 
+	 * @param filter
+	 *            criteria of the employees
+	 * @return deactivated ids
+	 */
+	public StatusChangeReport deactivate(EmployeeFilter filter);
+
 	/**
 	 * Get all active employees
 	 * 
@@ -39,6 +123,77 @@ public interface EmployeeService {
 	 */
 	public List<Employee> getAllActiveEmployees();
 
+	/**
+	 * Get one page of active employees
+	 * 
+	 * @param sort
+	 *            sort order
+	 * @param next
+	 *            token of the page as returned with the previous page, null
+	 *            for the first page
+	 * @param limit
+	 *            maximum number of employees in the page
+	 * @return page of active employees with the token of the next page
+	 * @throws IllegalArgumentException
+	 *             if the token is invalid or was issued for another sort
+	 */
+	public KeysetPage<Employee> getActiveEmployees(EmployeeSort sort, String next, int limit);
+
+	/**
+	 * Get one page of the employees matching a filter
+	 * 
+	 * @param status
+	 *            status of the employees, null for any status
+	 * @param filter
+	 *            criteria of the employees
+	 * @param sort
+	 *            sort order
+	 * @param next
+	 *            token of the page as returned with the previous page of the
+	 *            same filter, null for the first page
+	 * @param limit
+	 *            maximum number of employees in the page
+	 * @return page of employees with the token of the next page
+	 * @throws IllegalArgumentException
+	 *             if the token is invalid or was issued for another sort
+	 */
+	public KeysetPage<Employee> searchEmployees(Status status, EmployeeFilter filter, EmployeeSort sort, String next,
+			int limit);
+
+	/**
+	 * Get all active employees with only some attributes selected
+	 * 
+	 * @param fields
+	 *            attributes to select
+	 * @return requested attributes of the active employees, ordered by id
+	 */
+	public List<Map<String, Object>> getAllActiveEmployees(EmployeeFields fields);
+
+	/**
+	 * Get one page of the employees matching a filter, with only some
+	 * attributes selected
+	 * 
+	 * @param status
+	 *            status of the employees, null for any status
+	 * @param filter
+	 *            criteria of the employees, null for all employees
+	 * @param sort
+	 *            sort order
+	 * @param next
+	 *            token of the page as returned with the previous page of the
+	 *            same filter, null for the first page
+	 * @param limit
+	 *            maximum number of employees in the page
+	 * @param fields
+	 *            attributes to select
+	 * @return page of the requested attributes of the employees with the
+	 *         token of the next page
+	 * @throws IllegalArgumentException
+	 *             if the token is invalid or was issued for another sort
+	 */
+	public KeysetPage<Map<String, Object>> searchEmployees(Status status, EmployeeFilter filter, EmployeeSort sort,
+			String next, int limit, EmployeeFields fields);
+
 	/**
 	 * Get employee by id
 	 * 
@@ -50,13 +205,34 @@ public interface EmployeeService {
 	public Optional<Employee> getEmployee(long id);
 
 	/**
-	 * Delete employee from database
+	 * Delete employee from database, with a single statement
 	 * 
 	 * @param id id of employee to be deleted
 	 * @return true if employee was removed successfully, otherwise false
 	 */
 	public boolean delete(long id);
 
+	/**
+	 * Delete employees from database, with one statement per batch of ids
+	 * and without loading them, missing ids are reported by count only
+	 * 
+	 * @param ids
+	 *            ids of the employees to be deleted
+	 * @return number of requested, deleted and missing employees
+	 */
+	public PurgeReport purge(Collection<Long> ids);
+
+	/**
+	 * Get active employees by ids, from the employee cache first and the
+	 * misses with a single query
+	 * 
+	 * @param ids
+	 *            ids of the employees, null and repeated ids are ignored
+	 * @return active employees in the order of the ids, and the ids without
+	 *         active employee
+	 */
+	public EmployeeLookup getActiveEmployees(Collection<Long> ids);
+
 	/**
 	 * Get active employee
 	 * 
@@ -65,4 +241,49 @@ public interface EmployeeService {
 	 */
 	public Optional<Employee> getActiveEmployee(long id);
 
+	/**
+	 * Get the version of an active employee, without loading the employee
+	 * unless it is cached
+	 * 
+	 * @param id id of the employee
+	 * @return optional version, empty if there is no active employee
+	 */
+	public Optional<Long> getActiveVersion(long id);
+
+	/**
+	 * Count all employees regardless of their status
+	 * 
+	 * @return number of employees in database
+	 */
+	public long countEmployees();
+
+	/**
+	 * Count the employees by status and month of employment with a single
+	 * GROUP BY query
+	 * 
+	 * @return status, year and month of employment (null without date) and
+	 *         number of employees of each group
+	 */
+	public List<Object[]> countByStatusAndEmploymentMonth();
+
+	/**
+	 * Stream employees ordered by id without loading them all into memory
+	 * 
+	 * @param status
+	 *            status of the employees, null for all employees
+	 * @param action
+	 *            called for each employee
+	 */
+	public void forEachEmployee(Status status, Consumer<Employee> action);
+
+	/**
+	 * Filter out employees that already exist, or appear earlier in the list,
+	 * with the same first name, middle initial, last name and date of birth
+	 * 
+	 * @param employees
+	 *            candidate employees
+	 * @return candidates that are not duplicates, in the original order
+	 */
+	public List<Employee> filterNew(List<Employee> employees);
+
 }
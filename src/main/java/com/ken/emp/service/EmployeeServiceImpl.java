@@ -1,17 +1,54 @@
 package com.ken.emp.service;
 
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.annotation.PostConstruct;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.ken.emp.cache.LongKeyCache;
+import com.ken.emp.model.BatchCreateReport;
+import com.ken.emp.model.BatchItemResult;
 import com.ken.emp.model.Employee;
+import com.ken.emp.model.EmployeeFilter;
+import com.ken.emp.model.EmployeeLookup;
+import com.ken.emp.model.EmployeePatch;
+import com.ken.emp.model.KeysetPage;
+import com.ken.emp.model.PurgeReport;
 import com.ken.emp.model.Status;
+import com.ken.emp.model.StatusChangeReport;
 import com.ken.emp.repository.EmployeeRepository;
+import com.ken.emp.repository.EmployeeFields;
+import com.ken.emp.repository.EmployeeSort;
+import com.ken.emp.repository.KeysetCursor;
+
+import io.micrometer.core.instrument.MeterRegistry;
 /**
  * Implementation of {@link EmployeeService} interface
  * 
+ * Single employee lookups are served from a bounded in-process cache keyed by
+ * id, which is kept up to date by all writes of this service. Every
+ * successful write publishes an {@link EmployeeChangeEvent}.
+ * 
  * @author cmenerip
  *
  */
@@ -21,10 +58,184 @@ public class EmployeeServiceImpl implements EmployeeService {
 	@Autowired
 	private EmployeeRepository employeeRepository;
 
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	// maximum number of cached employees
+	@Value("${kenemp.cache.employee.max-size:100000}")
+	private int cacheMaxSize;
+
+	// time to live of cached employees
+	@Value("${kenemp.cache.employee.ttl-seconds:600}")
+	private long cacheTtlSeconds;
+
+	// ids per status UPDATE statement
+	@Value("${kenemp.status.batch-size:1000}")
+	private int statusBatchSize;
+
+	// employees per insert transaction of a batch create
+	@Value("${kenemp.batch.insert-size:500}")
+	private int insertBatchSize;
+
+	// ids per DELETE statement
+	@Value("${kenemp.purge.batch-size:1000}")
+	private int purgeBatchSize;
+
+	// employees by id, regardless of status. Cached instances are shared
+	// between callers and must not be modified.
+	private LongKeyCache<Employee> cache;
+
+	/**
+	 * Create the employee cache and register its meters
+	 */
+	@PostConstruct
+	private void init() {
+		cache = new LongKeyCache<>(cacheMaxSize, cacheTtlSeconds, TimeUnit.SECONDS);
+		if (meterRegistry != null) {
+			cache.bindTo(meterRegistry, "employee");
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
 	@Override
 	public void saveAll(List<Employee> empls) {
 
-		employeeRepository.saveAll(empls);
+		try {
+			employeeRepository.saveAll(empls);
+			eventPublisher.publishEvent(EmployeeChangeEvent.saved(empls));
+		} finally {
+			// bulk writes are not cached, to keep hot entries
+			for (Employee employee : empls) {
+				cache.invalidate(employee.getId());
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void restoreAll(List<Employee> empls) {
+
+		try {
+			employeeRepository.insertAll(empls);
+			eventPublisher.publishEvent(EmployeeChangeEvent.saved(empls));
+		} finally {
+			for (Employee employee : empls) {
+				cache.invalidate(employee.getId());
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public BatchCreateReport createAll(List<Employee> employees, boolean atomic) {
+		BatchCreateReport report = new BatchCreateReport();
+		report.setAtomic(atomic);
+		List<Employee> valid = new ArrayList<>(employees.size());
+		List<BatchItemResult> validResults = new ArrayList<>(employees.size());
+		for (int i = 0; i < employees.size(); i++) {
+			Employee employee = employees.get(i);
+			BatchItemResult result = new BatchItemResult(i);
+			report.getItems().add(result);
+			result.setError(validateNew(employee));
+			if (result.getError() == null) {
+				if (employee.getStatus() == null) {
+					employee.setStatus(Status.ACTIVE);
+				}
+				valid.add(employee);
+				validResults.add(result);
+			}
+		}
+
+		if (atomic) {
+			if (valid.size() < employees.size()) {
+				for (BatchItemResult result : validResults) {
+					result.setError("not created, other employees of the batch were rejected");
+				}
+				return report;
+			}
+			try {
+				saveAll(valid);
+				created(valid, validResults);
+			} catch (RuntimeException e) {
+				reset(valid);
+				for (BatchItemResult result : validResults) {
+					result.setError("not created, batch failed: " + e.getMessage());
+				}
+			}
+			return report;
+		}
+
+		for (int from = 0; from < valid.size(); from += insertBatchSize) {
+			int to = Math.min(from + insertBatchSize, valid.size());
+			List<Employee> batch = valid.subList(from, to);
+			List<BatchItemResult> results = validResults.subList(from, to);
+			try {
+				saveAll(batch);
+				created(batch, results);
+			} catch (RuntimeException e) {
+				// isolate the failing employees of the batch
+				reset(batch);
+				for (int i = 0; i < batch.size(); i++) {
+					Employee employee = batch.get(i);
+					try {
+						saveAll(Collections.singletonList(employee));
+						created(Collections.singletonList(employee), results.subList(i, i + 1));
+					} catch (RuntimeException itemFailure) {
+						reset(Collections.singletonList(employee));
+						results.get(i).setError(itemFailure.getMessage());
+					}
+				}
+			}
+		}
+		return report;
+	}
+
+	/**
+	 * @return reason the employee can't be created, null if it can be
+	 */
+	private static String validateNew(Employee employee) {
+		if (employee == null) {
+			return "employee is missing";
+		}
+		if (employee.getId() != 0) {
+			return "id must not be given, it is assigned on creation";
+		}
+		if (employee.getDateOfBirth() == null) {
+			return "dateOfBirth is required";
+		}
+		if (employee.getDateOfEmployment() == null) {
+			return "dateOfEmployment is required";
+		}
+		return null;
+	}
+
+	private static void created(List<Employee> employees, List<BatchItemResult> results) {
+		for (int i = 0; i < employees.size(); i++) {
+			results.get(i).setId(employees.get(i).getId());
+			results.get(i).setVersion(employees.get(i).getVersion());
+		}
+	}
+
+	/**
+	 * Clear the id and version assigned by a rolled back insert
+	 */
+	private static void reset(List<Employee> employees) {
+		for (Employee employee : employees) {
+			employee.setId(0);
+			employee.setVersion(null);
+		}
 	}
 
 	/**
@@ -35,13 +246,215 @@ public class EmployeeServiceImpl implements EmployeeService {
 		return (List<Employee>) employeeRepository.findAllEmployeeByStatus(Status.ACTIVE);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public KeysetPage<Employee> getActiveEmployees(EmployeeSort sort, String next, int limit) {
+		return searchEmployees(Status.ACTIVE, null, sort, next, limit);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public KeysetPage<Employee> searchEmployees(Status status, EmployeeFilter filter, EmployeeSort sort, String next,
+			int limit) {
+		KeysetCursor after = next == null ? null : KeysetCursor.decode(next, sort);
+		// one extra row tells whether there is a next page
+		List<Employee> items = employeeRepository.findPage(status, filter, sort, after, limit + 1);
+		if (items.size() <= limit) {
+			return new KeysetPage<>(items, null);
+		}
+		items = items.subList(0, limit);
+		return new KeysetPage<>(items, KeysetCursor.after(sort, items.get(limit - 1)).encode());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<Map<String, Object>> getAllActiveEmployees(EmployeeFields fields) {
+		List<Map<String, Object>> rows = employeeRepository.findPage(Status.ACTIVE, null, EmployeeSort.BY_ID, null,
+				Integer.MAX_VALUE, fields.getAttributes());
+		List<Map<String, Object>> items = new ArrayList<>(rows.size());
+		for (Map<String, Object> row : rows) {
+			items.add(fields.project(row));
+		}
+		return items;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public KeysetPage<Map<String, Object>> searchEmployees(Status status, EmployeeFilter filter, EmployeeSort sort,
+			String next, int limit, EmployeeFields fields) {
+		KeysetCursor after = next == null ? null : KeysetCursor.decode(next, sort);
+		List<Map<String, Object>> rows = employeeRepository.findPage(status, filter, sort, after, limit + 1,
+				fields.withKeys(sort));
+		int size = Math.min(rows.size(), limit);
+		List<Map<String, Object>> items = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			items.add(fields.project(rows.get(i)));
+		}
+		if (rows.size() <= limit) {
+			return new KeysetPage<>(items, null);
+		}
+		Map<String, Object> last = rows.get(limit - 1);
+		Object lastValue = sort.getKey() == EmployeeSort.Key.ID ? null : last.get(sort.getKey().attribute());
+		return new KeysetPage<>(items, new KeysetCursor(sort, (Long) last.get("id"), lastValue).encode());
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public void save(Employee employee) {
-		employeeRepository.save(employee);
+		try {
+			Employee saved = employeeRepository.save(employee);
+			// updates are merged into a copy, report its version to the caller
+			employee.setId(saved.getId());
+			employee.setVersion(saved.getVersion());
+			cache.put(saved.getId(), saved);
+			eventPublisher.publishEvent(EmployeeChangeEvent.saved(Collections.singletonList(saved)));
+		} catch (RuntimeException e) {
+			cache.invalidate(employee.getId());
+			throw e;
+		}
+	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public PatchResult patch(long id, Long expectedVersion, EmployeePatch patch) {
+		int updated;
+		try {
+			updated = employeeRepository.patch(id, expectedVersion, patch.changes());
+		} finally {
+			cache.invalidate(id);
+		}
+		if (updated == 0) {
+			// only failed updates pay for telling a stale version from a
+			// missing employee
+			return expectedVersion != null && employeeRepository.existsById(id) ? PatchResult.CONFLICT
+					: PatchResult.NOT_FOUND;
+		}
+		eventPublisher.publishEvent(EmployeeChangeEvent.updated(id));
+		return PatchResult.UPDATED;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public StatusChangeReport deactivate(Collection<Long> ids) {
+		StatusChangeReport report = new StatusChangeReport();
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		List<Long> batch = new ArrayList<>(statusBatchSize);
+		for (Long id : new LinkedHashSet<>(ids)) {
+			if (id == null) {
+				continue;
+			}
+			batch.add(id);
+			if (batch.size() == statusBatchSize) {
+				changeStatus(transaction, batch, Status.ACTIVE, Status.INACTIVE, report);
+				batch.clear();
+			}
+		}
+		if (!batch.isEmpty()) {
+			changeStatus(transaction, batch, Status.ACTIVE, Status.INACTIVE, report);
+		}
+		return report;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public StatusChangeReport deactivate(EmployeeFilter filter) {
+		return deactivate(employeeRepository.findIds(Status.ACTIVE, filter));
+	}
+
+	/**
+	 * Change the status of a batch of employees in one transaction: the
+	 * current status of the batch is read and locked, then the employees with
+	 * the source status are changed by a single UPDATE
+	 */
+	private void changeStatus(TransactionTemplate transaction, List<Long> batch, Status from, Status to,
+			StatusChangeReport report) {
+		List<Long> changed = new ArrayList<>(batch.size());
+		try {
+			transaction.execute(tx -> {
+				Map<Long, Status> current = new HashMap<>();
+				for (Object[] row : employeeRepository.findStatusByIdIn(batch)) {
+					current.put((Long) row[0], (Status) row[1]);
+				}
+				for (Long id : batch) {
+					Status status = current.get(id);
+					if (status == null) {
+						report.getMissing().add(id);
+					} else if (status != from) {
+						report.getUnchanged().add(id);
+					} else {
+						changed.add(id);
+					}
+				}
+				if (!changed.isEmpty()) {
+					employeeRepository.updateStatus(changed, from, to);
+				}
+				return null;
+			});
+		} finally {
+			for (Long id : batch) {
+				cache.invalidate(id);
+			}
+		}
+		report.getAffected().addAll(changed);
+		if (!changed.isEmpty()) {
+			long[] ids = new long[changed.size()];
+			for (int i = 0; i < ids.length; i++) {
+				ids[i] = changed.get(i);
+			}
+			eventPublisher.publishEvent(EmployeeChangeEvent.statusChanged(to, ids));
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public EmployeeLookup getActiveEmployees(Collection<Long> ids) {
+		Set<Long> requested = new LinkedHashSet<>(ids);
+		requested.remove(null);
+		long[] keys = new long[requested.size()];
+		int i = 0;
+		for (Long id : requested) {
+			keys[i++] = id;
+		}
+		Map<Long, Employee> found = cache.getAll(keys, missed -> {
+			List<Long> missing = new ArrayList<>(missed.length);
+			for (long id : missed) {
+				missing.add(id);
+			}
+			Map<Long, Employee> loaded = new HashMap<>(missed.length * 2);
+			for (Employee employee : employeeRepository.findAllById(missing)) {
+				loaded.put(employee.getId(), employee);
+			}
+			return loaded;
+		});
+
+		EmployeeLookup lookup = new EmployeeLookup();
+		for (Long id : requested) {
+			Employee employee = found.get(id);
+			if (employee != null && employee.getStatus() == Status.ACTIVE) {
+				lookup.getItems().add(employee);
+			} else {
+				lookup.getNotFound().add(id);
+			}
+		}
+		return lookup;
 	}
 
 	/**
@@ -49,7 +462,19 @@ public class EmployeeServiceImpl implements EmployeeService {
 	 */
 	@Override
 	public Optional<Employee> getActiveEmployee(long id) {
-		return employeeRepository.findEmployeeByIdAndStatus(id, Status.ACTIVE);
+		return getEmployee(id).filter(emp -> emp.getStatus() == Status.ACTIVE);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Optional<Long> getActiveVersion(long id) {
+		Employee cached = cache.getIfPresent(id);
+		if (cached != null) {
+			return cached.getStatus() == Status.ACTIVE ? Optional.ofNullable(cached.getVersion()) : Optional.empty();
+		}
+		return employeeRepository.findVersionByIdAndStatus(id, Status.ACTIVE);
 	}
 
 	/**
@@ -57,12 +482,61 @@ public class EmployeeServiceImpl implements EmployeeService {
 	 */
 	@Override
 	public boolean delete(long id) {
-		Optional<Employee> emp = employeeRepository.findById(id);
-		if (emp.isPresent()) {
-			employeeRepository.delete(emp.get());
-			return true;
+		int deleted;
+		try {
+			deleted = employeeRepository.purgeById(id);
+		} finally {
+			cache.invalidate(id);
 		}
-		return false;
+		if (deleted == 0) {
+			return false;
+		}
+		eventPublisher.publishEvent(EmployeeChangeEvent.deleted(id));
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public PurgeReport purge(Collection<Long> ids) {
+		PurgeReport report = new PurgeReport();
+		List<Long> batch = new ArrayList<>(purgeBatchSize);
+		for (Long id : new LinkedHashSet<>(ids)) {
+			if (id == null) {
+				continue;
+			}
+			batch.add(id);
+			if (batch.size() == purgeBatchSize) {
+				purgeBatch(batch, report);
+				batch.clear();
+			}
+		}
+		if (!batch.isEmpty()) {
+			purgeBatch(batch, report);
+		}
+		return report;
+	}
+
+	/**
+	 * Delete a batch of employees with a single DELETE, without reading them
+	 * first. Which ids existed is not known, so all of them are invalidated
+	 * and published as deleted: a batch with missing ids still changes the
+	 * list ETag, which is cheaper than a locking SELECT per batch.
+	 */
+	private void purgeBatch(List<Long> batch, PurgeReport report) {
+		long[] ids = new long[batch.size()];
+		try {
+			report.setDeleted(report.getDeleted() + employeeRepository.purgeByIdIn(batch));
+		} finally {
+			for (int i = 0; i < ids.length; i++) {
+				ids[i] = batch.get(i);
+				cache.invalidate(ids[i]);
+			}
+		}
+		report.setRequested(report.getRequested() + ids.length);
+		// listeners ignore unknown ids
+		eventPublisher.publishEvent(EmployeeChangeEvent.deleted(ids));
 	}
 
 	/**
@@ -70,7 +544,65 @@ public class EmployeeServiceImpl implements EmployeeService {
 	 */
 	@Override
 	public Optional<Employee> getEmployee(long id) {
-		return employeeRepository.findById(id);
+		return Optional.ofNullable(cache.get(id, key -> employeeRepository.findById(key).orElse(null)));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long countEmployees() {
+		return employeeRepository.count();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<Object[]> countByStatusAndEmploymentMonth() {
+		return employeeRepository.countByStatusAndEmploymentMonth();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void forEachEmployee(Status status, Consumer<Employee> action) {
+		employeeRepository.forEachEmployee(status, action);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<Employee> filterNew(List<Employee> employees) {
+		Set<String> lastNames = new HashSet<>();
+		for (Employee employee : employees) {
+			if (employee.getLastName() != null) {
+				lastNames.add(employee.getLastName());
+			}
+		}
+		Set<String> known = new HashSet<>();
+		if (!lastNames.isEmpty()) {
+			for (Object[] identity : employeeRepository.findIdentityByLastNameIn(lastNames)) {
+				known.add(identityKey((String) identity[0], (String) identity[1], (String) identity[2],
+						(Date) identity[3]));
+			}
+		}
+		List<Employee> result = new ArrayList<>(employees.size());
+		for (Employee employee : employees) {
+			if (known.add(identityKey(employee.getFirstName(), employee.getMiddleInitial(), employee.getLastName(),
+					employee.getDateOfBirth()))) {
+				result.add(employee);
+			}
+		}
+		return result;
+	}
+
+	private static String identityKey(String firstName, String middleInitial, String lastName, Date dateOfBirth) {
+		long epochDay = dateOfBirth == null ? Long.MIN_VALUE
+				: Instant.ofEpochMilli(dateOfBirth.getTime()).atZone(ZoneOffset.UTC).toLocalDate().toEpochDay();
+		return firstName + '\0' + middleInitial + '\0' + lastName + '\0' + epochDay;
 	}
 
 }
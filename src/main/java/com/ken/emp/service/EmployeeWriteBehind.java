@@ -0,0 +1,288 @@
+package com.ken.emp.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.ken.emp.cache.LongKeyCache;
+import com.ken.emp.model.Employee;
+import com.ken.emp.model.Status;
+import com.ken.emp.model.WriteStatus;
+import com.ken.emp.repository.EmployeeRepository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Write-behind creation of employees.
+ *
+ * Employees get an id reserved from the employee sequence and are queued in
+ * a bounded buffer. A flusher thread inserts them with
+ * {@link EmployeeService#saveAll(List)} in batches of
+ * kenemp.write-behind.batch-size, or with the employees queued within
+ * kenemp.write-behind.flush-ms of the first one, so a burst of creates
+ * commits in a few transactions instead of one each. The employees of a
+ * failed batch are retried one by one, so only the failing ones are not
+ * created.
+ *
+ * The {@link WriteStatus} of each employee tells when it is committed.
+ * Queued employees are flushed on shut down, they are lost if the process
+ * dies before.
+ *
+ */
+@Component
+public class EmployeeWriteBehind {
+
+	private static final Logger logger = LoggerFactory.getLogger(EmployeeWriteBehind.class);
+
+	// longest wait of the flusher before checking whether it is stopped
+	private static final long IDLE_POLL_MILLIS = 100;
+
+	@Autowired
+	private EmployeeService employeeService;
+
+	@Autowired
+	private EmployeeRepository employeeRepository;
+
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	@Value("${kenemp.write-behind.enabled:true}")
+	private boolean enabled;
+
+	// maximum number of queued employees
+	@Value("${kenemp.write-behind.capacity:10000}")
+	private int capacity;
+
+	// employees per insert transaction, and ids reserved at once
+	@Value("${kenemp.write-behind.batch-size:500}")
+	private int batchSize;
+
+	// longest time an employee waits for a batch to fill
+	@Value("${kenemp.write-behind.flush-ms:200}")
+	private long flushMillis;
+
+	// statuses are kept for this number of employees and this time
+	@Value("${kenemp.write-behind.status.max-size:100000}")
+	private int statusMaxSize;
+
+	@Value("${kenemp.write-behind.status.ttl-seconds:3600}")
+	private long statusTtlSeconds;
+
+	private BlockingQueue<Employee> queue;
+
+	private LongKeyCache<WriteStatus> statuses;
+
+	// ids taken from the sequence and not assigned yet, guarded by itself
+	private final ArrayDeque<Long> reservedIds = new ArrayDeque<>();
+
+	private final AtomicLong saved = new AtomicLong();
+
+	private final AtomicLong failed = new AtomicLong();
+
+	private volatile boolean running;
+
+	// held by submit while queueing and by stop while clearing running, so
+	// no employee is queued after the flusher was told to stop
+	private final ReadWriteLock runningLock = new ReentrantReadWriteLock();
+
+	private Thread flusher;
+
+	/**
+	 * Create the queue and start the flusher
+	 */
+	@PostConstruct
+	public void start() {
+		if (!enabled) {
+			return;
+		}
+		queue = new ArrayBlockingQueue<>(capacity);
+		statuses = new LongKeyCache<>(statusMaxSize, statusTtlSeconds, TimeUnit.SECONDS);
+		if (meterRegistry != null) {
+			Gauge.builder("kenemp.write-behind.queued", queue, BlockingQueue::size)
+					.description("Employees waiting to be inserted").register(meterRegistry);
+			FunctionCounter.builder("kenemp.write-behind.employees", saved, AtomicLong::get).tag("result", "saved")
+					.description("Employees inserted by the write-behind").register(meterRegistry);
+			FunctionCounter.builder("kenemp.write-behind.employees", failed, AtomicLong::get)
+					.tag("result", "failed").description("Employees the write-behind failed to insert")
+					.register(meterRegistry);
+		}
+		running = true;
+		flusher = new Thread(this::run, "write-behind");
+		flusher.setDaemon(true);
+		flusher.start();
+	}
+
+	/**
+	 * Stop accepting employees and flush the queued ones
+	 *
+	 * @throws InterruptedException
+	 *             if interrupted while waiting for the flusher
+	 */
+	@PreDestroy
+	public void stop() throws InterruptedException {
+		if (flusher != null) {
+			stopRunning();
+			flusher.join();
+			// left if the flusher died, their creates were already accepted
+			List<Employee> rest = new ArrayList<>();
+			queue.drainTo(rest);
+			if (!rest.isEmpty()) {
+				flush(rest);
+			}
+		}
+	}
+
+	/**
+	 * @return true if employees can be created asynchronously
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Assign an id to a new employee and queue it for the next batch insert,
+	 * a missing status is ACTIVE
+	 *
+	 * @param employee
+	 *            employee to be created, its id is set to the reserved one
+	 * @return QUEUED status of the employee, empty if the queue is full
+	 */
+	public Optional<WriteStatus> submit(Employee employee) {
+		runningLock.readLock().lock();
+		try {
+			if (!running || queue.remainingCapacity() == 0) {
+				return Optional.empty();
+			}
+			if (employee.getStatus() == null) {
+				employee.setStatus(Status.ACTIVE);
+			}
+			employee.setVersion(null);
+			employee.setId(nextId());
+			WriteStatus status = new WriteStatus(employee.getId(), WriteStatus.State.QUEUED, null);
+			statuses.put(employee.getId(), status);
+			if (!queue.offer(employee)) {
+				// lost the last slot to another request, the id is a gap
+				statuses.invalidate(employee.getId());
+				return Optional.empty();
+			}
+			return Optional.of(status);
+		} finally {
+			runningLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @param id
+	 *            employee id returned by {@link #submit(Employee)}
+	 * @return status of the employee, empty if the employee was not created
+	 *         asynchronously or its status expired
+	 */
+	public Optional<WriteStatus> getStatus(long id) {
+		return statuses == null ? Optional.empty() : Optional.ofNullable(statuses.getIfPresent(id));
+	}
+
+	private void stopRunning() {
+		runningLock.writeLock().lock();
+		try {
+			running = false;
+		} finally {
+			runningLock.writeLock().unlock();
+		}
+	}
+
+	private long nextId() {
+		synchronized (reservedIds) {
+			if (reservedIds.isEmpty()) {
+				reservedIds.addAll(employeeRepository.reserveIds(batchSize));
+			}
+			return reservedIds.poll();
+		}
+	}
+
+	/**
+	 * Flush batches until stopped and the queue is empty
+	 */
+	private void run() {
+		List<Employee> batch = new ArrayList<>(batchSize);
+		while (running || !queue.isEmpty()) {
+			try {
+				Employee first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+				long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushMillis);
+				while (batch.size() < batchSize) {
+					if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+						continue;
+					}
+					long remaining = deadline - System.nanoTime();
+					if (remaining <= 0 || !running) {
+						break;
+					}
+					Employee next = queue.poll(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(IDLE_POLL_MILLIS)),
+							TimeUnit.NANOSECONDS);
+					if (next != null) {
+						batch.add(next);
+					}
+				}
+			} catch (InterruptedException e) {
+				// stop as on shut down, the taken and queued employees are
+				// still flushed
+				stopRunning();
+			}
+			if (!batch.isEmpty()) {
+				flush(batch);
+				batch.clear();
+			}
+		}
+	}
+
+	private void flush(List<Employee> batch) {
+		try {
+			employeeService.saveAll(batch);
+			for (Employee employee : batch) {
+				saved(employee);
+			}
+		} catch (RuntimeException e) {
+			logger.warn("Write-behind batch of " + batch.size() + " employees failed, inserting them one by one", e);
+			// isolate the failing employees of the batch
+			for (Employee employee : batch) {
+				employee.setVersion(null);
+				try {
+					employeeService.saveAll(Collections.singletonList(employee));
+					saved(employee);
+				} catch (RuntimeException itemFailure) {
+					logger.error("Write-behind insert of employee " + employee.getId() + " failed", itemFailure);
+					failed.incrementAndGet();
+					statuses.put(employee.getId(),
+							new WriteStatus(employee.getId(), WriteStatus.State.FAILED, itemFailure.getMessage()));
+				}
+			}
+		}
+	}
+
+	private void saved(Employee employee) {
+		saved.incrementAndGet();
+		statuses.put(employee.getId(), new WriteStatus(employee.getId(), WriteStatus.State.SAVED, null));
+	}
+}
@@ -0,0 +1,533 @@
+package com.ken.emp.stats;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.ken.emp.model.Employee;
+import com.ken.emp.model.EmployeeStats;
+import com.ken.emp.model.Status;
+import com.ken.emp.service.EmployeeChangeEvent;
+import com.ken.emp.service.EmployeeService;
+
+/**
+ * In-memory headcount and tenure counters of all employees.
+ *
+ * Every employee is kept as its status and month of employment, packed into
+ * an int of a primitive map by id, and counted by status and by month of
+ * employment. {@link EmployeeChangeEvent}s move an employee from its old
+ * counts to its new ones, so the aggregates never need a table scan: their
+ * cost depends on the number of distinct months of employment only.
+ *
+ * The counters are built by {@link #rebuild()} after the initial loading and
+ * compared periodically with GROUP BY counts of the database; they are built
+ * again if they drifted, for example after writes that bypassed
+ * {@link EmployeeService}.
+ *
+ * Employees changed in a way the event does not carry are read again from
+ * the database outside the lock, so reads of the counters never wait for the
+ * database, and the result is applied unless a newer change of the employee
+ * arrived meanwhile, in which case it is read once more.
+ *
+ */
+@Component
+public class EmployeeStatistics {
+
+	private static final Logger logger = LoggerFactory.getLogger(EmployeeStatistics.class);
+
+	private static final Status[] STATUSES = Status.values();
+
+	// low bits of a packed employee holding the status ordinal
+	private static final int STATUS_BITS = 4;
+
+	private static final int STATUS_MASK = (1 << STATUS_BITS) - 1;
+
+	// tenure buckets, by their exclusive upper bound in months
+	private static final int[] TENURE_MONTHS = { 12, 24, 60, 120 };
+
+	private static final String[] TENURE_BUCKETS = { "<1", "1-2", "2-5", "5-10", "10+" };
+
+	private static final String NOT_STARTED = "notStarted";
+
+	@Autowired(required = false)
+	private EmployeeService employeeService;
+
+	// dates of employment are held as midnight UTC, as parsed from JSON and CSV
+	// and as read from the database by the UtcDateConverter
+	private final ZoneId zone = ZoneOffset.UTC;
+
+	// guarded by this
+	private State state = new State();
+
+	private volatile boolean ready;
+
+	// ids changed while a rebuild is scanning the table, guarded by this
+	private Set<Long> changedWhileBuilding;
+
+	// number of change events, guarded by this
+	private long changes;
+
+	// employees being read again by id, guarded by this
+	private final Map<Long, Reload> reloads = new HashMap<>();
+
+	/**
+	 * @return true once the counters were built
+	 */
+	public boolean isReady() {
+		return ready;
+	}
+
+	/**
+	 * Build the counters from all employees of the database
+	 */
+	public void rebuild() {
+		rebuild(sink -> employeeService.forEachEmployee(null, sink));
+	}
+
+	/**
+	 * Build the counters from the given employees, replacing the current
+	 * counters when done. Changes published meanwhile are applied afterwards.
+	 *
+	 * @param employees
+	 *            called once with a sink accepting every employee
+	 */
+	void rebuild(Consumer<Consumer<Employee>> employees) {
+		long started = System.currentTimeMillis();
+		synchronized (this) {
+			changedWhileBuilding = new HashSet<>();
+		}
+		State built = new State();
+		employees.accept(employee -> built.apply(employee.getId(), pack(employee)));
+
+		Set<Long> changed;
+		synchronized (this) {
+			state = built;
+			ready = true;
+			changed = changedWhileBuilding;
+			changedWhileBuilding = null;
+		}
+		for (Long id : changed) {
+			reload(id);
+		}
+		logger.info("Employee statistics built with " + built.employees.size() + " employees in "
+				+ (System.currentTimeMillis() - started) + " ms, " + changed.size() + " changes applied afterwards");
+	}
+
+	/**
+	 * @return current aggregates, tenure as of today
+	 */
+	public EmployeeStats getStats() {
+		return getStats(LocalDate.now(zone));
+	}
+
+	/**
+	 * @param today
+	 *            day the tenure is computed for
+	 * @return current aggregates
+	 */
+	synchronized EmployeeStats getStats(LocalDate today) {
+		EmployeeStats stats = new EmployeeStats();
+		stats.setTotal(state.employees.size());
+		long withoutDate = 0;
+		for (Status status : STATUSES) {
+			stats.getHeadcount().put(status, state.headcount[status.ordinal()]);
+			withoutDate += state.withoutDate[status.ordinal()];
+		}
+		stats.setWithoutDateOfEmployment(withoutDate);
+		for (String bucket : TENURE_BUCKETS) {
+			stats.getTenure().put(bucket, 0L);
+		}
+		stats.getTenure().put(NOT_STARTED, 0L);
+
+		int current = month(today);
+		for (Map.Entry<Integer, long[]> entry : state.months.entrySet()) {
+			int month = entry.getKey();
+			long hires = 0;
+			for (long count : entry.getValue()) {
+				hires += count;
+			}
+			stats.getHiresByYear().merge(Math.floorDiv(month, 12), hires, Long::sum);
+			long active = entry.getValue()[Status.ACTIVE.ordinal()];
+			if (active > 0) {
+				stats.getTenure().merge(bucket(current - month), active, Long::sum);
+			}
+		}
+		return stats;
+	}
+
+	/**
+	 * Apply a change of employees
+	 *
+	 * @param event
+	 *            change of employees
+	 */
+	@EventListener
+	public void onChange(EmployeeChangeEvent event) {
+		List<Long> stale = new ArrayList<>();
+		synchronized (this) {
+			apply(event, stale);
+		}
+		for (Long id : stale) {
+			reload(id);
+		}
+	}
+
+	/**
+	 * Apply a change of employees, called with the lock
+	 *
+	 * @param stale
+	 *            receives the ids to read again
+	 */
+	private void apply(EmployeeChangeEvent event, List<Long> stale) {
+		changes++;
+		for (long id : event.getIds()) {
+			Reload reload = reloads.get(id);
+			if (reload != null) {
+				reload.change = changes;
+			}
+		}
+		if (changedWhileBuilding != null) {
+			for (long id : event.getIds()) {
+				changedWhileBuilding.add(id);
+			}
+		}
+		if (!ready) {
+			return;
+		}
+		switch (event.getKind()) {
+		case SAVED:
+			for (Employee employee : event.getEmployees()) {
+				state.apply(employee.getId(), pack(employee));
+			}
+			break;
+		case STATUS_CHANGED:
+			for (long id : event.getIds()) {
+				int old = state.employees.get(id);
+				if (old == LongIntMap.ABSENT) {
+					stale.add(id);
+				} else {
+					state.apply(id, (old & ~STATUS_MASK) | event.getStatus().ordinal());
+				}
+			}
+			break;
+		case UPDATED:
+			for (long id : event.getIds()) {
+				stale.add(id);
+			}
+			break;
+		case DELETED:
+			for (long id : event.getIds()) {
+				state.apply(id, LongIntMap.ABSENT);
+			}
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Compare the counters with the database and build them again if they
+	 * differ. Skipped when employees were written while the database counted,
+	 * a write committed but not yet published may still cause a needless
+	 * rebuild.
+	 */
+	@Scheduled(initialDelayString = "${kenemp.stats.reconcile-ms:600000}", fixedDelayString = "${kenemp.stats.reconcile-ms:600000}")
+	public void reconcile() {
+		if (!ready || employeeService == null) {
+			return;
+		}
+		long before;
+		synchronized (this) {
+			before = changes;
+		}
+		List<Object[]> counts = employeeService.countByStatusAndEmploymentMonth();
+		synchronized (this) {
+			if (changes != before || matches(counts)) {
+				return;
+			}
+		}
+		logger.warn("Employee statistics differ from the database, building them again");
+		rebuild();
+	}
+
+	/**
+	 * @param counts
+	 *            rows of status, year and month of employment (null without
+	 *            date) and count
+	 * @return true if the counters have the given counts
+	 */
+	synchronized boolean matches(List<Object[]> counts) {
+		return state.matches(counts);
+	}
+
+	/**
+	 * Read an employee again and count or remove it, called without the lock.
+	 * A read is only applied if no change of the employee arrived since it
+	 * started, otherwise it may predate that change.
+	 */
+	private void reload(long id) {
+		Reload reload;
+		long seen;
+		synchronized (this) {
+			reload = reloads.computeIfAbsent(id, key -> new Reload());
+			reload.readers++;
+			seen = reload.change;
+		}
+		try {
+			while (true) {
+				Employee employee = employeeService == null ? null : employeeService.getEmployee(id).orElse(null);
+				synchronized (this) {
+					if (reload.change == seen) {
+						state.apply(id, employee == null ? LongIntMap.ABSENT : pack(employee));
+						return;
+					}
+					seen = reload.change;
+				}
+			}
+		} finally {
+			synchronized (this) {
+				if (--reload.readers == 0) {
+					reloads.remove(id);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return status and month of employment of an employee in an int, the
+	 *         month is stored plus one so that 0 means no date
+	 */
+	private int pack(Employee employee) {
+		Date date = employee.getDateOfEmployment();
+		int month = date == null ? -1 : month(Instant.ofEpochMilli(date.getTime()).atZone(zone).toLocalDate());
+		return ((month + 1) << STATUS_BITS) | employee.getStatus().ordinal();
+	}
+
+	private static int month(LocalDate date) {
+		return date.getYear() * 12 + date.getMonthValue() - 1;
+	}
+
+	private static int month(int year, int monthOfYear) {
+		return year * 12 + monthOfYear - 1;
+	}
+
+	private static String bucket(int months) {
+		if (months < 0) {
+			return NOT_STARTED;
+		}
+		for (int i = 0; i < TENURE_MONTHS.length; i++) {
+			if (months < TENURE_MONTHS[i]) {
+				return TENURE_BUCKETS[i];
+			}
+		}
+		return TENURE_BUCKETS[TENURE_BUCKETS.length - 1];
+	}
+
+	/**
+	 * Employee being read again, guarded by the lock of the statistics
+	 */
+	private static final class Reload {
+
+		// last change event of the employee
+		private long change;
+
+		// threads reading the employee
+		private int readers;
+	}
+
+	/**
+	 * Employees by id and their counts
+	 */
+	static final class State {
+
+		private final LongIntMap employees = new LongIntMap();
+
+		// employees by status ordinal
+		private final long[] headcount = new long[STATUSES.length];
+
+		// employees without date of employment by status ordinal
+		private final long[] withoutDate = new long[STATUSES.length];
+
+		// employees by month of employment and status ordinal
+		private final TreeMap<Integer, long[]> months = new TreeMap<>();
+
+		/**
+		 * Replace the packed state of an employee, ABSENT to remove it
+		 */
+		void apply(long id, int packed) {
+			int old = employees.get(id);
+			if (old != LongIntMap.ABSENT) {
+				count(old, -1);
+			}
+			if (packed == LongIntMap.ABSENT) {
+				employees.remove(id);
+			} else {
+				employees.put(id, packed);
+				count(packed, 1);
+			}
+		}
+
+		private void count(int packed, long delta) {
+			int status = packed & STATUS_MASK;
+			int month = (packed >>> STATUS_BITS) - 1;
+			headcount[status] += delta;
+			if (month < 0) {
+				withoutDate[status] += delta;
+				return;
+			}
+			long[] counts = months.computeIfAbsent(month, key -> new long[STATUSES.length]);
+			counts[status] += delta;
+			for (long count : counts) {
+				if (count != 0) {
+					return;
+				}
+			}
+			months.remove(month);
+		}
+
+		/**
+		 * @param counts
+		 *            rows of status, year and month of employment (null
+		 *            without date) and count
+		 * @return true if the counts are the ones of this state
+		 */
+		boolean matches(List<Object[]> counts) {
+			long total = 0;
+			for (Object[] row : counts) {
+				int status = ((Status) row[0]).ordinal();
+				long count = ((Number) row[3]).longValue();
+				total += count;
+				long expected;
+				if (row[1] == null) {
+					expected = withoutDate[status];
+				} else {
+					long[] month = months.get(month(((Number) row[1]).intValue(), ((Number) row[2]).intValue()));
+					expected = month == null ? 0 : month[status];
+				}
+				if (expected != count) {
+					return false;
+				}
+			}
+			// every row matched, so no other count of this state is positive
+			return total == employees.size();
+		}
+	}
+
+	/**
+	 * Open addressing hash map of long keys to non-negative int values, with
+	 * linear probing and backward shift deletion, so that millions of
+	 * employees take two primitive arrays
+	 */
+	static final class LongIntMap {
+
+		/**
+		 * value of an absent key
+		 */
+		static final int ABSENT = -1;
+
+		private long[] keys = new long[16];
+
+		// values plus one, 0 marks a free slot
+		private int[] values = new int[16];
+
+		private int size;
+
+		int size() {
+			return size;
+		}
+
+		int get(long key) {
+			int mask = keys.length - 1;
+			for (int i = hash(key) & mask; values[i] != 0; i = (i + 1) & mask) {
+				if (keys[i] == key) {
+					return values[i] - 1;
+				}
+			}
+			return ABSENT;
+		}
+
+		void put(long key, int value) {
+			if ((size + 1) * 2 > keys.length) {
+				resize();
+			}
+			int mask = keys.length - 1;
+			int i = hash(key) & mask;
+			for (; values[i] != 0; i = (i + 1) & mask) {
+				if (keys[i] == key) {
+					values[i] = value + 1;
+					return;
+				}
+			}
+			keys[i] = key;
+			values[i] = value + 1;
+			size++;
+		}
+
+		void remove(long key) {
+			int mask = keys.length - 1;
+			int i = hash(key) & mask;
+			for (; values[i] != 0; i = (i + 1) & mask) {
+				if (keys[i] == key) {
+					break;
+				}
+			}
+			if (values[i] == 0) {
+				return;
+			}
+			values[i] = 0;
+			size--;
+			// move later keys of the probe sequence into the hole unless
+			// their home slot lies after the hole
+			for (int j = (i + 1) & mask; values[j] != 0; j = (j + 1) & mask) {
+				int home = hash(keys[j]) & mask;
+				boolean between = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+				if (!between) {
+					keys[i] = keys[j];
+					values[i] = values[j];
+					values[j] = 0;
+					i = j;
+				}
+			}
+		}
+
+		private void resize() {
+			long[] oldKeys = keys;
+			int[] oldValues = values;
+			keys = new long[oldKeys.length * 2];
+			values = new int[oldValues.length * 2];
+			int mask = keys.length - 1;
+			for (int j = 0; j < oldKeys.length; j++) {
+				if (oldValues[j] != 0) {
+					int i = hash(oldKeys[j]) & mask;
+					while (values[i] != 0) {
+						i = (i + 1) & mask;
+					}
+					keys[i] = oldKeys[j];
+					values[i] = oldValues[j];
+				}
+			}
+		}
+
+		private static int hash(long key) {
+			long h = key * 0x9E3779B97F4A7C15L;
+			return (int) (h ^ (h >>> 32));
+		}
+	}
+}
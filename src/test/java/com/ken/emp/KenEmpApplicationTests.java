@@ -1,20 +1,47 @@
 package com.ken.emp;
 
 import static io.restassured.RestAssured.given;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
 
+import javax.persistence.EntityManagerFactory;
 import javax.ws.rs.core.MediaType;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.http.HttpStatus;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.ken.emp.loader.InitialLoader;
+import com.ken.emp.model.Employee;
+import com.ken.emp.model.Status;
+import com.ken.emp.repository.EmployeeRepository;
+import com.ken.emp.service.EmployeeService;
+
+import io.restassured.RestAssured;
+import io.restassured.config.DecoderConfig;
 import io.restassured.response.Response;
 
 /**
@@ -24,12 +51,34 @@ import io.restassured.response.Response;
  * 
  * -> Get employees by an ID 
  * -> Create new employees 
+ * -> Create employees in batches
  * -> Update existing employees 
  * -> Delete employees 
  * -> Get all employees
+ * -> Get employees page by page
+ * -> Get employees by a list of ids
+ * -> Get selected fields of employees
+ * -> Import employees from CSV
+ * -> Reload of the initial file without duplicates
+ * -> Export employees as CSV and NDJSON
+ * -> Cached employee representations after writes
+ * -> Conditional GET of employees with ETag
+ * -> Partial update of employees with version check
+ * -> Second-level cache entries kept on writes of other employees
+ * -> Deactivate employees by ids and by filter
+ * -> Purge employees by ids
+ * -> Search employees by name and date ranges
+ * -> Suggest employees by name prefixes
+ * -> Headcount and tenure aggregates
+ * -> Smile and CBOR representations and gzip of JSON
+ * -> Hashed, precompressed and cached Swagger UI assets
+ * -> Swagger spec generated by the build
+ * -> Readiness with the initial load progress and liveness
+ * -> Admission limits of reads and writes and their metrics
+ * -> Write-behind creation of employees and its status
  * 
  * static/emps.csv file has been used as initial load to 
- * test all these test case.
+ * test all these test case, loaded before the tests start.
  * 
  * Please check {@link KenEmpApplication} class for more info.
  * 
@@ -37,7 +86,7 @@ import io.restassured.response.Response;
  *
  */
 @RunWith(SpringJUnit4ClassRunner.class)
-@SpringBootTest(classes = KenEmpApplication.class, webEnvironment = WebEnvironment.RANDOM_PORT)
+@SpringBootTest(classes = KenEmpApplication.class, webEnvironment = WebEnvironment.RANDOM_PORT, properties = "kenemp.loader.async=false")
 public class KenEmpApplicationTests {
 
 	private static final String EMPLOYEE_URL_PATH = "/kenEmp/api/v1/employees";
@@ -48,6 +97,21 @@ public class KenEmpApplicationTests {
 	@Value("${local.server.port}")
 	private int port;
 
+	@Autowired
+	private InitialLoader initialLoader;
+
+	@Autowired
+	private ResourceLoader resourceLoader;
+
+	@Autowired
+	private EmployeeService employeeService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private EmployeeRepository employeeRepository;
+
 	/**
 	 * This test-case tests get employee by their id
 	 */
@@ -123,7 +187,8 @@ public class KenEmpApplicationTests {
 				.delete(PROTOCOL + HOST + port + EMPLOYEE_URL_PATH).then().statusCode(HttpStatus.OK.value()).extract()
 				.response();
 
-		assertTrue(!response.jsonPath().getString("firstName").isEmpty()
+		// only the status is written, the response is the stored employee
+		assertTrue(response.jsonPath().getString("firstName").equals("Arely")
 				&& response.jsonPath().getString("status").equals("INACTIVE")
 				&& response.jsonPath().getInt("id") == id);
 	}
@@ -158,6 +223,793 @@ public class KenEmpApplicationTests {
 		assertTrue(!jsonResponse.isEmpty() && jsonResponse.size() > 1);
 	}
 
+	/**
+	 * This method tests keyset pagination by walking all active employees one
+	 * per page, by id and by descending last name, and comparing with the
+	 * unpaged list.
+	 */
+	@Test
+	public void testGetEmpsPaged() {
+		List<Object> all = given().when().get(PROTOCOL + HOST + port + EMPLOYEE_URL_PATH).then()
+				.statusCode(HttpStatus.OK.value()).extract().response().jsonPath().getList("id");
+
+		for (String sort : new String[] { "id", "-lastName" }) {
+			Set<Object> seen = new HashSet<>();
+			String next = null;
+			do {
+				Response response = given().when().queryParam("limit", 1).queryParam("sort", sort)
+						.get(PROTOCOL + HOST + port + EMPLOYEE_URL_PATH + (next == null ? "" : "?next=" + next))
+						.then().statusCode(HttpStatus.OK.value()).extract().response();
+				List<Object> ids = response.jsonPath().getList("items.id");
+				assertTrue(ids.size() <= 1 && seen.addAll(ids));
+				next = response.jsonPath().getString("next");
+			} while (next != null);
+			assertTrue(seen.containsAll(all) && seen.size() == all.size());
+		}
+
+		given().when().queryParam("limit", 0).get(PROTOCOL + HOST + port + EMPLOYEE_URL_PATH).then()
+				.statusCode(HttpStatus.BAD_REQUEST.value());
+		given().when().queryParam("next", "bogus").get(PROTOCOL + HOST + port + EMPLOYEE_URL_PATH).then()
+				.statusCode(HttpStatus.BAD_REQUEST.value());
+	}
+
+	/**
+	 * This method tests the CSV import, with one new row, one row already
+	 * loaded from static/emps.csv and one row with an invalid date.
+	 */
+	@Test
+	public void testImportEmps() {
+		Response response = given().when().contentType("text/csv")
+				.body("FIRST_NAME,INITIALS,LAST_NAME,DATE_OF_BIRTH,DATE_OF_EMPLOYMENT\n"
+						+ "IMPORT,T,TESTER,2/3/1990,1/1/2015\n" + "DILAN,M.W.A,CHANDIMA,1/4/2019,1/4/2018\n"
+						+ "BROKEN,B,DATE,31/31/1990,1/1/2015\n")
+				.post(PROTOCOL + HOST + port + EMPLOYEE_URL_PATH + "/import").then()
+				.statusCode(HttpStatus.OK.value()).extract().response();
+
+		assertTrue(response.jsonPath().getInt("rowsRead") == 3 && response.jsonPath().getInt("rowsLoaded") == 1
+				&& response.jsonPath().getInt("rowsDuplicate") == 1
+				&& response.jsonPath().getInt("rowsRejected") == 1);
+	}
+
+	/**
+	 * This method tests that loading static/emps.csv again, as on a restart
+	 * with a persistent database, does not duplicate the employees.
+	 * 
+	 * @throws IOException
+	 *             on read failure of the file
+	 */
+	@Test
+	public void testReloadInitialFile() throws IOException {
+		long rows = employeeService.countEmployees();
+		initialLoader.load(resourceLoader.getResource("classpath:static/emps.csv"));
+		assertEquals(rows, employeeService.countEmployees());
+	}
+
+	/**
+	 * This method tests the CSV and newline-delimited JSON export of all
+	 * employees.
+	 */
+	@Test
+	public void testExportEmps() {
+		String csv = given().when().get(PROTOCOL + HOST + port + EMPLOYEE_URL_PATH + "/export?format=csv").then()
+				.statusCode(HttpStatus.OK.value()).contentType("text/csv").extract().asString();
+		String[] lines = csv.split("\r\n");
+		assertTrue(lines.length > 2 && lines[0].startsWith("ID,FIRST_NAME"));
+
+		String ndjson = given().when().get(PROTOCOL + HOST + port + EMPLOYEE_URL_PATH + "/export?format=ndjson")
+				.then().statusCode(HttpStatus.OK.value()).extract().asString();
+		lines = ndjson.split("\n");
+		assertTrue(lines.length > 1 && lines[0].startsWith("{") && lines[0].contains("\"firstName\""));
+
+		given().when().get(PROTOCOL + HOST + port + EMPLOYEE_URL_PATH + "/export?format=xml").then()
+				.statusCode(HttpStatus.BAD_REQUEST.value());
+	}
+
+	/**
+	 * This method tests that cached JSON of an employee and of the active list
+	 * is not served after the employee was updated or deleted.
+	 */
+	@Test
+	public void testCachedEmpsAfterWrites() {
+		int id = createNewEmployee();
+		String url = PROTOCOL + HOST + port + EMPLOYEE_URL_PATH;
+
+		// cache both representations
+		given().when().get(url + "/" + id).then().statusCode(HttpStatus.OK.value());
+		assertTrue(given().when().get(url).then().statusCode(HttpStatus.OK.value()).extract().response().jsonPath()
+				.getList("id").contains(id));
+
+		given().when().contentType(MediaType.APPLICATION_JSON)
+				.body("{\"id\":\"" + id + "\",\"firstName\":\"Cached\"," + "\"middleInitial\":\"C.C\","
+						+ "\"status\":\"ACTIVE\"," + "\"lastName\":\"Castro\"," + "\"dateOfBirth\":\"10/10/1987\","
+						+ "\"dateOfEmployment\":\"10/10/2018\"}")
+				.put(url).then().statusCode(HttpStatus.OK.value());
+		assertTrue(given().when().get(url + "/" + id).then().statusCode(HttpStatus.OK.value()).extract().response()
+				.jsonPath().getString("firstName").equals("Cached"));
+		assertTrue(given().when().get(url).then().statusCode(HttpStatus.OK.value()).extract().response().jsonPath()
+				.getList("findAll { it.id == " + id + " }.firstName").contains("Cached"));
+
+		given().when().delete(url + "/" + id).then().statusCode(HttpStatus.OK.value());
+		given().when().get(url + "/" + id).then().statusCode(HttpStatus.NOT_FOUND.value());
+		assertTrue(!given().when().get(url).then().statusCode(HttpStatus.OK.value()).extract().response().jsonPath()
+				.getList("id").contains(id));
+	}
+
+	/**
+	 * This method tests that If-None-Match with the current ETag of an
+	 * employee or of the active list is answered with 304, until a write
+	 * changes the tag.
+	 */
+	@Test
+	public void testConditionalGetEmps() {
+		int id = createNewEmployee();
+		String url = PROTOCOL + HOST + port + EMPLOYEE_URL_PATH;
+
+		String tag = given().when().get(url + "/" + id).then().statusCode(HttpStatus.OK.value()).extract()
+				.header("ETag");
+		assertTrue(tag != null && tag.startsWith("\"" + id + "-"));
+		given().when().header("If-None-Match", tag).get(url + "/" + id).then()
+				.statusCode(HttpStatus.NOT_MODIFIED.value());
+
+		// the list tag is weak, so the list can be compressed
+		String listTag = given().when().get(url).then().statusCode(HttpStatus.OK.value()).extract().header("ETag");
+		assertTrue(listTag != null && listTag.startsWith("W/\""));
+		given().when().header("If-None-Match", listTag).get(url).then().statusCode(HttpStatus.NOT_MODIFIED.value());
+
+		String updatedTag = given().when().contentType(MediaType.APPLICATION_JSON)
+				.body("{\"id\":\"" + id + "\",\"firstName\":\"Tagged\"," + "\"middleInitial\":\"C.C\","
+						+ "\"status\":\"ACTIVE\"," + "\"lastName\":\"Castro\"," + "\"dateOfBirth\":\"10/10/1987\","
+						+ "\"dateOfEmployment\":\"10/10/2018\"}")
+				.put(url).then().statusCode(HttpStatus.OK.value()).extract().header("ETag");
+		assertTrue(updatedTag != null && !updatedTag.equals(tag));
+		// the JSON is not cached after the update, the version tells it is not
+		// modified
+		given().when().header("If-None-Match", updatedTag).get(url + "/" + id).then()
+				.statusCode(HttpStatus.NOT_MODIFIED.value());
+		given().when().header("If-None-Match", updatedTag).get(url + "/0").then()
+				.statusCode(HttpStatus.NOT_FOUND.value());
+
+		Response response = given().when().header("If-None-Match", tag).get(url + "/" + id).then()
+				.statusCode(HttpStatus.OK.value()).extract().response();
+		assertTrue(response.header("ETag").equals(updatedTag)
+				&& response.jsonPath().getString("firstName").equals("Tagged"));
+		given().when().header("If-None-Match", listTag).get(url).then().statusCode(HttpStatus.OK.value());
+	}
+
+	/**
+	 * This method tests partial updates, with the version given by If-Match
+	 * and in the body, and their conflicts.
+	 */
+	@Test
+	public void testPatchEmp() {
+		int id = createNewEmployee();
+		String url = PROTOCOL + HOST + port + EMPLOYEE_URL_PATH + "/" + id;
+
+		String tag = given().when().get(url).then().statusCode(HttpStatus.OK.value()).extract().header("ETag");
+		String patchedTag = given().when().contentType(MediaType.APPLICATION_JSON).header("If-Match", tag)
+				.body("{\"firstName\":\"Patched\",\"dateOfBirth\":\"11/11/1988\"}").patch(url).then()
+				.statusCode(HttpStatus.NO_CONTENT.value()).extract().header("ETag");
+		assertTrue(patchedTag != null && !patchedTag.equals(tag));
+
+		Response response = given().when().get(url).then().statusCode(HttpStatus.OK.value()).extract().response();
+		assertTrue(response.header("ETag").equals(patchedTag)
+				&& response.jsonPath().getString("firstName").equals("Patched")
+				&& response.jsonPath().getString("lastName").equals("Castro")
+				&& response.jsonPath().getString("dateOfBirth").equals("11/11/1988"));
+
+		// stale versions
+		given().when().contentType(MediaType.APPLICATION_JSON).header("If-Match", tag)
+				.body("{\"firstName\":\"Lost\"}").patch(url).then().statusCode(HttpStatus.CONFLICT.value());
+		given().when().contentType(MediaType.APPLICATION_JSON)
+				.body("{\"firstName\":\"Lost\",\"version\":" + (response.jsonPath().getLong("version") - 1) + "}")
+				.patch(url).then().statusCode(HttpStatus.CONFLICT.value());
+		given().when().contentType(MediaType.APPLICATION_JSON).header("If-Match", "\"0-1\"")
+				.body("{\"firstName\":\"Lost\"}").patch(url).then().statusCode(HttpStatus.PRECONDITION_FAILED.value());
+
+		given().when().contentType(MediaType.APPLICATION_JSON).body("{}").patch(url).then()
+				.statusCode(HttpStatus.BAD_REQUEST.value());
+		given().when().contentType(MediaType.APPLICATION_JSON).body("{\"status\":\"INACTIVE\"}")
+				.patch(PROTOCOL + HOST + port + EMPLOYEE_URL_PATH + "/0").then()
+				.statusCode(HttpStatus.NOT_FOUND.value());
+
+		// unconditional update
+		given().when().contentType(MediaType.APPLICATION_JSON).body("{\"status\":\"INACTIVE\"}").patch(url).then()
+				.statusCode(HttpStatus.NO_CONTENT.value());
+		given().when().get(url).then().statusCode(HttpStatus.NOT_FOUND.value());
+	}
+
+	/**
+	 * This method tests that a patch, a deactivation and a delete keep other
+	 * employees in the second-level cache.
+	 */
+	@Test
+	public void testSecondLevelCacheAfterWrites() {
+		int kept = createNewEmployee();
+		String url = PROTOCOL + HOST + port + EMPLOYEE_URL_PATH;
+		given().when().get(url + "/" + kept).then().statusCode(HttpStatus.OK.value());
+		assertTrue(entityManagerFactory.getCache().contains(Employee.class, (long) kept));
+
+		int patched = createNewEmployee();
+		given().when().contentType(MediaType.APPLICATION_JSON).body("{\"firstName\":\"Evicted\"}")
+				.patch(url + "/" + patched).then().statusCode(HttpStatus.NO_CONTENT.value());
+		assertTrue(entityManagerFactory.getCache().contains(Employee.class, (long) kept));
+
+		int deactivated = createNewEmployee();
+		given().auth().preemptive().basic("dilan", "password").when().contentType(MediaType.APPLICATION_JSON)
+				.body("{\"ids\":[" + deactivated + "]}").post(url + "/deactivate").then()
+				.statusCode(HttpStatus.OK.value());
+		int deleted = createNewEmployee();
+		given().when().delete(url + "/" + deleted).then().statusCode(HttpStatus.OK.value());
+		assertTrue(entityManagerFactory.getCache().contains(Employee.class, (long) kept));
+	}
+
+	/**
+	 * This method tests that a repeated employee lookup is answered by the
+	 * query cache and the second-level cache, and read from the database again
+	 * once the employee was updated.
+	 */
+	@Test
+	public void testSecondLevelCacheStatistics() {
+		int id = createNewEmployee();
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		assertTrue(employeeRepository.findEmployeeByIdAndStatus((long) id, Status.ACTIVE).isPresent());
+
+		long queryHits = statistics.getQueryCacheHitCount();
+		long queryMisses = statistics.getQueryCacheMissCount();
+		long entityHits = statistics.getSecondLevelCacheHitCount();
+		assertTrue(employeeRepository.findEmployeeByIdAndStatus((long) id, Status.ACTIVE).isPresent());
+		assertEquals(queryHits + 1, statistics.getQueryCacheHitCount());
+		assertEquals(queryMisses, statistics.getQueryCacheMissCount());
+		assertEquals(entityHits + 1, statistics.getSecondLevelCacheHitCount());
+
+		given().when().contentType(MediaType.APPLICATION_JSON).body("{\"firstName\":\"Evicted\"}")
+				.patch(PROTOCOL + HOST + port + EMPLOYEE_URL_PATH + "/" + id).then()
+				.statusCode(HttpStatus.NO_CONTENT.value());
+		assertTrue(!entityManagerFactory.getCache().contains(Employee.class, (long) id));
+		queryMisses = statistics.getQueryCacheMissCount();
+		assertEquals("Evicted",
+				employeeRepository.findEmployeeByIdAndStatus((long) id, Status.ACTIVE).get().getFirstName());
+		assertEquals(queryMisses + 1, statistics.getQueryCacheMissCount());
+	}
+
+	/**
+	 * This method tests bulk deactivation by ids, including unknown and
+	 * already inactive ids, and by filter.
+	 */
+	@Test
+	public void testDeactivateEmps() {
+		int first = createNewEmployee();
+		int second = createNewEmployee();
+		String url = PROTOCOL + HOST + port + EMPLOYEE_URL_PATH;
+		String ids = "{\"ids\":[" + first + "," + second + ",0]}";
+
+		// Verify unauthorized case
+		given().when().contentType(MediaType.APPLICATION_JSON).body(ids).post(url + "/deactivate").then()
+				.statusCode(HttpStatus.UNAUTHORIZED.value());
+
+		Response response = given().auth().preemptive().basic("dilan", "password").when()
+				.contentType(MediaType.APPLICATION_JSON).body(ids).post(url + "/deactivate").then()
+				.statusCode(HttpStatus.OK.value()).extract().response();
+		assertTrue(response.jsonPath().getList("affected").size() == 2
+				&& response.jsonPath().getList("affected").contains(first)
+				&& response.jsonPath().getList("missing").contains(0));
+		given().when().get(url + "/" + first).then().statusCode(HttpStatus.NOT_FOUND.value());
+
+		response = given().auth().preemptive().basic("dilan", "password").when()
+				.contentType(MediaType.APPLICATION_JSON).body(ids).post(url + "/deactivate").then()
+				.statusCode(HttpStatus.OK.value()).extract().response();
+		assertTrue(response.jsonPath().getList("affected").isEmpty()
+				&& response.jsonPath().getList("unchanged").size() == 2);
+
+		// by filter
+		int id = given().when().contentType(MediaType.APPLICATION_JSON)
+				.body("{\"firstName\":\"Reorg\",\"lastName\":\"Filtered\",\"dateOfBirth\":\"10/10/1987\","
+						+ "\"dateOfEmployment\":\"10/10/2018\"}")
+				.post(url).then().statusCode(HttpStatus.CREATED.value()).extract().response().jsonPath().getInt("id");
+		response = given().auth().preemptive().basic("dilan", "password").when()
+				.contentType(MediaType.APPLICATION_JSON)
+				.body("{\"filter\":{\"lastName\":\"Filtered\",\"employedFrom\":\"01/10/2018\","
+						+ "\"employedTo\":\"31/10/2018\"}}")
+				.post(url + "/deactivate").then().statusCode(HttpStatus.OK.value()).extract().response();
+		assertTrue(response.jsonPath().getList("affected").equals(Collections.singletonList(id)));
+		given().when().get(url + "/" + id).then().statusCode(HttpStatus.NOT_FOUND.value());
+
+		given().auth().preemptive().basic("dilan", "password").when().contentType(MediaType.APPLICATION_JSON)
+				.body("{\"filter\":{}}").post(url + "/deactivate").then()
+				.statusCode(HttpStatus.BAD_REQUEST.value());
+	}
+
+	/**
+	 * This method tests the bulk delete, including an unknown id, and that
+	 * purged employees are gone.
+	 */
+	@Test
+	public void testPurgeEmps() {
+		int first = createNewEmployee();
+		int second = createNewEmployee();
+		String url = PROTOCOL + HOST + port + EMPLOYEE_URL_PATH;
+		String ids = "[" + first + "," + second + "," + second + ",0]";
+
+		// Verify unauthorized case
+		given().when().contentType(MediaType.APPLICATION_JSON).body(ids).post(url + "/purge").then()
+				.statusCode(HttpStatus.UNAUTHORIZED.value());
+
+		Response response = given().auth().preemptive().basic("dilan", "password").when()
+				.contentType(MediaType.APPLICATION_JSON).body(ids).post(url + "/purge").then()
+				.statusCode(HttpStatus.OK.value()).extract().response();
+		assertTrue(response.jsonPath().getInt("requested") == 3 && response.jsonPath().getInt("deleted") == 2
+				&& response.jsonPath().getInt("missing") == 1);
+
+		given().when().get(url + "/" + first).then().statusCode(HttpStatus.NOT_FOUND.value());
+		given().when().delete(url + "/" + second).then().statusCode(HttpStatus.NOT_FOUND.value());
+
+		// purging only missing ids deletes nothing
+		response = given().auth().preemptive().basic("dilan", "password").when()
+				.contentType(MediaType.APPLICATION_JSON).body("[" + first + "," + second + "]").post(url + "/purge")
+				.then().statusCode(HttpStatus.OK.value()).extract().response();
+		assertTrue(response.jsonPath().getInt("deleted") == 0 && response.jsonPath().getInt("missing") == 2);
+	}
+
+	/**
+	 * This method tests search by last name, first name prefix, status and
+	 * date ranges, alone and combined.
+	 */
+	@Test
+	public void testSearchEmps() {
+		String url = PROTOCOL + HOST + port + EMPLOYEE_URL_PATH;
+		int id = given().when().contentType(MediaType.APPLICATION_JSON)
+				.body("{\"firstName\":\"Searchable\",\"lastName\":\"Seeker\",\"dateOfBirth\":\"29/02/1984\","
+						+ "\"dateOfEmployment\":\"15/06/2012\"}")
+				.post(url).then().statusCode(HttpStatus.CREATED.value()).extract().response().jsonPath().getInt("id");
+
+		String[] matching = { "lastName=Seeker", "firstName=Search", "firstName=Searchable&lastName=Seeker",
+				"employedFrom=15/06/2012&employedTo=15/06/2012&lastName=Seeker",
+				"bornFrom=1/1/1984&bornTo=31/12/1984&status=ACTIVE&sort=-dateOfBirth" };
+		for (String query : matching) {
+			List<Object> ids = given().when().get(url + "/search?" + query).then().statusCode(HttpStatus.OK.value())
+					.extract().response().jsonPath().getList("items.id");
+			assertTrue(query, ids.contains(id));
+		}
+		String[] notMatching = { "lastName=Seek", "firstName=Searchables", "firstName=Search&lastName=Castro",
+				"employedFrom=16/06/2012&lastName=Seeker", "bornTo=28/02/1984&firstName=Search",
+				"status=INACTIVE&lastName=Seeker" };
+		for (String query : notMatching) {
+			List<Object> ids = given().when().get(url + "/search?" + query).then().statusCode(HttpStatus.OK.value())
+					.extract().response().jsonPath().getList("items.id");
+			assertTrue(query, !ids.contains(id));
+		}
+
+		given().when().get(url + "/search?employedFrom=31/02/2012").then().statusCode(HttpStatus.BAD_REQUEST.value());
+	}
+
+	/**
+	 * This method tests the name typeahead: a created employee is suggested
+	 * for the beginnings of its name words and no longer after it was
+	 * deleted.
+	 */
+	@Test
+	public void testSuggestEmps() {
+		String url = PROTOCOL + HOST + port + EMPLOYEE_URL_PATH;
+		int id = given().when().contentType(MediaType.APPLICATION_JSON)
+				.body("{\"firstName\":\"Quintessa\",\"lastName\":\"Zephyrine\",\"dateOfBirth\":\"01/02/1990\","
+						+ "\"dateOfEmployment\":\"01/02/2015\"}")
+				.post(url).then().statusCode(HttpStatus.CREATED.value()).extract().response().jsonPath().getInt("id");
+
+		for (String query : new String[] { "quint", "Zeph", "zep quin", "QUINTESSA ZEPHYRINE" }) {
+			List<Object> ids = given().when().get(url + "/suggest?q=" + query).then()
+					.statusCode(HttpStatus.OK.value()).extract().response().jsonPath().getList("id");
+			assertTrue(query, ids.contains(id));
+		}
+		List<Object> ids = given().when().get(url + "/suggest?q=quint castro").then()
+				.statusCode(HttpStatus.OK.value()).extract().response().jsonPath().getList("id");
+		assertTrue(!ids.contains(id));
+
+		given().when().delete(url + "/" + id).then().statusCode(HttpStatus.OK.value());
+		ids = given().when().get(url + "/suggest?q=quint").then().statusCode(HttpStatus.OK.value()).extract()
+				.response().jsonPath().getList("id");
+		assertTrue(!ids.contains(id));
+
+		given().when().get(url + "/suggest?q=a&limit=0").then().statusCode(HttpStatus.BAD_REQUEST.value());
+	}
+
+	/**
+	 * This method tests batch creation: all employees of a valid batch are
+	 * created, only the failing ones of a partial batch are not and an atomic
+	 * batch with a failing employee creates none.
+	 */
+	@Test
+	public void testCreateEmpsBatch() {
+		String url = PROTOCOL + HOST + port + EMPLOYEE_URL_PATH;
+		StringBuilder batch = new StringBuilder("[");
+		for (int i = 0; i < 1200; i++) {
+			batch.append(i == 0 ? "" : ",").append("{\"firstName\":\"Batch").append(i)
+					.append("\",\"lastName\":\"Member\",\"dateOfBirth\":\"01/01/1980\","
+							+ "\"dateOfEmployment\":\"01/01/2010\"}");
+		}
+		Response response = given().when().contentType(MediaType.APPLICATION_JSON).body(batch.append("]").toString())
+				.post(url + "/batch").then().statusCode(HttpStatus.CREATED.value()).extract().response();
+		assertTrue(response.jsonPath().getInt("created") == 1200);
+		List<Integer> ids = response.jsonPath().getList("items.id");
+		assertTrue(new HashSet<>(ids).size() == 1200);
+		given().when().get(url + "/" + ids.get(1199)).then().statusCode(HttpStatus.OK.value());
+
+		String tooLong = String.join("", Collections.nCopies(300, "x"));
+		String partial = "[{\"firstName\":\"Partial\",\"lastName\":\"One\",\"dateOfBirth\":\"01/01/1980\","
+				+ "\"dateOfEmployment\":\"01/01/2010\"},"
+				+ "{\"firstName\":\"Partial\",\"lastName\":\"Two\",\"dateOfBirth\":\"01/01/1980\"},"
+				+ "{\"firstName\":\"Partial\",\"lastName\":\"" + tooLong + "\",\"dateOfBirth\":\"01/01/1980\","
+				+ "\"dateOfEmployment\":\"01/01/2010\"},"
+				+ "{\"firstName\":\"Partial\",\"lastName\":\"Four\",\"dateOfBirth\":\"01/01/1980\","
+				+ "\"dateOfEmployment\":\"01/01/2010\"}]";
+		response = given().when().contentType(MediaType.APPLICATION_JSON).body(partial).post(url + "/batch").then()
+				.statusCode(207).extract().response();
+		assertTrue(response.jsonPath().getInt("created") == 2);
+		assertTrue(response.jsonPath().get("items[0].id") != null && response.jsonPath().get("items[3].id") != null);
+		assertTrue(response.jsonPath().get("items[1].error") != null && response.jsonPath().get("items[2].error") != null);
+		int created = response.jsonPath().getInt("items[3].id");
+		given().when().get(url + "/" + created).then().statusCode(HttpStatus.OK.value());
+
+		response = given().when().contentType(MediaType.APPLICATION_JSON).body(partial.replace("Partial", "Atomic"))
+				.post(url + "/batch?atomic=true").then().statusCode(HttpStatus.BAD_REQUEST.value()).extract()
+				.response();
+		assertTrue(response.jsonPath().getInt("created") == 0);
+		List<Object> found = given().when().get(url + "/search?firstName=Atomic").then()
+				.statusCode(HttpStatus.OK.value()).extract().response().jsonPath().getList("items.id");
+		assertTrue(found.isEmpty());
+
+		given().when().contentType(MediaType.APPLICATION_JSON).body("[]").post(url + "/batch").then()
+				.statusCode(HttpStatus.BAD_REQUEST.value());
+	}
+
+	/**
+	 * This method tests the lookup of many employees by ids, with the ids in
+	 * the query and in the body: found employees come in request order and
+	 * missing or inactive ones are listed as not found.
+	 */
+	@Test
+	public void testLookupEmps() {
+		String url = PROTOCOL + HOST + port + EMPLOYEE_URL_PATH;
+		int first = createNewEmployee();
+		int second = createNewEmployee();
+		int inactive = createNewEmployee();
+		given().auth().preemptive().basic("dilan", "password").when().contentType(MediaType.APPLICATION_JSON)
+				.body("{\"ids\":[" + inactive + "]}").post(url + "/deactivate").then().statusCode(HttpStatus.OK.value());
+		// cached before the lookup
+		given().when().get(url + "/" + second).then().statusCode(HttpStatus.OK.value());
+
+		Response response = given().when()
+				.get(url + "?ids=" + second + "," + first + ",999999," + inactive + "," + second).then()
+				.statusCode(HttpStatus.OK.value()).extract().response();
+		assertTrue(response.jsonPath().getList("items.id").equals(Arrays.asList(second, first)));
+		assertTrue(response.jsonPath().getList("notFound").equals(Arrays.asList(999999, inactive)));
+
+		response = given().when().contentType(MediaType.APPLICATION_JSON).body("[" + first + "," + second + "]")
+				.post(url + "/lookup").then().statusCode(HttpStatus.OK.value()).extract().response();
+		assertTrue(response.jsonPath().getList("items.id").equals(Arrays.asList(first, second)));
+		assertTrue(response.jsonPath().getList("notFound").isEmpty());
+
+		given().when().get(url + "?ids=1,x").then().statusCode(HttpStatus.BAD_REQUEST.value());
+		given().when().contentType(MediaType.APPLICATION_JSON).body("[]").post(url + "/lookup").then()
+				.statusCode(HttpStatus.BAD_REQUEST.value());
+	}
+
+	/**
+	 * This method tests sparse fieldsets: only the requested attributes are
+	 * returned, for the whole list, page by page and by search, with dates
+	 * formatted as in the full employee.
+	 */
+	@Test
+	public void testGetEmpsFields() {
+		String url = PROTOCOL + HOST + port + EMPLOYEE_URL_PATH;
+		int id = createNewEmployee();
+
+		Response response = given().when().get(url + "?fields=id,firstName,lastName").then()
+				.statusCode(HttpStatus.OK.value()).extract().response();
+		List<Map<String, Object>> items = response.jsonPath().getList("$");
+		assertTrue(!items.isEmpty());
+		for (Map<String, Object> item : items) {
+			assertTrue(item.keySet().equals(new HashSet<>(Arrays.asList("id", "firstName", "lastName"))));
+		}
+		// the tag depends on the fields
+		String tag = response.getHeader("ETag");
+		given().when().header("If-None-Match", tag).get(url + "?fields=id,firstName,lastName").then()
+				.statusCode(HttpStatus.NOT_MODIFIED.value());
+		given().when().header("If-None-Match", tag).get(url + "?fields=id").then().statusCode(HttpStatus.OK.value());
+
+		// walk the pages sorted by a key that is not selected
+		Set<Object> seen = new HashSet<>();
+		String next = "";
+		do {
+			response = given().when().queryParam("limit", 2).queryParam("sort", "-dateOfBirth")
+					.queryParam("fields", "firstName,id").queryParam("next", next).get(url).then()
+					.statusCode(HttpStatus.OK.value()).extract().response();
+			for (Map<String, Object> item : response.jsonPath().<Map<String, Object>>getList("items")) {
+				assertTrue(item.keySet().equals(new HashSet<>(Arrays.asList("firstName", "id"))));
+				assertTrue(seen.add(item.get("id")));
+			}
+			next = response.jsonPath().getString("next");
+		} while (next != null);
+		assertTrue(seen.contains(id) && seen.size() == items.size());
+
+		response = given().when().get(url + "/search?lastName=Castro&fields=dateOfBirth,status").then()
+				.statusCode(HttpStatus.OK.value()).extract().response();
+		assertTrue(response.jsonPath().getString("items[0].dateOfBirth").equals(
+				given().when().get(url + "/" + id).then().extract().response().jsonPath().getString("dateOfBirth")));
+		assertTrue(response.jsonPath().getString("items[0].status").equals("ACTIVE"));
+		assertTrue(response.jsonPath().get("items[0].id") == null);
+
+		given().when().get(url + "?fields=id,salary").then().statusCode(HttpStatus.BAD_REQUEST.value());
+	}
+
+	/**
+	 * This method tests the aggregates: they follow creation, deactivation
+	 * and deletion of an employee without reloading.
+	 */
+	@Test
+	public void testEmpStats() {
+		String url = PROTOCOL + HOST + port + EMPLOYEE_URL_PATH;
+		Response before = given().when().get(url + "/stats").then().statusCode(HttpStatus.OK.value()).extract()
+				.response();
+		int id = given().when().contentType(MediaType.APPLICATION_JSON)
+				.body("{\"firstName\":\"Stat\",\"lastName\":\"Counted\",\"dateOfBirth\":\"01/01/1950\","
+						+ "\"dateOfEmployment\":\"15/06/1971\"}")
+				.post(url).then().statusCode(HttpStatus.CREATED.value()).extract().response().jsonPath().getInt("id");
+
+		Response after = given().when().get(url + "/stats").then().statusCode(HttpStatus.OK.value()).extract()
+				.response();
+		assertTrue(after.jsonPath().getLong("total") == before.jsonPath().getLong("total") + 1);
+		assertTrue(after.jsonPath().getLong("headcount.ACTIVE") == before.jsonPath().getLong("headcount.ACTIVE") + 1);
+		assertTrue(after.jsonPath().getLong("hiresByYear.1971") == 1);
+		assertTrue(after.jsonPath().getLong("tenure.'10+'") == before.jsonPath().getLong("tenure.'10+'") + 1);
+
+		given().auth().preemptive().basic("dilan", "password").when().contentType(MediaType.APPLICATION_JSON)
+				.body("{\"ids\":[" + id + "]}").post(url + "/deactivate").then().statusCode(HttpStatus.OK.value());
+		after = given().when().get(url + "/stats").then().statusCode(HttpStatus.OK.value()).extract().response();
+		assertTrue(after.jsonPath().getLong("headcount.INACTIVE") == before.jsonPath().getLong("headcount.INACTIVE")
+				+ 1);
+		assertTrue(after.jsonPath().getLong("tenure.'10+'") == before.jsonPath().getLong("tenure.'10+'"));
+
+		given().when().delete(url + "/" + id).then().statusCode(HttpStatus.OK.value());
+		after = given().when().get(url + "/stats").then().statusCode(HttpStatus.OK.value()).extract().response();
+		assertTrue(after.jsonPath().getLong("total") == before.jsonPath().getLong("total"));
+		assertTrue(after.jsonPath().get("hiresByYear.1971") == null);
+	}
+
+	/**
+	 * This test-case tests binary representations negotiated by Accept and
+	 * Content-Type and gzip of large JSON responses
+	 * 
+	 * @throws Exception
+	 *             on an undecodable body
+	 */
+	@Test
+	public void testBinaryEncodings() throws Exception {
+		String url = PROTOCOL + HOST + port + EMPLOYEE_URL_PATH;
+		ObjectMapper smile = new ObjectMapper(new SmileFactory());
+		ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+		byte[] body = smile.writeValueAsBytes(new ObjectMapper().readTree("{\"firstName\":\"Bina\",\"lastName\":\"Smile\","
+				+ "\"dateOfBirth\":\"01/02/1990\",\"dateOfEmployment\":\"03/04/2015\"}"));
+
+		Response created = given().when().contentType("application/x-jackson-smile")
+				.accept("application/x-jackson-smile").body(body).post(url).then()
+				.statusCode(HttpStatus.CREATED.value()).contentType("application/x-jackson-smile").extract()
+				.response();
+		long id = smile.readTree(created.asByteArray()).get("id").asLong();
+
+		Response response = given().when().accept("application/cbor").get(url + "/" + id).then()
+				.statusCode(HttpStatus.OK.value()).contentType("application/cbor").extract().response();
+		Map<?, ?> employee = cbor.readValue(response.asByteArray(), Map.class);
+		assertEquals("Bina", employee.get("firstName"));
+		assertEquals("01/02/1990", employee.get("dateOfBirth"));
+		// not modified in the same encoding, the JSON ETag differs
+		String etag = response.header("ETag");
+		given().when().accept("application/cbor").header("If-None-Match", etag).get(url + "/" + id).then()
+				.statusCode(HttpStatus.NOT_MODIFIED.value());
+		given().when().accept(MediaType.APPLICATION_JSON).header("If-None-Match", etag).get(url + "/" + id)
+				.then().statusCode(HttpStatus.OK.value());
+
+		response = given().when().accept("application/x-jackson-smile").get(url).then()
+				.statusCode(HttpStatus.OK.value()).extract().response();
+		List<?> employees = smile.readValue(response.asByteArray(), List.class);
+		assertTrue(employees.stream().anyMatch(e -> "Bina".equals(((Map<?, ?>) e).get("firstName"))));
+
+		// JSON stays the default and is compressed above the size threshold
+		StringBuilder batch = new StringBuilder("[");
+		for (int i = 0; i < 30; i++) {
+			batch.append(i == 0 ? "" : ",").append("{\"firstName\":\"Gzip").append(i)
+					.append("\",\"lastName\":\"Member\",\"dateOfBirth\":\"01/01/1980\","
+							+ "\"dateOfEmployment\":\"01/01/2010\"}");
+		}
+		List<Integer> ids = given().when().contentType(MediaType.APPLICATION_JSON).body(batch.append("]").toString())
+				.post(url + "/batch").then().statusCode(HttpStatus.CREATED.value()).extract().response().jsonPath()
+				.getList("items.id");
+		response = given().config(RestAssured.config().decoderConfig(DecoderConfig.decoderConfig().noContentDecoders()))
+				.when().header("Accept-Encoding", "gzip").get(url).then().statusCode(HttpStatus.OK.value())
+				.contentType(MediaType.APPLICATION_JSON).extract().response();
+		assertEquals("gzip", response.header("Content-Encoding"));
+		try (GZIPInputStream json = new GZIPInputStream(response.asInputStream())) {
+			assertEquals(employees.size() + ids.size(), new ObjectMapper().readValue(json, List.class).size());
+		}
+
+		given().when().delete(url + "/" + id).then().statusCode(HttpStatus.OK.value());
+		given().auth().preemptive().basic("dilan", "password").when().contentType(MediaType.APPLICATION_JSON)
+				.body(ids.toString()).post(url + "/purge").then().statusCode(HttpStatus.OK.value());
+	}
+
+	/**
+	 * This test-case tests that the Swagger UI page links its assets by
+	 * content-hashed URLs and that these are served precompressed with a
+	 * long-lived Cache-Control
+	 * 
+	 * @throws Exception
+	 *             on an undecodable body
+	 */
+	@Test
+	public void testSwaggerUiAssets() throws Exception {
+		String url = PROTOCOL + HOST + port;
+		String page = given().when().get(url + "/swagger-ui").then().statusCode(HttpStatus.OK.value()).extract()
+				.asString();
+		Matcher script = Pattern.compile("src='(/swagger-ui-[0-9a-f]{32}\\.js)'").matcher(page);
+		assertTrue(script.find());
+
+		Response response = given()
+				.config(RestAssured.config().decoderConfig(DecoderConfig.decoderConfig().noContentDecoders()))
+				.when().header("Accept-Encoding", "gzip").get(url + script.group(1)).then()
+				.statusCode(HttpStatus.OK.value()).extract().response();
+		assertEquals("gzip", response.header("Content-Encoding"));
+		assertTrue(response.header("Content-Type").startsWith("application/javascript"));
+		assertTrue(response.header("Cache-Control").contains("max-age=31536000"));
+		assertTrue(response.header("Cache-Control").contains("immutable"));
+		try (GZIPInputStream js = new GZIPInputStream(response.asInputStream())) {
+			assertTrue(js.read() != -1);
+		}
+
+		// clients without gzip get the original
+		response = given()
+				.config(RestAssured.config().decoderConfig(DecoderConfig.decoderConfig().noContentDecoders()))
+				.when().get(url + script.group(1)).then().statusCode(HttpStatus.OK.value()).extract().response();
+		assertTrue(response.header("Content-Encoding") == null);
+		assertTrue(response.asString().contains("SwaggerUi"));
+
+		// the plain URL is revalidated, the stylesheet links are hashed
+		response = given().when().get(url + "/css/screen.css").then().statusCode(HttpStatus.OK.value()).extract()
+				.response();
+		assertEquals("no-cache", response.header("Cache-Control"));
+		assertTrue(Pattern.compile("/images/throbber-[0-9a-f]{32}\\.gif").matcher(response.asString()).find());
+	}
+
+	/**
+	 * This test-case tests that swagger.json is served from the spec
+	 * generated by the build, gzipped for clients accepting it
+	 * 
+	 * @throws Exception
+	 *             on an undecodable body
+	 */
+	@Test
+	public void testSwaggerSpec() throws Exception {
+		String url = PROTOCOL + HOST + port + "/kenEmp/api/v1/swagger.json";
+		Response response = given()
+				.config(RestAssured.config().decoderConfig(DecoderConfig.decoderConfig().noContentDecoders()))
+				.when().header("Accept-Encoding", "gzip").get(url).then().statusCode(HttpStatus.OK.value())
+				.contentType(MediaType.APPLICATION_JSON).extract().response();
+		assertEquals("gzip", response.header("Content-Encoding"));
+		Map<?, ?> spec;
+		try (GZIPInputStream json = new GZIPInputStream(response.asInputStream())) {
+			spec = new ObjectMapper().readValue(json, Map.class);
+		}
+		assertEquals("/kenEmp/api/v1", spec.get("basePath"));
+		assertTrue(((Map<?, ?>) spec.get("paths")).containsKey("/employees/{id}"));
+
+		String etag = response.header("ETag");
+		given().config(RestAssured.config().decoderConfig(DecoderConfig.decoderConfig().noContentDecoders()))
+				.when().header("Accept-Encoding", "gzip").header("If-None-Match", etag).get(url).then()
+				.statusCode(HttpStatus.NOT_MODIFIED.value());
+
+		response = given()
+				.config(RestAssured.config().decoderConfig(DecoderConfig.decoderConfig().noContentDecoders()))
+				.when().get(url).then().statusCode(HttpStatus.OK.value()).extract().response();
+		assertTrue(response.header("Content-Encoding") == null);
+		assertEquals("Employee REST Service", response.jsonPath().getString("info.title"));
+	}
+
+	/**
+	 * This test-case tests the readiness, which includes the state of the
+	 * initial load, and the liveness probe
+	 */
+	@Test
+	public void testHealthProbes() {
+		String url = PROTOCOL + HOST + port + "/actuator";
+		Response response = given().when().get(url + "/health").then().statusCode(HttpStatus.OK.value()).extract()
+				.response();
+		assertEquals("UP", response.jsonPath().getString("status"));
+		assertNull(response.jsonPath().get("details"));
+
+		// details only for authenticated users
+		response = given().auth().preemptive().basic("dilan", "password").when().get(url + "/health").then()
+				.statusCode(HttpStatus.OK.value()).extract().response();
+		assertEquals("READY", response.jsonPath().getString("details.initialLoad.details.state"));
+		assertTrue(response.jsonPath().getLong("details.initialLoad.details.rowsLoaded") > 0);
+
+		response = given().when().get(url + "/liveness").then().statusCode(HttpStatus.OK.value()).extract()
+				.response();
+		assertEquals("UP", response.jsonPath().getString("status"));
+		assertEquals("READY", response.jsonPath().getString("initialLoad.state"));
+		assertTrue(response.jsonPath().getLong("initialLoad.rowsLoaded") > 0);
+	}
+
+	/**
+	 * This test-case tests that employee requests are admitted and counted by
+	 * the admission limits
+	 * 
+	 * @throws InterruptedException
+	 *             if interrupted
+	 */
+	@Test
+	public void testAdmissionMetrics() throws InterruptedException {
+		given().when().get(PROTOCOL + HOST + port + EMPLOYEE_URL_PATH).then().statusCode(HttpStatus.OK.value());
+		createNewEmployee();
+
+		String url = PROTOCOL + HOST + port + "/actuator/metrics/kenemp.admission.";
+		for (String kind : Arrays.asList("read", "write")) {
+			Response response = given().when().get(url + "requests?tag=result:admitted&tag=kind:" + kind).then()
+					.statusCode(HttpStatus.OK.value()).extract().response();
+			assertTrue(response.jsonPath().getDouble("measurements[0].value") > 0);
+			response = given().when().get(url + "limit?tag=kind:" + kind).then().statusCode(HttpStatus.OK.value())
+					.extract().response();
+			assertTrue(response.jsonPath().getDouble("measurements[0].value") >= 1);
+		}
+		given().when().get(url + "requests?tag=result:shed").then().statusCode(HttpStatus.OK.value());
+
+		// slots are released once Jersey finished the request
+		double inFlight = -1;
+		for (int i = 0; i < 50 && inFlight != 0; i++) {
+			if (i > 0) {
+				Thread.sleep(20);
+			}
+			inFlight = given().when().get(url + "in-flight?tag=kind:write").then().statusCode(HttpStatus.OK.value())
+					.extract().response().jsonPath().getDouble("measurements[0].value");
+		}
+		assertEquals(0, inFlight, 0);
+	}
+
+	/**
+	 * This test-case tests the write-behind creation of an employee with
+	 * Prefer: respond-async
+	 * 
+	 * @throws InterruptedException
+	 *             if interrupted
+	 */
+	@Test
+	public void testCreateEmpWriteBehind() throws InterruptedException {
+		Response response = given().when().contentType(MediaType.APPLICATION_JSON).header("Prefer", "respond-async")
+				.body("{\"firstName\":\"Queued\"," + "\"lastName\":\"Behind\","
+						+ "\"dateOfBirth\":\"10/10/1987\"," + "\"dateOfEmployment\":\"10/10/2018\"}")
+				.post(PROTOCOL + HOST + port + EMPLOYEE_URL_PATH).then().statusCode(HttpStatus.ACCEPTED.value())
+				.extract().response();
+		assertEquals("respond-async", response.getHeader("Preference-Applied"));
+		int id = response.jsonPath().getInt("id");
+		assertTrue(id > 0);
+		String location = response.getHeader("Location");
+		assertTrue(location.endsWith(EMPLOYEE_URL_PATH + "/writes/" + id));
+
+		String state = null;
+		for (int i = 0; i < 100 && !"SAVED".equals(state); i++) {
+			if (i > 0) {
+				Thread.sleep(50);
+			}
+			state = given().when().get(location).then().statusCode(HttpStatus.OK.value()).extract().response()
+					.jsonPath().getString("state");
+		}
+		assertEquals("SAVED", state);
+		response = given().when().get(PROTOCOL + HOST + port + EMPLOYEE_URL_PATH + "/" + id).then()
+				.statusCode(HttpStatus.OK.value()).extract().response();
+		assertEquals("Queued", response.jsonPath().getString("firstName"));
+		assertEquals("ACTIVE", response.jsonPath().getString("status"));
+
+		given().when().get(PROTOCOL + HOST + port + EMPLOYEE_URL_PATH + "/writes/" + Integer.MAX_VALUE).then()
+				.statusCode(HttpStatus.NOT_FOUND.value());
+	}
+
 	/**
 	 * Create new employee in DB and return its assigned id
 	 * 
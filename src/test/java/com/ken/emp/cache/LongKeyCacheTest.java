@@ -0,0 +1,151 @@
+package com.ken.emp.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Test case for {@link LongKeyCache}.
+ *
+ * It included below functionality testing.
+ *
+ * -> Load on miss and hit/miss counters
+ * -> Load of many keys with one loader call
+ * -> Size bound and eviction
+ * -> Invalidation, including while a value is loading
+ * -> Time to live
+ *
+ */
+public class LongKeyCacheTest {
+
+	/**
+	 * This test-case tests that a miss loads the value once and later gets
+	 * are hits
+	 */
+	@Test
+	public void testLoadAndHit() {
+		LongKeyCache<String> cache = new LongKeyCache<>(100, 0, TimeUnit.SECONDS);
+		int[] loads = { 0 };
+		for (int i = 0; i < 3; i++) {
+			assertEquals("v7", cache.get(7, key -> {
+				loads[0]++;
+				return "v" + key;
+			}));
+		}
+		assertEquals(1, loads[0]);
+		assertEquals(2, cache.hitCount());
+		assertEquals(1, cache.missCount());
+
+		// null values are not cached
+		assertNull(cache.get(8, key -> null));
+		assertNull(cache.getIfPresent(8));
+	}
+
+	/**
+	 * This test-case tests that the misses of many keys are loaded by one
+	 * loader call, and that a key invalidated while loading is not cached
+	 */
+	@Test
+	public void testGetAll() {
+		LongKeyCache<String> cache = new LongKeyCache<>(100, 0, TimeUnit.SECONDS);
+		cache.put(1, "v1");
+		int[] loads = { 0 };
+		Map<Long, String> values = cache.getAll(new long[] { 1, 2, 4 }, keys -> {
+			loads[0]++;
+			assertEquals(2, keys.length);
+			Map<Long, String> loaded = new HashMap<>();
+			// 4 does not exist
+			loaded.put(2L, "v2");
+			return loaded;
+		});
+		assertEquals(1, loads[0]);
+		assertEquals(2, values.size());
+		assertEquals("v2", values.get(2L));
+		assertEquals("v2", cache.getIfPresent(2));
+		assertNull(cache.getIfPresent(4));
+
+		// 3 is written while loading
+		values = cache.getAll(new long[] { 1, 3 }, keys -> {
+			cache.invalidate(3);
+			return Collections.singletonMap(3L, "v3");
+		});
+		assertEquals("v3", values.get(3L));
+		assertNull(cache.getIfPresent(3));
+
+		// all hits, no loader call
+		values = cache.getAll(new long[] { 1, 2 }, keys -> {
+			throw new AssertionError("unexpected load");
+		});
+		assertEquals(2, values.size());
+	}
+
+	/**
+	 * This test-case tests that the cache never grows over its maximum size
+	 * and that every remaining key still maps to its own value
+	 */
+	@Test
+	public void testBoundedSize() {
+		LongKeyCache<Long> cache = new LongKeyCache<>(1000, 0, TimeUnit.SECONDS);
+		for (long key = 0; key < 20000; key++) {
+			cache.put(key * 31, key);
+			assertTrue(cache.size() <= 1000);
+		}
+		assertTrue(cache.evictionCount() >= 19000);
+		int present = 0;
+		for (long key = 0; key < 20000; key++) {
+			Long value = cache.getIfPresent(key * 31);
+			if (value != null) {
+				assertEquals(key, value.longValue());
+				present++;
+			}
+		}
+		assertEquals(cache.size(), present);
+	}
+
+	/**
+	 * This test-case tests invalidation, and that a value loaded while its key
+	 * is invalidated is not cached
+	 */
+	@Test
+	public void testInvalidate() {
+		LongKeyCache<String> cache = new LongKeyCache<>(100, 0, TimeUnit.SECONDS);
+		for (long key = 0; key < 50; key++) {
+			cache.put(key, "v" + key);
+		}
+		// remove every other key, the remaining probe chains must stay intact
+		for (long key = 0; key < 50; key += 2) {
+			cache.invalidate(key);
+		}
+		for (long key = 0; key < 50; key++) {
+			assertEquals(key % 2 == 0 ? null : "v" + key, cache.getIfPresent(key));
+		}
+
+		assertEquals("stale", cache.get(1000, key -> {
+			cache.invalidate(key);
+			return "stale";
+		}));
+		assertNull(cache.getIfPresent(1000));
+
+		cache.invalidateAll();
+		assertEquals(0, cache.size());
+	}
+
+	/**
+	 * This test-case tests that entries expire after their time to live
+	 */
+	@Test
+	public void testTimeToLive() throws InterruptedException {
+		LongKeyCache<String> cache = new LongKeyCache<>(10, 20, TimeUnit.MILLISECONDS);
+		cache.put(1, "v1");
+		assertEquals("v1", cache.getIfPresent(1));
+		Thread.sleep(50);
+		assertNull(cache.getIfPresent(1));
+	}
+}
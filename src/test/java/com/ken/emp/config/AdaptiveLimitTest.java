@@ -0,0 +1,108 @@
+package com.ken.emp.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+/**
+ * Test case for {@link AdaptiveLimit}.
+ *
+ * It included below functionality testing.
+ *
+ * -> Additive increase of a used limit up to its maximum
+ * -> Multiplicative decrease once per window of admitted requests
+ * -> Requests waiting for a slot and shed after the queue time
+ *
+ */
+public class AdaptiveLimitTest {
+
+	/**
+	 * This test-case tests that fast requests raise the limit to its maximum
+	 *
+	 * @throws InterruptedException
+	 *             if interrupted
+	 */
+	@Test
+	public void testIncrease() throws InterruptedException {
+		AdaptiveLimit limit = new AdaptiveLimit("read", 2, 1, 4, 10_000, 0.5);
+		for (int i = 0; i < 100; i++) {
+			assertTrue(limit.acquire(0));
+			assertTrue(limit.acquire(0));
+			long admittedAt = System.nanoTime();
+			limit.release(admittedAt, false);
+			limit.release(admittedAt, false);
+		}
+		assertEquals(4, limit.getLimit());
+		assertEquals(0, limit.getInFlight());
+		assertEquals(200, limit.getAdmitted());
+	}
+
+	/**
+	 * This test-case tests that overloaded requests admitted together
+	 * decrease the limit once
+	 *
+	 * @throws InterruptedException
+	 *             if interrupted
+	 */
+	@Test
+	public void testDecrease() throws InterruptedException {
+		AdaptiveLimit limit = new AdaptiveLimit("write", 10, 2, 10, 10_000, 0.5);
+		limit.acquire(0);
+		limit.acquire(0);
+		long admittedAt = System.nanoTime();
+		limit.release(admittedAt, true);
+		assertEquals(5, limit.getLimit());
+		limit.release(admittedAt, true);
+		assertEquals(5, limit.getLimit());
+
+		limit.acquire(0);
+		limit.release(System.nanoTime(), true);
+		assertEquals(2, limit.getLimit());
+		limit.acquire(0);
+		limit.release(System.nanoTime(), true);
+		assertEquals(2, limit.getLimit());
+	}
+
+	/**
+	 * This test-case tests waiting for a slot and shedding
+	 *
+	 * @throws InterruptedException
+	 *             if interrupted
+	 */
+	@Test
+	public void testShed() throws InterruptedException {
+		AdaptiveLimit limit = new AdaptiveLimit("read", 1, 1, 1, 10_000, 0.5);
+		assertTrue(limit.acquire(0));
+		long admittedAt = System.nanoTime();
+		assertFalse(limit.acquire(50));
+		assertTrue(System.nanoTime() - admittedAt >= 50_000_000L);
+		assertEquals(1, limit.getShed());
+
+		AtomicBoolean waited = new AtomicBoolean();
+		Thread waiter = new Thread(() -> {
+			try {
+				waited.set(limit.acquire(10_000));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		waiter.start();
+		Thread.sleep(50);
+		limit.release(admittedAt, false);
+		waiter.join(5_000);
+		assertTrue(waited.get());
+		assertEquals(1, limit.getInFlight());
+	}
+
+	/**
+	 * This test-case tests the validation of the bounds
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidBounds() {
+		new AdaptiveLimit("read", 1, 4, 2, 100, 0.5);
+	}
+}
@@ -0,0 +1,169 @@
+package com.ken.emp.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.ExtendedUriInfo;
+import org.glassfish.jersey.server.monitoring.RequestEvent;
+import org.glassfish.jersey.server.monitoring.RequestEventListener;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ken.emp.res.ResourceExecutor;
+
+/**
+ * Test case for {@link AdmissionFilter}.
+ *
+ * It included below functionality testing.
+ *
+ * -> Slow reads lowering the read limit
+ * -> Exports and imports not limited, however long they stream
+ * -> Only the overload 503 of the resource executor lowering the limit
+ *
+ */
+public class AdmissionFilterTest {
+
+	private AdmissionFilter filter;
+
+	/**
+	 * Create a filter with a read target latency of 20 ms
+	 */
+	@Before
+	public void init() {
+		filter = new AdmissionFilter();
+		ReflectionTestUtils.setField(filter, "enabled", true);
+		ReflectionTestUtils.setField(filter, "maxQueueMillis", 0L);
+		ReflectionTestUtils.setField(filter, "retryAfterSeconds", 1);
+		ReflectionTestUtils.setField(filter, "backoffRatio", 0.5);
+		ReflectionTestUtils.setField(filter, "readInitialLimit", 8);
+		ReflectionTestUtils.setField(filter, "readMinLimit", 1);
+		ReflectionTestUtils.setField(filter, "readMaxLimit", 8);
+		ReflectionTestUtils.setField(filter, "readTargetLatency", 20L);
+		ReflectionTestUtils.setField(filter, "writeInitialLimit", 8);
+		ReflectionTestUtils.setField(filter, "writeMinLimit", 1);
+		ReflectionTestUtils.setField(filter, "writeMaxLimit", 8);
+		ReflectionTestUtils.setField(filter, "writeTargetLatency", 20L);
+		filter.init();
+	}
+
+	/**
+	 * This test-case tests that a read slower than the target latency lowers
+	 * the read limit
+	 *
+	 * @throws InterruptedException
+	 *             if interrupted
+	 */
+	@Test
+	public void testSlowRead() throws InterruptedException {
+		assertEquals(8, limit("reads").getLimit());
+		process("GET", "employees/1", 50);
+		assertEquals(4, limit("reads").getLimit());
+		assertEquals(0, limit("reads").getInFlight());
+	}
+
+	/**
+	 * This test-case tests that long exports and imports take no slot and
+	 * leave the limits unchanged
+	 *
+	 * @throws InterruptedException
+	 *             if interrupted
+	 */
+	@Test
+	public void testStreamingNotLimited() throws InterruptedException {
+		process("GET", "employees/export", 50);
+		process("POST", "employees/import", 50);
+		assertEquals(8, limit("reads").getLimit());
+		assertEquals(8, limit("writes").getLimit());
+		assertEquals(0, limit("reads").getAdmitted());
+		assertEquals(0, limit("writes").getAdmitted());
+	}
+
+	/**
+	 * This test-case tests that the 503 of a resource not ready keeps the
+	 * limit, while the overload 503 of the executor lowers it and its marker
+	 * header is not sent
+	 *
+	 * @throws InterruptedException
+	 *             if interrupted
+	 */
+	@Test
+	public void testOverloaded() throws InterruptedException {
+		process("GET", "employees/suggest", 0, 503, false);
+		assertEquals(8, limit("reads").getLimit());
+		MultivaluedMap<String, Object> headers = process("GET", "employees/1", 0, 503, true);
+		assertEquals(4, limit("reads").getLimit());
+		assertNull(headers.get(ResourceExecutor.OVERLOADED));
+	}
+
+	/**
+	 * Pass a request through the filter and finish it after the given time
+	 */
+	private void process(String method, String path, long millis) throws InterruptedException {
+		process(method, path, millis, 200, false);
+	}
+
+	/**
+	 * Pass a request through the filters and finish it with the given status
+	 * after the given time
+	 *
+	 * @return headers of the response sent
+	 */
+	private MultivaluedMap<String, Object> process(String method, String path, long millis, int status,
+			boolean overloaded) throws InterruptedException {
+		Map<String, Object> properties = new HashMap<>();
+		ContainerRequest request = mock(ContainerRequest.class);
+		when(request.getMethod()).thenReturn(method);
+		doAnswer(invocation -> properties.put(invocation.getArgument(0), invocation.getArgument(1))).when(request)
+				.setProperty(anyString(), any());
+		when(request.getProperty(anyString())).thenAnswer(invocation -> properties.get(invocation.getArgument(0)));
+		ExtendedUriInfo uriInfo = mock(ExtendedUriInfo.class);
+		when(uriInfo.getPath()).thenReturn(path);
+
+		RequestEvent start = mock(RequestEvent.class);
+		when(start.getUriInfo()).thenReturn(uriInfo);
+		when(start.getContainerRequest()).thenReturn(request);
+		RequestEventListener listener = filter.onRequest(start);
+		filter.filter(request);
+		verify(request, never()).abortWith(any());
+		Thread.sleep(millis);
+		MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+		if (overloaded) {
+			headers.putSingle(ResourceExecutor.OVERLOADED, true);
+		}
+		ContainerResponse response = mock(ContainerResponse.class);
+		when(response.getStatus()).thenReturn(status);
+		when(response.getHeaders()).thenReturn(headers);
+		filter.filter(request, response);
+		if (listener == null) {
+			assertNull(properties.get(AdmissionFilter.class.getName()));
+			return headers;
+		}
+		RequestEvent finished = mock(RequestEvent.class);
+		when(finished.getType()).thenReturn(RequestEvent.Type.FINISHED);
+		when(finished.getContainerResponse()).thenReturn(response);
+		listener.onEvent(finished);
+		assertTrue(properties.containsKey(AdmissionFilter.class.getName()));
+		return headers;
+	}
+
+	private AdaptiveLimit limit(String name) {
+		return (AdaptiveLimit) ReflectionTestUtils.getField(filter, name);
+	}
+}
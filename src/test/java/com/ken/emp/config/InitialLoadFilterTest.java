@@ -0,0 +1,150 @@
+package com.ken.emp.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ken.emp.config.InitialLoadFilter.ReadPolicy;
+import com.ken.emp.loader.InitialLoadStatus;
+
+/**
+ * Test case for {@link InitialLoadFilter}.
+ *
+ * It included below functionality testing.
+ *
+ * -> Reads rejected with Retry-After while loading
+ * -> Reads waiting for the end of loading
+ * -> Writes rejected while loading, whatever the read policy
+ * -> Partial reads and requests after loading passing through
+ *
+ */
+public class InitialLoadFilterTest {
+
+	/**
+	 * This test-case tests the REJECT policy
+	 */
+	@Test
+	public void testReject() {
+		InitialLoadStatus status = new InitialLoadStatus();
+		status.started();
+		InitialLoadFilter filter = filter(status, ReadPolicy.REJECT, 0);
+
+		ContainerRequestContext read = request("GET", "employees/1");
+		filter.filter(read);
+		Response response = aborted(read);
+		assertEquals(503, response.getStatus());
+		assertEquals(5, response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+		status.finished(null);
+		ContainerRequestContext after = request("GET", "employees/1");
+		filter.filter(after);
+		verify(after, never()).abortWith(any());
+	}
+
+	/**
+	 * This test-case tests that writes are rejected while loading, even when
+	 * reads are served, and accepted after loading
+	 */
+	@Test
+	public void testWritesRejected() {
+		InitialLoadStatus status = new InitialLoadStatus();
+		status.started();
+		InitialLoadFilter filter = filter(status, ReadPolicy.SERVE, 0);
+
+		ContainerRequestContext write = request("POST", "employees");
+		filter.filter(write);
+		Response response = aborted(write);
+		assertEquals(503, response.getStatus());
+		assertEquals(5, response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+		ContainerRequestContext batch = request("POST", "employees/batch");
+		filter.filter(batch);
+		assertEquals(503, aborted(batch).getStatus());
+
+		ContainerRequestContext other = request("POST", "other");
+		filter.filter(other);
+		verify(other, never()).abortWith(any());
+
+		status.finished(null);
+		ContainerRequestContext after = request("POST", "employees");
+		filter.filter(after);
+		verify(after, never()).abortWith(any());
+	}
+
+	/**
+	 * This test-case tests the WAIT policy, for a load finishing in time and
+	 * for a load outlasting the wait
+	 *
+	 * @throws InterruptedException
+	 *             if interrupted
+	 */
+	@Test
+	public void testWait() throws InterruptedException {
+		InitialLoadStatus status = new InitialLoadStatus();
+		status.started();
+		InitialLoadFilter filter = filter(status, ReadPolicy.WAIT, 50);
+
+		ContainerRequestContext timedOut = request("GET", "employees");
+		long started = System.nanoTime();
+		filter.filter(timedOut);
+		assertTrue(System.nanoTime() - started >= 50_000_000L);
+		assertEquals(503, aborted(timedOut).getStatus());
+
+		ReflectionTestUtils.setField(filter, "waitMillis", 10_000L);
+		Thread finisher = new Thread(() -> status.finished(null));
+		ContainerRequestContext waited = request("GET", "employees");
+		finisher.start();
+		filter.filter(waited);
+		finisher.join();
+		verify(waited, never()).abortWith(any());
+	}
+
+	/**
+	 * This test-case tests the SERVE policy
+	 */
+	@Test
+	public void testServe() {
+		InitialLoadStatus status = new InitialLoadStatus();
+		status.started();
+		ContainerRequestContext read = request("GET", "employees");
+		filter(status, ReadPolicy.SERVE, 0).filter(read);
+		verify(read, never()).abortWith(any());
+	}
+
+	private static InitialLoadFilter filter(InitialLoadStatus status, ReadPolicy policy, long waitMillis) {
+		InitialLoadFilter filter = new InitialLoadFilter();
+		ReflectionTestUtils.setField(filter, "status", status);
+		ReflectionTestUtils.setField(filter, "policy", policy);
+		ReflectionTestUtils.setField(filter, "waitMillis", waitMillis);
+		ReflectionTestUtils.setField(filter, "retryAfterSeconds", 5);
+		return filter;
+	}
+
+	private static ContainerRequestContext request(String method, String path) {
+		ContainerRequestContext request = mock(ContainerRequestContext.class);
+		UriInfo uriInfo = mock(UriInfo.class);
+		when(uriInfo.getPath()).thenReturn(path);
+		when(request.getMethod()).thenReturn(method);
+		when(request.getUriInfo()).thenReturn(uriInfo);
+		return request;
+	}
+
+	private static Response aborted(ContainerRequestContext request) {
+		ArgumentCaptor<Response> response = ArgumentCaptor.forClass(Response.class);
+		verify(request).abortWith(response.capture());
+		return response.getValue();
+	}
+}
@@ -0,0 +1,195 @@
+package com.ken.emp.loader;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ken.emp.model.Employee;
+import com.ken.emp.service.EmployeeService;
+
+/**
+ * Test case for {@link EmployeeBulkLoader}.
+ *
+ * It included below functionality testing.
+ *
+ * -> Chunks persisted in file order, at chunk boundaries
+ * -> Malformed rows reported with their line number
+ * -> Failed chunk rejected while other chunks are in flight
+ * -> Duplicate rows skipped
+ *
+ */
+public class EmployeeBulkLoaderTest {
+
+	private static final String HEADER = "FIRST_NAME,INITIALS,LAST_NAME,DATE_OF_BIRTH,DATE_OF_EMPLOYMENT\n";
+
+	private EmployeeService employeeService;
+
+	private EmployeeBulkLoader loader;
+
+	// first names of every persisted chunk, in persist order
+	private final List<List<String>> saved = Collections.synchronizedList(new ArrayList<>());
+
+	/**
+	 * Create a loader of chunks of 3 lines on 2 parser threads, saving into a
+	 * mocked employee service
+	 */
+	@Before
+	public void init() {
+		employeeService = mock(EmployeeService.class);
+		doAnswer(invocation -> {
+			List<Employee> employees = invocation.getArgument(0);
+			saved.add(employees.stream().map(Employee::getFirstName).collect(Collectors.toList()));
+			return null;
+		}).when(employeeService).saveAll(anyList());
+		loader = new EmployeeBulkLoader();
+		ReflectionTestUtils.setField(loader, "employeeService", employeeService);
+		ReflectionTestUtils.setField(loader, "batchSize", 3);
+		ReflectionTestUtils.setField(loader, "parallelism", 2);
+		ReflectionTestUtils.setField(loader, "maxReportedErrors", 2);
+	}
+
+	/**
+	 * This test-case tests that lines are persisted in chunks of the batch
+	 * size in file order, with a last partial chunk, blank lines skipped and
+	 * progress reported per chunk
+	 *
+	 * @throws IOException
+	 *             on read failure
+	 */
+	@Test
+	public void testChunks() throws IOException {
+		AtomicLong progress = new AtomicLong();
+		LoadReport report = load(rows(1, 3) + rows(4, 6) + "\n" + rows(7, 7) + rows(8, 9) + rows(10, 10),
+				progress);
+
+		assertEquals(Arrays.asList(names(1, 3), names(4, 6), names(7, 8), names(9, 10)), saved);
+		assertEquals(10, report.getRowsRead());
+		assertEquals(10, report.getRowsLoaded());
+		assertEquals(0, report.getRowsRejected());
+		assertEquals(10, progress.get());
+
+		saved.clear();
+		assertEquals(3, load(rows(1, 3), progress).getRowsRead());
+		assertEquals(Collections.singletonList(names(1, 3)), saved);
+		assertEquals(0, load("", progress).getRowsRead());
+	}
+
+	/**
+	 * This test-case tests that malformed rows are rejected with their line
+	 * number, counting the header as line 1, the other rows of their chunk
+	 * being loaded and errors past the maximum only counted
+	 *
+	 * @throws IOException
+	 *             on read failure
+	 */
+	@Test
+	public void testMalformedRows() throws IOException {
+		LoadReport report = load(rows(1, 1) + "E2,M,L2,1/4/1990\n" + rows(3, 4) + "E5,M,L5,31/2/1990,1/4/2018\n"
+				+ "E6,M,L6,x,1/4/2018\n", new AtomicLong());
+
+		assertEquals(Arrays.asList(Arrays.asList("E1", "E3"), Collections.singletonList("E4")), saved);
+		assertEquals(6, report.getRowsRead());
+		assertEquals(3, report.getRowsLoaded());
+		assertEquals(3, report.getRowsRejected());
+		assertEquals(Arrays.asList("line 3: Expected 5 columns but found 4", "line 6: Unparseable date: \"31/2/1990\""),
+				report.getErrors());
+	}
+
+	/**
+	 * This test-case tests that a chunk failing to persist is rejected as a
+	 * whole while the chunks parsed before and after it are persisted
+	 *
+	 * @throws IOException
+	 *             on read failure
+	 */
+	@Test
+	public void testFailedChunk() throws IOException {
+		doAnswer(invocation -> {
+			List<Employee> employees = invocation.getArgument(0);
+			if (employees.get(0).getFirstName().equals("E4")) {
+				throw new IllegalStateException("deadlock");
+			}
+			saved.add(employees.stream().map(Employee::getFirstName).collect(Collectors.toList()));
+			return null;
+		}).when(employeeService).saveAll(anyList());
+
+		AtomicLong progress = new AtomicLong();
+		LoadReport report = load(rows(1, 12), progress);
+
+		assertEquals(Arrays.asList(names(1, 3), names(7, 9), names(10, 12)), saved);
+		assertEquals(12, report.getRowsRead());
+		assertEquals(9, report.getRowsLoaded());
+		assertEquals(3, report.getRowsRejected());
+		assertEquals(9, progress.get());
+		assertEquals(Collections.singletonList("lines 5-7: batch not persisted: deadlock"), report.getErrors());
+	}
+
+	/**
+	 * This test-case tests that rows matching existing employees are counted
+	 * as duplicates and not persisted
+	 *
+	 * @throws IOException
+	 *             on read failure
+	 */
+	@Test
+	public void testDuplicates() throws IOException {
+		when(employeeService.filterNew(anyList())).thenAnswer(invocation -> {
+			List<Employee> employees = invocation.getArgument(0);
+			return employees.stream().filter(employee -> !employee.getFirstName().equals("E2"))
+					.collect(Collectors.toList());
+		});
+
+		LoadReport report = loader.load(new BufferedReader(new StringReader(HEADER + rows(1, 3))), true, count -> {
+		});
+		assertEquals(Collections.singletonList(Arrays.asList("E1", "E3")), saved);
+		assertEquals(2, report.getRowsLoaded());
+		assertEquals(1, report.getRowsDuplicate());
+
+		// without skipping, existing employees are not looked up
+		saved.clear();
+		load(rows(1, 3), new AtomicLong());
+		verify(employeeService, times(1)).filterNew(anyList());
+		assertEquals(Collections.singletonList(names(1, 3)), saved);
+	}
+
+	private LoadReport load(String rows, AtomicLong progress) throws IOException {
+		return loader.load(new BufferedReader(new StringReader(HEADER + rows)), false, progress::addAndGet);
+	}
+
+	/**
+	 * Valid CSV lines of employees E<first> to E<last>
+	 */
+	private static String rows(int first, int last) {
+		StringBuilder rows = new StringBuilder();
+		for (int i = first; i <= last; i++) {
+			rows.append('E').append(i).append(",M,L").append(i).append(",1/4/1990,1/4/2018\n");
+		}
+		return rows.toString();
+	}
+
+	private static List<String> names(int first, int last) {
+		List<String> names = new ArrayList<>();
+		for (int i = first; i <= last; i++) {
+			names.add("E" + i);
+		}
+		return names;
+	}
+}
@@ -0,0 +1,113 @@
+package com.ken.emp.loader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.TimeZone;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ken.emp.model.Employee;
+import com.ken.emp.model.Status;
+
+/**
+ * Test case for {@link EmployeeCsvParser}.
+ *
+ * It included below functionality testing.
+ *
+ * -> Columns and dates at midnight UTC, whatever the default time zone
+ * -> Quoted columns with commas and quotes
+ * -> Malformed records
+ *
+ */
+public class EmployeeCsvParserTest {
+
+	private TimeZone defaultZone;
+
+	private final EmployeeCsvParser parser = new EmployeeCsvParser();
+
+	/**
+	 * Run the tests in a time zone west of UTC, where midnight UTC is on the
+	 * previous day
+	 */
+	@Before
+	public void setZone() {
+		defaultZone = TimeZone.getDefault();
+		TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+	}
+
+	/**
+	 * Restore the default time zone
+	 */
+	@After
+	public void restoreZone() {
+		TimeZone.setDefault(defaultZone);
+	}
+
+	/**
+	 * This test-case tests the columns of a record, with and without leading
+	 * zeros in dates
+	 *
+	 * @throws ParseException
+	 *             on an invalid record
+	 */
+	@Test
+	public void testParse() throws ParseException {
+		Employee employee = parser.parse(" DILAN , M.W.A,CHANDIMA,1/4/1990,01/12/2018");
+		assertEquals("DILAN", employee.getFirstName());
+		assertEquals("M.W.A", employee.getMiddleInitial());
+		assertEquals("CHANDIMA", employee.getLastName());
+		assertEquals(utcMidnight("1990-04-01"), employee.getDateOfBirth());
+		assertEquals(utcMidnight("2018-12-01"), employee.getDateOfEmployment());
+		assertEquals(Status.ACTIVE, employee.getStatus());
+
+		assertEquals("", parser.parse("DILAN,,CHANDIMA,1/4/1990,1/4/2018").getMiddleInitial());
+	}
+
+	/**
+	 * This test-case tests quoted columns with separators and escaped quotes
+	 *
+	 * @throws ParseException
+	 *             on an invalid record
+	 */
+	@Test
+	public void testQuoted() throws ParseException {
+		Employee employee = parser.parse("\"Smith, Jr\",\"M\", \"O\"\"Brien\" ,\"1/4/1990\",1/4/2018");
+		assertEquals("Smith, Jr", employee.getFirstName());
+		assertEquals("M", employee.getMiddleInitial());
+		assertEquals("O\"Brien", employee.getLastName());
+		assertEquals(utcMidnight("1990-04-01"), employee.getDateOfBirth());
+	}
+
+	/**
+	 * This test-case tests that missing columns, invalid dates and
+	 * unterminated quotes are rejected
+	 */
+	@Test
+	public void testMalformed() {
+		assertRejected("DILAN,M,CHANDIMA,1/4/1990", "Expected 5 columns but found 4");
+		assertRejected("\"DILAN,M,CHANDIMA,1/4/1990,1/4/2018", "Unterminated quote");
+		assertRejected("DILAN,M,CHANDIMA,31/2/1990,1/4/2018", "Unparseable date: \"31/2/1990\"");
+		assertRejected("DILAN,M,CHANDIMA,1990-04-01,1/4/2018", "Unparseable date: \"1990-04-01\"");
+		assertRejected("DILAN,M,CHANDIMA,1/4/1990,", "Unparseable date: \"\"");
+	}
+
+	private void assertRejected(String line, String message) {
+		try {
+			parser.parse(line);
+			fail("Parsed " + line);
+		} catch (ParseException e) {
+			assertEquals(message, e.getMessage());
+		}
+	}
+
+	private static Date utcMidnight(String date) {
+		return Date.from(LocalDate.parse(date).atStartOfDay(ZoneOffset.UTC).toInstant());
+	}
+}
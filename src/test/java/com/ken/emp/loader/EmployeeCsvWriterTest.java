@@ -0,0 +1,84 @@
+package com.ken.emp.loader;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.text.ParseException;
+import java.util.TimeZone;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ken.emp.model.Employee;
+
+/**
+ * Test case for {@link EmployeeCsvWriter}.
+ *
+ * It included below functionality testing.
+ *
+ * -> Dates written as in JSON and as parsed, whatever the default time zone
+ * -> Quoting of text
+ *
+ */
+public class EmployeeCsvWriterTest {
+
+	private TimeZone defaultZone;
+
+	/**
+	 * Run the tests in a time zone west of UTC, where midnight UTC is on the
+	 * previous day
+	 */
+	@Before
+	public void setZone() {
+		defaultZone = TimeZone.getDefault();
+		TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+	}
+
+	/**
+	 * Restore the default time zone
+	 */
+	@After
+	public void restoreZone() {
+		TimeZone.setDefault(defaultZone);
+	}
+
+	/**
+	 * This test-case tests that the dates of an employee created from JSON are
+	 * written as they were given
+	 *
+	 * @throws IOException
+	 *             on an invalid JSON employee
+	 */
+	@Test
+	public void testJsonDates() throws IOException {
+		Employee employee = new ObjectMapper().readValue("{\"id\":7,\"firstName\":\"Dilan\",\"lastName\":\"Chandima\","
+				+ "\"dateOfBirth\":\"01/04/1990\",\"dateOfEmployment\":\"31/12/2018\",\"status\":\"ACTIVE\"}",
+				Employee.class);
+		assertEquals("7,Dilan,,Chandima,01/04/1990,31/12/2018,ACTIVE\r\n", write(employee));
+	}
+
+	/**
+	 * This test-case tests that parsed CSV dates are written back unchanged
+	 * and text with separators is quoted
+	 *
+	 * @throws IOException
+	 *             on write failure
+	 * @throws ParseException
+	 *             on an invalid record
+	 */
+	@Test
+	public void testParsedDates() throws IOException, ParseException {
+		Employee employee = new EmployeeCsvParser().parse("Smith,M,Doe,1/4/1990,31/12/2018");
+		employee.setFirstName("Smith, Jr");
+		assertEquals("0,\"Smith, Jr\",M,Doe,01/04/1990,31/12/2018,ACTIVE\r\n", write(employee));
+	}
+
+	private static String write(Employee employee) throws IOException {
+		StringWriter out = new StringWriter();
+		new EmployeeCsvWriter(out).write(employee);
+		return out.toString();
+	}
+}
@@ -0,0 +1,275 @@
+package com.ken.emp.loader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Cache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ken.emp.loader.EmployeeSnapshot.SourceKey;
+import com.ken.emp.model.Employee;
+import com.ken.emp.model.Status;
+import com.ken.emp.repository.EmployeeRepository;
+import com.ken.emp.repository.EmployeeRepositoryImpl;
+import com.ken.emp.repository.EmployeeRowMapper;
+import com.ken.emp.repository.EmployeeSchemaMigration;
+import com.ken.emp.service.EmployeeServiceImpl;
+
+/**
+ * Test case for {@link InitialLoader} and {@link EmployeeSnapshot}.
+ *
+ * It included below functionality testing.
+ *
+ * -> Snapshot written and restored with its ids and dates
+ * -> Employee sequence restarted after a restore
+ * -> Loading skipped with an unchanged CSV file and employees in database
+ * -> Stale and corrupt snapshots falling back to the CSV file
+ *
+ */
+public class InitialLoaderTest {
+
+	private static final byte[] CSV = "firstName,middleInitial,lastName,dateOfBirth,dateOfEmployment,status\n"
+			.getBytes(StandardCharsets.UTF_8);
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private TimeZone defaultZone;
+
+	private SingleConnectionDataSource dataSource;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private EmployeeBulkLoader bulkLoader;
+
+	private InitialLoader loader;
+
+	private Path snapshotPath;
+
+	/**
+	 * Create an in-memory EMPLOYEE table and sequence in the time zone
+	 * America/New_York, and a loader restoring through the employee service
+	 * and the JDBC batches of the repository
+	 *
+	 * @throws IOException
+	 *             if the snapshot folder could not be created
+	 */
+	@Before
+	public void init() throws IOException {
+		defaultZone = TimeZone.getDefault();
+		TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+		dataSource = new SingleConnectionDataSource("jdbc:derby:memory:initialloader;create=true", true);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE employee (id BIGINT NOT NULL PRIMARY KEY, first_name VARCHAR(255),"
+				+ " middle_initial VARCHAR(255), last_name VARCHAR(255), date_of_birth DATE,"
+				+ " date_of_employment DATE, status INTEGER, version BIGINT NOT NULL)");
+		jdbcTemplate.execute("CREATE SEQUENCE employee_seq AS BIGINT START WITH 500 INCREMENT BY 500");
+
+		EmployeeRepositoryImpl repositoryImpl = new EmployeeRepositoryImpl();
+		ReflectionTestUtils.setField(repositoryImpl, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(repositoryImpl, "fetchSize", 100);
+		Cache cache = mock(Cache.class);
+		when(cache.unwrap(Cache.class)).thenReturn(cache);
+		EntityManager entityManager = mock(EntityManager.class, Mockito.RETURNS_DEEP_STUBS);
+		when(entityManager.getEntityManagerFactory().getCache()).thenReturn(cache);
+		ReflectionTestUtils.setField(repositoryImpl, "entityManager", entityManager);
+
+		EmployeeRepository repository = mock(EmployeeRepository.class);
+		doAnswer(invocation -> {
+			repositoryImpl.insertAll(invocation.getArgument(0));
+			return null;
+		}).when(repository).insertAll(anyList());
+		doAnswer(invocation -> {
+			repositoryImpl.forEachEmployee(invocation.getArgument(0), invocation.getArgument(1));
+			return null;
+		}).when(repository).forEachEmployee(any(), any());
+		when(repository.count())
+				.thenAnswer(invocation -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM employee", Long.class));
+
+		EmployeeServiceImpl employeeService = new EmployeeServiceImpl();
+		ReflectionTestUtils.setField(employeeService, "employeeRepository", repository);
+		ReflectionTestUtils.setField(employeeService, "eventPublisher", mock(ApplicationEventPublisher.class));
+		ReflectionTestUtils.setField(employeeService, "cacheMaxSize", 100);
+		ReflectionTestUtils.setField(employeeService, "cacheTtlSeconds", 600L);
+		ReflectionTestUtils.invokeMethod(employeeService, "init");
+
+		EmployeeSchemaMigration schemaMigration = new EmployeeSchemaMigration();
+		ReflectionTestUtils.setField(schemaMigration, "jdbcTemplate", jdbcTemplate);
+
+		bulkLoader = mock(EmployeeBulkLoader.class);
+		when(bulkLoader.load(any(InputStream.class), anyBoolean(), any(LongConsumer.class)))
+				.thenReturn(new LoadReport(10));
+
+		snapshotPath = folder.getRoot().toPath().resolve("emps.snapshot");
+		loader = new InitialLoader();
+		ReflectionTestUtils.setField(loader, "bulkLoader", bulkLoader);
+		ReflectionTestUtils.setField(loader, "employeeService", employeeService);
+		ReflectionTestUtils.setField(loader, "schemaMigration", schemaMigration);
+		ReflectionTestUtils.setField(loader, "snapshotPath", snapshotPath.toString());
+		ReflectionTestUtils.setField(loader, "batchSize", 2);
+	}
+
+	/**
+	 * Drop the table and sequence and restore the time zone
+	 */
+	@After
+	public void drop() {
+		jdbcTemplate.execute("DROP TABLE employee");
+		jdbcTemplate.execute("DROP SEQUENCE employee_seq RESTRICT");
+		dataSource.destroy();
+		TimeZone.setDefault(defaultZone);
+	}
+
+	/**
+	 * This test-case tests that a snapshot of an unchanged CSV file is
+	 * restored into an empty table with its ids and dates, in batches, that
+	 * the sequence restarts after the highest id, and that loading is skipped
+	 * once the table has employees
+	 *
+	 * @throws IOException
+	 *             on snapshot failure
+	 */
+	@Test
+	public void testRestore() throws IOException {
+		writeSnapshot(sourceKey(CSV), employee(7, "Ken", "1990-04-01", "2016-10-01", Status.ACTIVE),
+				employee(1000, "Emp", null, "2020-01-01", Status.INACTIVE),
+				employee(1234, "K", "1985-12-31", null, Status.ACTIVE));
+
+		AtomicLong progress = new AtomicLong();
+		loader.load(new ByteArrayResource(CSV), progress::addAndGet);
+		verify(bulkLoader, never()).load(any(InputStream.class), anyBoolean(), any(LongConsumer.class));
+		assertEquals(3, progress.get());
+
+		List<Employee> restored = jdbcTemplate.query(
+				"SELECT " + EmployeeRowMapper.COLUMNS + " FROM employee ORDER BY id", new EmployeeRowMapper());
+		assertEquals(3, restored.size());
+		assertEquals(7, restored.get(0).getId());
+		assertEquals("Ken", restored.get(0).getFirstName());
+		assertEquals(utcMidnight("1990-04-01"), restored.get(0).getDateOfBirth());
+		assertEquals(utcMidnight("2016-10-01"), restored.get(0).getDateOfEmployment());
+		assertEquals(Long.valueOf(0), restored.get(0).getVersion());
+		assertEquals(1000, restored.get(1).getId());
+		assertNull(restored.get(1).getDateOfBirth());
+		assertEquals(Status.INACTIVE, restored.get(1).getStatus());
+		assertEquals(1234, restored.get(2).getId());
+		assertEquals(utcMidnight("1985-12-31"), restored.get(2).getDateOfBirth());
+		assertNull(restored.get(2).getDateOfEmployment());
+		assertEquals("1990-04-01", jdbcTemplate
+				.queryForObject("SELECT VARCHAR(CHAR(date_of_birth)) FROM employee WHERE id = 7", String.class));
+
+		// the block of the first value is 1235 to 1734
+		assertEquals(Long.valueOf(1734),
+				jdbcTemplate.queryForObject("VALUES SYSCS_UTIL.SYSCS_PEEK_AT_SEQUENCE('APP', 'EMPLOYEE_SEQ')",
+						Long.class));
+
+		loader.load(new ByteArrayResource(CSV), progress::addAndGet);
+		verify(bulkLoader, never()).load(any(InputStream.class), anyBoolean(), any(LongConsumer.class));
+		assertEquals(3, count());
+	}
+
+	/**
+	 * This test-case tests that a snapshot of another CSV file is not
+	 * restored, the CSV file is loaded and the snapshot written again for it
+	 *
+	 * @throws IOException
+	 *             on snapshot failure
+	 */
+	@Test
+	public void testStaleSnapshot() throws IOException {
+		byte[] changed = (new String(CSV, StandardCharsets.UTF_8) + "Ken,K,Emp,1990-04-01,2016-10-01,ACTIVE\n")
+				.getBytes(StandardCharsets.UTF_8);
+		writeSnapshot(sourceKey(CSV), employee(7, "Ken", "1990-04-01", "2016-10-01", Status.ACTIVE));
+
+		loader.load(new ByteArrayResource(changed));
+		verify(bulkLoader).load(any(InputStream.class), anyBoolean(), any(LongConsumer.class));
+		assertEquals(0, count());
+		assertEquals(sourceKey(changed), new EmployeeSnapshot(snapshotPath).readHeader().getSource());
+	}
+
+	/**
+	 * This test-case tests that a corrupt snapshot of an unchanged CSV file is
+	 * verified before anything is inserted, and the CSV file is loaded instead
+	 *
+	 * @throws IOException
+	 *             on snapshot failure
+	 */
+	@Test
+	public void testCorruptSnapshot() throws IOException {
+		writeSnapshot(sourceKey(CSV), employee(7, "Ken", "1990-04-01", "2016-10-01", Status.ACTIVE),
+				employee(8, "Emp", "1991-05-02", "2017-11-02", Status.ACTIVE));
+		// negative length of the second record, after the header and the first
+		// record
+		try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			int firstRecord = 30 + 4 + channel.map(FileChannel.MapMode.READ_ONLY, 30, 4).getInt();
+			channel.write(ByteBuffer.wrap(new byte[] { (byte) 0xFF }), firstRecord);
+		}
+
+		loader.load(new ByteArrayResource(CSV));
+		verify(bulkLoader).load(any(InputStream.class), anyBoolean(), any(LongConsumer.class));
+		assertEquals(0, count());
+	}
+
+	private void writeSnapshot(SourceKey source, Employee... employees) throws IOException {
+		Consumer<Consumer<Employee>> rows = sink -> Arrays.asList(employees).forEach(sink);
+		assertEquals(employees.length, new EmployeeSnapshot(snapshotPath).write(source, rows));
+	}
+
+	private long count() {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM employee", Long.class);
+	}
+
+	private static SourceKey sourceKey(byte[] csv) throws IOException {
+		return EmployeeSnapshot.checksum(new ByteArrayInputStream(csv));
+	}
+
+	private static Employee employee(long id, String firstName, String dateOfBirth, String dateOfEmployment,
+			Status status) {
+		Employee employee = new Employee(firstName, "M", "Last" + id, utcMidnight(dateOfBirth),
+				utcMidnight(dateOfEmployment), status);
+		employee.setId(id);
+		return employee;
+	}
+
+	private static Date utcMidnight(String date) {
+		return date == null ? null : Date.from(LocalDate.parse(date).atStartOfDay(ZoneOffset.UTC).toInstant());
+	}
+}
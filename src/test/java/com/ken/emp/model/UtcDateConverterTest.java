@@ -0,0 +1,119 @@
+package com.ken.emp.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.TimeZone;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test case for {@link UtcDateConverter}.
+ *
+ * It included below functionality testing.
+ *
+ * -> Dates stored as the same day in a time zone behind UTC
+ * -> Dates read by JPA at midnight UTC without dirtying the employee
+ * -> Date criteria converted like the column
+ *
+ */
+public class UtcDateConverterTest {
+
+	private static final Date APRIL_FIRST = Date
+			.from(LocalDate.of(1990, 4, 1).atStartOfDay(ZoneOffset.UTC).toInstant());
+
+	private TimeZone defaultZone;
+
+	private SessionFactory sessionFactory;
+
+	/**
+	 * Map employees to an in-memory database in the time zone
+	 * America/New_York, where midnight UTC is the evening of the day before
+	 */
+	@Before
+	public void init() {
+		defaultZone = TimeZone.getDefault();
+		TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+		StandardServiceRegistryBuilder registry = new StandardServiceRegistryBuilder()
+				.applySetting("hibernate.connection.url", "jdbc:derby:memory:utcdates;create=true")
+				.applySetting("hibernate.dialect", "org.hibernate.dialect.DerbyTenSevenDialect")
+				.applySetting("hibernate.hbm2ddl.auto", "create-drop")
+				.applySetting("hibernate.physical_naming_strategy",
+						"org.springframework.boot.orm.jpa.hibernate.SpringPhysicalNamingStrategy")
+				.applySetting("hibernate.criteria.literal_handling_mode", "bind")
+				.applySetting("hibernate.cache.use_second_level_cache", "false");
+		sessionFactory = new MetadataSources(registry.build()).addAnnotatedClass(Employee.class).buildMetadata()
+				.buildSessionFactory();
+	}
+
+	/**
+	 * Drop the table and restore the time zone
+	 */
+	@After
+	public void drop() {
+		sessionFactory.close();
+		TimeZone.setDefault(defaultZone);
+	}
+
+	/**
+	 * This test-case tests that a date is stored as its day, read back at
+	 * midnight UTC without a version update, and found by a date criteria
+	 */
+	@Test
+	public void testDatesBehindUtc() {
+		Employee employee = new Employee("Ken", "K", "Emp", APRIL_FIRST, APRIL_FIRST, Status.ACTIVE);
+		try (Session session = sessionFactory.openSession()) {
+			session.beginTransaction();
+			session.persist(employee);
+			session.getTransaction().commit();
+		}
+
+		try (Session session = sessionFactory.openSession()) {
+			assertEquals("1990-04-01",
+					session.createNativeQuery("SELECT VARCHAR(CHAR(date_of_birth)) FROM employee").getSingleResult());
+
+			session.beginTransaction();
+			Employee read = session.get(Employee.class, employee.getId());
+			assertEquals(APRIL_FIRST.getTime(), read.getDateOfBirth().getTime());
+			assertEquals(APRIL_FIRST.getTime(), read.getDateOfEmployment().getTime());
+			session.getTransaction().commit();
+			assertEquals(0L,
+					((Number) session.createNativeQuery("SELECT version FROM employee").getSingleResult()).longValue());
+
+			CriteriaBuilder cb = session.getCriteriaBuilder();
+			CriteriaQuery<Employee> query = cb.createQuery(Employee.class);
+			Root<Employee> emp = query.from(Employee.class);
+			Path<Date> dateOfBirth = emp.get("dateOfBirth");
+			query.where(cb.greaterThanOrEqualTo(dateOfBirth, APRIL_FIRST),
+					cb.lessThanOrEqualTo(dateOfBirth, APRIL_FIRST));
+			assertEquals(1, session.createQuery(query).getResultList().size());
+		}
+	}
+
+	/**
+	 * This test-case tests the conversion of dates and of null
+	 */
+	@Test
+	public void testConversion() {
+		UtcDateConverter converter = new UtcDateConverter();
+		java.sql.Date column = converter.convertToDatabaseColumn(APRIL_FIRST);
+		assertEquals(LocalDate.of(1990, 4, 1), column.toLocalDate());
+		assertEquals(APRIL_FIRST, converter.convertToEntityAttribute(column));
+		assertNull(converter.convertToDatabaseColumn(null));
+		assertNull(converter.convertToEntityAttribute(null));
+	}
+}
@@ -0,0 +1,106 @@
+package com.ken.emp.repository;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.TimeZone;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Cache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ken.emp.model.Employee;
+import com.ken.emp.model.Status;
+
+/**
+ * Test case for {@link EmployeeRepositoryImpl}.
+ *
+ * It included below functionality testing.
+ *
+ * -> Dates inserted and patched as the same day in a time zone behind UTC
+ *
+ */
+public class EmployeeRepositoryImplTest {
+
+	private TimeZone defaultZone;
+
+	private SingleConnectionDataSource dataSource;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private EmployeeRepositoryImpl repository;
+
+	/**
+	 * Create an in-memory EMPLOYEE table in the time zone America/New_York
+	 */
+	@Before
+	public void init() {
+		defaultZone = TimeZone.getDefault();
+		TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+		dataSource = new SingleConnectionDataSource("jdbc:derby:memory:repositoryimpl;create=true", true);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE employee (id BIGINT NOT NULL PRIMARY KEY, first_name VARCHAR(255),"
+				+ " middle_initial VARCHAR(255), last_name VARCHAR(255), date_of_birth DATE,"
+				+ " date_of_employment DATE, status INTEGER, version BIGINT)");
+
+		repository = new EmployeeRepositoryImpl();
+		ReflectionTestUtils.setField(repository, "jdbcTemplate", jdbcTemplate);
+		Cache cache = Mockito.mock(Cache.class);
+		Mockito.when(cache.unwrap(Cache.class)).thenReturn(cache);
+		EntityManager entityManager = Mockito.mock(EntityManager.class, Mockito.RETURNS_DEEP_STUBS);
+		Mockito.when(entityManager.getEntityManagerFactory().getCache()).thenReturn(cache);
+		ReflectionTestUtils.setField(repository, "entityManager", entityManager);
+	}
+
+	/**
+	 * Drop the table and restore the time zone
+	 */
+	@After
+	public void drop() {
+		jdbcTemplate.execute("DROP TABLE employee");
+		dataSource.destroy();
+		TimeZone.setDefault(defaultZone);
+	}
+
+	/**
+	 * This test-case tests that dates at midnight UTC are inserted and patched
+	 * as their day, not as the local day before, and read back unchanged
+	 */
+	@Test
+	public void testDatesBehindUtc() {
+		Employee employee = new Employee("Ken", "K", "Emp", utcMidnight("1990-04-01"), utcMidnight("2016-10-01"),
+				Status.ACTIVE);
+		employee.setId(1L);
+		repository.insertAll(Arrays.asList(employee));
+
+		assertEquals("1990-04-01|2016-10-01", day(1));
+		Employee read = jdbcTemplate.queryForObject(
+				"SELECT " + EmployeeRowMapper.COLUMNS + " FROM employee WHERE id = 1", new EmployeeRowMapper());
+		assertEquals(utcMidnight("1990-04-01"), read.getDateOfBirth());
+		assertEquals(utcMidnight("2016-10-01"), read.getDateOfEmployment());
+
+		assertEquals(1, repository.patch(1L, 0L,
+				Collections.singletonMap("dateOfEmployment", utcMidnight("2018-03-01"))));
+		assertEquals("1990-04-01|2018-03-01", day(1));
+	}
+
+	private String day(long id) {
+		return jdbcTemplate.queryForObject("SELECT VARCHAR(CHAR(date_of_birth)) || '|' ||"
+				+ " VARCHAR(CHAR(date_of_employment)) FROM employee WHERE id = ?", String.class, id);
+	}
+
+	private static Date utcMidnight(String date) {
+		return Date.from(LocalDate.parse(date).atStartOfDay(ZoneOffset.UTC).toInstant());
+	}
+}
@@ -0,0 +1,87 @@
+package com.ken.emp.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.TimeZone;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import com.ken.emp.model.Employee;
+import com.ken.emp.model.Status;
+
+/**
+ * Test case for {@link EmployeeRowMapper}.
+ *
+ * It included below functionality testing.
+ *
+ * -> Dates at midnight UTC in a time zone ahead of UTC
+ *
+ */
+public class EmployeeRowMapperTest {
+
+	private TimeZone defaultZone;
+
+	private SingleConnectionDataSource dataSource;
+
+	private JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Create an in-memory EMPLOYEE table in the time zone Asia/Tokyo
+	 */
+	@Before
+	public void init() {
+		defaultZone = TimeZone.getDefault();
+		TimeZone.setDefault(TimeZone.getTimeZone("Asia/Tokyo"));
+		dataSource = new SingleConnectionDataSource("jdbc:derby:memory:rowmapper;create=true", true);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE employee (id BIGINT NOT NULL PRIMARY KEY, first_name VARCHAR(255),"
+				+ " middle_initial VARCHAR(255), last_name VARCHAR(255), date_of_birth DATE,"
+				+ " date_of_employment DATE, status INTEGER, version BIGINT)");
+	}
+
+	/**
+	 * Drop the table and restore the time zone
+	 */
+	@After
+	public void drop() {
+		jdbcTemplate.execute("DROP TABLE employee");
+		dataSource.destroy();
+		TimeZone.setDefault(defaultZone);
+	}
+
+	/**
+	 * This test-case tests that dates are mapped to midnight UTC of the
+	 * stored day, not to the local midnight which is the day before in UTC
+	 */
+	@Test
+	public void testDatesAtMidnightUtc() {
+		jdbcTemplate.update("INSERT INTO employee VALUES (1, 'Ken', 'K', 'Emp', DATE('1990-01-31'),"
+				+ " DATE('2016-10-01'), 0, 2)");
+		jdbcTemplate.update("INSERT INTO employee VALUES (2, 'Ken', 'K', 'Emp', NULL, NULL, 1, NULL)");
+
+		Employee employee = jdbcTemplate.queryForObject(
+				"SELECT " + EmployeeRowMapper.COLUMNS + " FROM employee WHERE id = 1", new EmployeeRowMapper());
+		assertEquals(utcMidnight("1990-01-31"), employee.getDateOfBirth());
+		assertEquals(utcMidnight("2016-10-01"), employee.getDateOfEmployment());
+		assertEquals(Status.ACTIVE, employee.getStatus());
+		assertEquals(Long.valueOf(2), employee.getVersion());
+
+		employee = jdbcTemplate.queryForObject("SELECT " + EmployeeRowMapper.COLUMNS + " FROM employee WHERE id = 2",
+				new EmployeeRowMapper());
+		assertNull(employee.getDateOfBirth());
+		assertNull(employee.getDateOfEmployment());
+		assertNull(employee.getVersion());
+	}
+
+	private static Date utcMidnight(String date) {
+		return Date.from(LocalDate.parse(date).atStartOfDay(ZoneOffset.UTC).toInstant());
+	}
+}
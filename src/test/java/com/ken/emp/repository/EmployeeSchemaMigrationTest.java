@@ -0,0 +1,116 @@
+package com.ken.emp.repository;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Test case for {@link EmployeeSchemaMigration}.
+ *
+ * It included below functionality testing.
+ *
+ * -> Version column of an earlier schema made NOT NULL
+ * -> Employee sequence recreated with the id allocation size
+ * -> Employee sequence restarted after employees restored with their ids
+ *
+ */
+public class EmployeeSchemaMigrationTest {
+
+	private SingleConnectionDataSource dataSource;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private EmployeeSchemaMigration migration;
+
+	/**
+	 * Create an in-memory database with the EMPLOYEE table of an earlier
+	 * version
+	 */
+	@Before
+	public void init() {
+		dataSource = new SingleConnectionDataSource("jdbc:derby:memory:migration;create=true", true);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE employee (id BIGINT NOT NULL PRIMARY KEY, version BIGINT)");
+		jdbcTemplate.execute("CREATE SEQUENCE employee_seq START WITH 1 INCREMENT BY 50");
+		migration = new EmployeeSchemaMigration();
+		ReflectionTestUtils.setField(migration, "jdbcTemplate", jdbcTemplate);
+	}
+
+	/**
+	 * Drop the tables of the test
+	 */
+	@After
+	public void drop() {
+		jdbcTemplate.execute("DROP TABLE employee");
+		jdbcTemplate.execute("DROP SEQUENCE employee_seq RESTRICT");
+		dataSource.destroy();
+	}
+
+	/**
+	 * This test-case tests that employees without version get version 0 and
+	 * the column is NOT NULL, also when migrated again
+	 */
+	@Test
+	public void testVersionNotNull() {
+		jdbcTemplate.update("INSERT INTO employee (id, version) VALUES (1, NULL), (2, 3)");
+		migration.migrate();
+		migration.migrate();
+
+		assertEquals(Long.valueOf(0), jdbcTemplate.queryForObject("SELECT version FROM employee WHERE id = 1",
+				Long.class));
+		assertEquals(Long.valueOf(3), jdbcTemplate.queryForObject("SELECT version FROM employee WHERE id = 2",
+				Long.class));
+		int nullable = jdbcTemplate.execute((ConnectionCallback<Integer>) con -> {
+			try (ResultSet rs = con.getMetaData().getColumns(null, null, "EMPLOYEE", "VERSION")) {
+				rs.next();
+				return rs.getInt("NULLABLE");
+			}
+		});
+		assertEquals(DatabaseMetaData.columnNoNulls, nullable);
+	}
+
+	/**
+	 * This test-case tests that the sequence of the earlier increment is
+	 * recreated with increment 500, its first block of ids starting after the
+	 * used ids
+	 */
+	@Test
+	public void testSequenceIncrement() {
+		jdbcTemplate.queryForObject("VALUES NEXT VALUE FOR employee_seq", Long.class);
+		jdbcTemplate.queryForObject("VALUES NEXT VALUE FOR employee_seq", Long.class);
+		jdbcTemplate.update("INSERT INTO employee (id, version) VALUES (120, 0)");
+		migration.migrate();
+		migration.migrate();
+
+		assertEquals(Long.valueOf(500), jdbcTemplate.queryForObject(
+				"SELECT INCREMENT FROM SYS.SYSSEQUENCES WHERE SEQUENCENAME = 'EMPLOYEE_SEQ'", Long.class));
+		// the block of the first value is 121 to 620
+		assertEquals(Long.valueOf(620),
+				jdbcTemplate.queryForObject("VALUES NEXT VALUE FOR employee_seq", Long.class));
+	}
+
+	/**
+	 * This test-case tests that the sequence restarts after the highest id of
+	 * restored employees, and is kept when its next block is free
+	 */
+	@Test
+	public void testRestartSequence() {
+		migration.migrate();
+		jdbcTemplate.update("INSERT INTO employee (id, version) VALUES (7, 0), (1234, 0)");
+		migration.restartSequence();
+		migration.restartSequence();
+
+		// the block of the first value is 1235 to 1734
+		assertEquals(Long.valueOf(1734),
+				jdbcTemplate.queryForObject("VALUES NEXT VALUE FOR employee_seq", Long.class));
+	}
+}
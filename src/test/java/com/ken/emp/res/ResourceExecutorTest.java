@@ -0,0 +1,181 @@
+package com.ken.emp.res;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Test case for {@link ResourceExecutor}.
+ *
+ * It included below functionality testing.
+ *
+ * -> Calls running off the calling thread
+ * -> Timeouts answered with 503 and the call interrupted
+ * -> Calls without timeout run to completion
+ * -> Saturation answered with 503
+ * -> Exceptions of calls and the synchronous mode
+ *
+ */
+public class ResourceExecutorTest {
+
+	private ResourceExecutor executor;
+
+	/**
+	 * Shut down the executor of the test
+	 */
+	@After
+	public void stop() {
+		if (executor != null) {
+			executor.stop();
+		}
+	}
+
+	/**
+	 * This test-case tests that calls run on the executor threads
+	 *
+	 * @throws Exception
+	 *             on failure of the call
+	 */
+	@Test
+	public void testSubmit() throws Exception {
+		executor = executor(true, 2, 2);
+		Thread caller = Thread.currentThread();
+		Response response = executor.submit(1000, () -> {
+			assertNotEquals(caller, Thread.currentThread());
+			return Response.ok("done").build();
+		}).toCompletableFuture().get(5, TimeUnit.SECONDS);
+		assertEquals(200, response.getStatus());
+	}
+
+	/**
+	 * This test-case tests the timeout of a blocked call
+	 *
+	 * @throws Exception
+	 *             on failure of the call
+	 */
+	@Test
+	public void testTimeout() throws Exception {
+		executor = executor(true, 1, 1);
+		CountDownLatch interrupted = new CountDownLatch(1);
+		Response response = executor.submit(50, () -> {
+			try {
+				Thread.sleep(10_000);
+			} catch (InterruptedException e) {
+				interrupted.countDown();
+			}
+			return Response.ok().build();
+		}).toCompletableFuture().get(5, TimeUnit.SECONDS);
+		assertEquals(503, response.getStatus());
+		assertEquals(1, response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+		assertEquals(true, response.getHeaders().getFirst(ResourceExecutor.OVERLOADED));
+		assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+	}
+
+	/**
+	 * This test-case tests that a call without timeout is neither answered
+	 * with 503 nor interrupted
+	 */
+	@Test
+	public void testNoTimeout() {
+		executor = executor(true, 1, 1);
+		AsyncResponse async = mock(AsyncResponse.class);
+		boolean[] interrupted = { false };
+		executor.submit(async, () -> {
+			try {
+				Thread.sleep(200);
+			} catch (InterruptedException e) {
+				interrupted[0] = true;
+			}
+			return Response.ok("written").build();
+		});
+		ArgumentCaptor<Response> response = ArgumentCaptor.forClass(Response.class);
+		verify(async, timeout(5000)).resume(response.capture());
+		assertEquals(200, response.getValue().getStatus());
+		assertEquals(false, interrupted[0]);
+	}
+
+	/**
+	 * This test-case tests that calls beyond the threads and the queue are
+	 * rejected
+	 *
+	 * @throws Exception
+	 *             on failure of the call
+	 */
+	@Test
+	public void testSaturation() throws Exception {
+		executor = executor(true, 1, 1);
+		CountDownLatch release = new CountDownLatch(1);
+		executor.submit(0, () -> await(release));
+		executor.submit(0, () -> await(release));
+		Response rejected = executor.submit(0, () -> Response.ok().build()).toCompletableFuture().get(5,
+				TimeUnit.SECONDS);
+		assertEquals(503, rejected.getStatus());
+		assertEquals(true, rejected.getHeaders().getFirst(ResourceExecutor.OVERLOADED));
+		release.countDown();
+	}
+
+	/**
+	 * This test-case tests exceptions of calls and the synchronous mode
+	 *
+	 * @throws Exception
+	 *             on failure of the call
+	 */
+	@Test
+	public void testFailureAndSynchronous() throws Exception {
+		IllegalStateException failure = new IllegalStateException("failed");
+		executor = executor(true, 1, 1);
+		try {
+			executor.submit(0, () -> {
+				throw failure;
+			}).toCompletableFuture().get(5, TimeUnit.SECONDS);
+			fail();
+		} catch (ExecutionException e) {
+			assertSame(failure, e.getCause());
+		}
+
+		ResourceExecutor synchronous = executor(false, 1, 1);
+		Thread caller = Thread.currentThread();
+		Response response = synchronous.submit(0, () -> {
+			assertSame(caller, Thread.currentThread());
+			return Response.ok().build();
+		}).toCompletableFuture().getNow(null);
+		assertEquals(200, response.getStatus());
+	}
+
+	private static Response await(CountDownLatch release) {
+		try {
+			release.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return Response.ok().build();
+	}
+
+	private static ResourceExecutor executor(boolean enabled, int threads, int queueCapacity) {
+		ResourceExecutor executor = new ResourceExecutor();
+		ReflectionTestUtils.setField(executor, "enabled", enabled);
+		ReflectionTestUtils.setField(executor, "threads", threads);
+		ReflectionTestUtils.setField(executor, "queueCapacity", queueCapacity);
+		ReflectionTestUtils.setField(executor, "retryAfterSeconds", 1);
+		executor.start();
+		return executor;
+	}
+}
@@ -0,0 +1,114 @@
+package com.ken.emp.search;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.ken.emp.model.Employee;
+import com.ken.emp.model.EmployeeName;
+import com.ken.emp.model.Status;
+import com.ken.emp.service.EmployeeChangeEvent;
+
+/**
+ * Test case for {@link EmployeeNameIndex}.
+ *
+ * It included below functionality testing.
+ *
+ * -> Prefix queries over first name, middle initial and last name
+ * -> Case and accent insensitive matching
+ * -> Incremental updates from change events
+ * -> Posting list merges
+ *
+ */
+public class EmployeeNameIndexTest {
+
+	/**
+	 * This test-case tests that every query word must prefix a name token
+	 */
+	@Test
+	public void testSuggest() {
+		EmployeeNameIndex index = index(employee(1, "John", "A", "Smith"), employee(2, "Johanna", "B", "Doe"),
+				employee(3, "Mary", "J", "Johnson"), employee(4, "José", "C.C", "Álvarez"));
+
+		// ordered by matching token
+		assertEquals(Arrays.asList(2L, 1L, 3L, 4L), ids(index.suggest("jo", 10)));
+		assertEquals(Arrays.asList(1L), ids(index.suggest("jo smi", 10)));
+		assertEquals(Arrays.asList(3L), ids(index.suggest("Johns", 10)));
+		assertEquals(Arrays.asList(4L), ids(index.suggest("jose alv", 10)));
+		assertEquals(Arrays.asList(4L), ids(index.suggest("c", 10)));
+		assertEquals(Arrays.asList(2L, 1L), ids(index.suggest("jo", 2)));
+		assertTrue(index.suggest("xyz", 10).isEmpty());
+		assertTrue(index.suggest(" ,. ", 10).isEmpty());
+		assertTrue(index.suggest(null, 10).isEmpty());
+	}
+
+	/**
+	 * This test-case tests updates by saved, status changed and deleted
+	 * events
+	 */
+	@Test
+	public void testChanges() {
+		EmployeeNameIndex index = index(employee(1, "John", "A", "Smith"), employee(2, "Johanna", "B", "Doe"));
+
+		// renamed
+		index.onChange(EmployeeChangeEvent.saved(Collections.singletonList(employee(1, "Jack", "A", "Smith"))));
+		assertEquals(Arrays.asList(2L), ids(index.suggest("joh", 10)));
+		assertEquals(Arrays.asList(1L), ids(index.suggest("jack", 10)));
+
+		// new and inactive employees
+		Employee inactive = employee(2, "Johanna", "B", "Doe");
+		inactive.setStatus(Status.INACTIVE);
+		index.onChange(EmployeeChangeEvent.saved(Arrays.asList(employee(5, "Jackie", "", "Chan"), inactive)));
+		assertEquals(Arrays.asList(1L, 5L), ids(index.suggest("jack", 10)));
+		assertTrue(index.suggest("doe", 10).isEmpty());
+
+		index.onChange(EmployeeChangeEvent.statusChanged(Status.INACTIVE, 5));
+		assertEquals(Arrays.asList(1L), ids(index.suggest("jack", 10)));
+
+		index.onChange(EmployeeChangeEvent.deleted(1, 42));
+		assertTrue(index.suggest("j", 10).isEmpty());
+		assertEquals(0, index.size());
+	}
+
+	/**
+	 * This test-case tests the merge of posting lists
+	 */
+	@Test
+	public void testMerge() {
+		assertArrayEquals(new long[] { 1, 2, 3, 5 },
+				EmployeeNameIndex.merge(new long[] { 1, 3, 4 }, new long[] { 2, 5 }, new long[] { 4 }));
+		// removed and added again
+		assertArrayEquals(new long[] { 1, 3 },
+				EmployeeNameIndex.merge(new long[] { 1, 3 }, new long[] { 3 }, new long[] { 3 }));
+		assertArrayEquals(new long[0], EmployeeNameIndex.merge(new long[] { 7 }, new long[0], new long[] { 7 }));
+		assertArrayEquals(new long[] { 8 }, EmployeeNameIndex.merge(new long[0], new long[] { 8, 8 }, new long[0]));
+	}
+
+	private static EmployeeNameIndex index(Employee... employees) {
+		EmployeeNameIndex index = new EmployeeNameIndex();
+		index.rebuild(sink -> Arrays.asList(employees).forEach(sink));
+		assertTrue(index.isReady());
+		return index;
+	}
+
+	private static Employee employee(long id, String firstName, String middleInitial, String lastName) {
+		Employee employee = new Employee(firstName, middleInitial, lastName, null, null, Status.ACTIVE);
+		employee.setId(id);
+		return employee;
+	}
+
+	private static List<Long> ids(List<EmployeeName> names) {
+		List<Long> ids = new ArrayList<>();
+		for (EmployeeName name : names) {
+			ids.add(name.getId());
+		}
+		return ids;
+	}
+}
@@ -0,0 +1,223 @@
+package com.ken.emp.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ken.emp.model.Employee;
+import com.ken.emp.model.Status;
+import com.ken.emp.model.WriteStatus;
+import com.ken.emp.repository.EmployeeRepository;
+
+/**
+ * Test case for {@link EmployeeWriteBehind}.
+ *
+ * It included below functionality testing.
+ *
+ * -> Reserved ids and batches coalesced by size and on shut down
+ * -> Failed batches retried one by one
+ * -> Creates rejected when the queue is full
+ * -> Creates accepted while shutting down are saved
+ *
+ */
+public class EmployeeWriteBehindTest {
+
+	private final EmployeeService employeeService = mock(EmployeeService.class);
+
+	// sizes of the saveAll calls
+	private final List<Integer> batches = new CopyOnWriteArrayList<>();
+
+	private EmployeeWriteBehind writeBehind;
+
+	/**
+	 * Stop the write-behind of the test
+	 *
+	 * @throws InterruptedException
+	 *             if interrupted
+	 */
+	@After
+	public void stop() throws InterruptedException {
+		if (writeBehind != null) {
+			writeBehind.stop();
+		}
+	}
+
+	/**
+	 * This test-case tests that employees get distinct ids and are saved in
+	 * batches, the last one on shut down
+	 *
+	 * @throws InterruptedException
+	 *             if interrupted
+	 */
+	@Test
+	public void testBatches() throws InterruptedException {
+		recordBatches(null);
+		writeBehind = writeBehind(100, 3);
+		List<Employee> employees = new ArrayList<>();
+		for (int i = 0; i < 7; i++) {
+			Employee employee = employee("Name" + i);
+			WriteStatus status = writeBehind.submit(employee).get();
+			assertEquals(WriteStatus.State.QUEUED, status.getState());
+			assertEquals(employee.getId(), status.getId());
+			assertEquals(Status.ACTIVE, employee.getStatus());
+			employees.add(employee);
+		}
+		assertEquals(7, employees.stream().mapToLong(Employee::getId).distinct().count());
+
+		writeBehind.stop();
+		assertEquals(Arrays.asList(3, 3, 1), batches);
+		for (Employee employee : employees) {
+			assertEquals(WriteStatus.State.SAVED, writeBehind.getStatus(employee.getId()).get().getState());
+		}
+		assertFalse(writeBehind.submit(employee("Late")).isPresent());
+	}
+
+	/**
+	 * This test-case tests that only the failing employees of a batch are not
+	 * saved
+	 *
+	 * @throws InterruptedException
+	 *             if interrupted
+	 */
+	@Test
+	public void testFailure() throws InterruptedException {
+		doAnswer(invocation -> {
+			List<Employee> batch = invocation.getArgument(0);
+			if (batch.stream().anyMatch(employee -> employee.getFirstName() == null)) {
+				throw new IllegalStateException("first name is missing");
+			}
+			return null;
+		}).when(employeeService).saveAll(anyList());
+		writeBehind = writeBehind(100, 3);
+		Employee valid = employee("Valid");
+		Employee invalid = employee(null);
+		writeBehind.submit(valid);
+		writeBehind.submit(invalid);
+		writeBehind.stop();
+
+		assertEquals(WriteStatus.State.SAVED, writeBehind.getStatus(valid.getId()).get().getState());
+		WriteStatus failed = writeBehind.getStatus(invalid.getId()).get();
+		assertEquals(WriteStatus.State.FAILED, failed.getState());
+		assertEquals("first name is missing", failed.getError());
+	}
+
+	/**
+	 * This test-case tests that creates are rejected while the queue is full
+	 *
+	 * @throws InterruptedException
+	 *             if interrupted
+	 */
+	@Test
+	public void testQueueFull() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		recordBatches(release);
+		writeBehind = writeBehind(1, 1);
+		assertTrue(writeBehind.submit(employee("Flushing")).isPresent());
+		// the flusher is blocked by the first employee, the second one fills
+		// the queue
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		Optional<WriteStatus> queued = writeBehind.submit(employee("Queued"));
+		while (!queued.isPresent() && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+			queued = writeBehind.submit(employee("Queued"));
+		}
+		assertTrue(queued.isPresent());
+		assertFalse(writeBehind.submit(employee("Rejected")).isPresent());
+		release.countDown();
+	}
+
+	/**
+	 * This test-case tests that every employee accepted while the write-behind
+	 * stops is saved
+	 *
+	 * @throws InterruptedException
+	 *             if interrupted
+	 */
+	@Test
+	public void testStopWhileSubmitting() throws InterruptedException {
+		recordBatches(null);
+		writeBehind = writeBehind(100_000, 50);
+		List<Employee> accepted = new CopyOnWriteArrayList<>();
+		List<Thread> submitters = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			Thread submitter = new Thread(() -> {
+				while (true) {
+					Employee employee = employee("Submitted");
+					if (!writeBehind.submit(employee).isPresent()) {
+						return;
+					}
+					accepted.add(employee);
+				}
+			});
+			submitter.start();
+			submitters.add(submitter);
+		}
+		while (accepted.isEmpty()) {
+			Thread.sleep(1);
+		}
+		writeBehind.stop();
+		for (Thread submitter : submitters) {
+			submitter.join();
+		}
+
+		// statuses are kept for the last 100 employees only, count the saves
+		assertEquals(accepted.size(), batches.stream().mapToInt(Integer::intValue).sum());
+	}
+
+	private void recordBatches(CountDownLatch release) {
+		doAnswer(invocation -> {
+			List<Employee> batch = invocation.getArgument(0);
+			batches.add(batch.size());
+			if (release != null) {
+				release.await();
+			}
+			return null;
+		}).when(employeeService).saveAll(anyList());
+	}
+
+	private EmployeeWriteBehind writeBehind(int capacity, int batchSize) {
+		EmployeeRepository repository = mock(EmployeeRepository.class);
+		AtomicLong sequence = new AtomicLong();
+		when(repository.reserveIds(anyInt())).thenAnswer(invocation -> {
+			List<Long> ids = new ArrayList<>();
+			for (int i = 0; i < (int) invocation.getArgument(0); i++) {
+				ids.add(sequence.incrementAndGet());
+			}
+			return ids;
+		});
+		EmployeeWriteBehind writeBehind = new EmployeeWriteBehind();
+		ReflectionTestUtils.setField(writeBehind, "employeeService", employeeService);
+		ReflectionTestUtils.setField(writeBehind, "employeeRepository", repository);
+		ReflectionTestUtils.setField(writeBehind, "enabled", true);
+		ReflectionTestUtils.setField(writeBehind, "capacity", capacity);
+		ReflectionTestUtils.setField(writeBehind, "batchSize", batchSize);
+		// long enough that only full batches and the shut down flush
+		ReflectionTestUtils.setField(writeBehind, "flushMillis", 10_000L);
+		ReflectionTestUtils.setField(writeBehind, "statusMaxSize", 100);
+		ReflectionTestUtils.setField(writeBehind, "statusTtlSeconds", 60L);
+		writeBehind.start();
+		return writeBehind;
+	}
+
+	private static Employee employee(String firstName) {
+		return new Employee(firstName, null, "Behind", null, null, null);
+	}
+}
@@ -0,0 +1,267 @@
+package com.ken.emp.stats;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ken.emp.model.Employee;
+import com.ken.emp.model.EmployeeStats;
+import com.ken.emp.model.Status;
+import com.ken.emp.repository.EmployeeRowMapper;
+import com.ken.emp.service.EmployeeChangeEvent;
+import com.ken.emp.service.EmployeeService;
+
+/**
+ * Test case for {@link EmployeeStatistics}.
+ *
+ * It included below functionality testing.
+ *
+ * -> Headcount, hires per year and tenure buckets
+ * -> Incremental updates from change events
+ * -> Employees read again without blocking the aggregates
+ * -> Comparison with database counts
+ * -> Months of employment read from the database ahead of UTC
+ * -> Primitive id map
+ *
+ */
+public class EmployeeStatisticsTest {
+
+	private static final LocalDate TODAY = LocalDate.of(2020, 6, 15);
+
+	/**
+	 * This test-case tests the aggregates of the built counters
+	 */
+	@Test
+	public void testStats() {
+		EmployeeStatistics statistics = statistics(employee(1, "2020-06-01", Status.ACTIVE),
+				employee(2, "2019-06-30", Status.ACTIVE), employee(3, "2017-01-10", Status.ACTIVE),
+				employee(4, "2005-03-03", Status.INACTIVE), employee(5, null, Status.ACTIVE),
+				employee(6, "2020-07-01", Status.ACTIVE), employee(7, "2019-05-31", Status.ACTIVE));
+
+		EmployeeStats stats = statistics.getStats(TODAY);
+		assertEquals(7, stats.getTotal());
+		assertEquals(6L, (long) stats.getHeadcount().get(Status.ACTIVE));
+		assertEquals(1L, (long) stats.getHeadcount().get(Status.INACTIVE));
+		assertEquals(1, stats.getWithoutDateOfEmployment());
+
+		Map<Integer, Long> hires = new HashMap<>();
+		hires.put(2020, 2L);
+		hires.put(2019, 2L);
+		hires.put(2017, 1L);
+		hires.put(2005, 1L);
+		assertEquals(hires, stats.getHiresByYear());
+
+		// by months since the month of employment
+		assertEquals(1L, (long) stats.getTenure().get("<1"));
+		assertEquals(2L, (long) stats.getTenure().get("1-2"));
+		assertEquals(1L, (long) stats.getTenure().get("2-5"));
+		assertEquals(0L, (long) stats.getTenure().get("5-10"));
+		assertEquals(0L, (long) stats.getTenure().get("10+"));
+		assertEquals(1L, (long) stats.getTenure().get("notStarted"));
+	}
+
+	/**
+	 * This test-case tests updates by saved, status changed and deleted
+	 * events
+	 */
+	@Test
+	public void testChanges() {
+		EmployeeStatistics statistics = statistics(employee(1, "2020-01-01", Status.ACTIVE),
+				employee(2, "2010-01-01", Status.ACTIVE));
+
+		// moved to another year and a new employee
+		statistics.onChange(EmployeeChangeEvent.saved(Arrays.asList(employee(1, "2018-01-01", Status.ACTIVE),
+				employee(3, "2018-02-01", Status.INACTIVE))));
+		EmployeeStats stats = statistics.getStats(TODAY);
+		assertEquals(3, stats.getTotal());
+		assertEquals(2L, (long) stats.getHiresByYear().get(2018));
+		assertFalse(stats.getHiresByYear().containsKey(2020));
+		assertEquals(1L, (long) stats.getTenure().get("2-5"));
+
+		statistics.onChange(EmployeeChangeEvent.statusChanged(Status.INACTIVE, 1, 2));
+		stats = statistics.getStats(TODAY);
+		assertEquals(0L, (long) stats.getHeadcount().get(Status.ACTIVE));
+		assertEquals(3L, (long) stats.getHeadcount().get(Status.INACTIVE));
+		assertEquals(0L, (long) stats.getTenure().get("2-5"));
+		assertEquals(2L, (long) stats.getHiresByYear().get(2018));
+
+		statistics.onChange(EmployeeChangeEvent.deleted(1, 3, 42));
+		stats = statistics.getStats(TODAY);
+		assertEquals(1, stats.getTotal());
+		assertEquals(Collections.singletonMap(2010, 1L), stats.getHiresByYear());
+	}
+
+	/**
+	 * This test-case tests that the aggregates are served while an updated
+	 * employee is read again, and that a read overtaken by a newer change is
+	 * not applied
+	 *
+	 * @throws Exception
+	 *             on failure of the reading thread
+	 */
+	@Test
+	public void testReloadOutsideLock() throws Exception {
+		EmployeeStatistics statistics = statistics(employee(1, "2020-01-01", Status.ACTIVE));
+		CountDownLatch reading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger reads = new AtomicInteger();
+		EmployeeService employeeService = mock(EmployeeService.class);
+		when(employeeService.getEmployee(anyLong())).thenAnswer(invocation -> {
+			if (reads.incrementAndGet() > 1) {
+				return Optional.of(employee(1, "2018-01-01", Status.ACTIVE));
+			}
+			// the first read is slow and returns the employee before the
+			// second update
+			reading.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return Optional.of(employee(1, "2015-01-01", Status.ACTIVE));
+		});
+		ReflectionTestUtils.setField(statistics, "employeeService", employeeService);
+
+		CompletableFuture<Void> first = CompletableFuture
+				.runAsync(() -> statistics.onChange(EmployeeChangeEvent.updated(1)));
+		assertTrue(reading.await(5, TimeUnit.SECONDS));
+		EmployeeStats stats = CompletableFuture.supplyAsync(() -> statistics.getStats(TODAY)).get(1,
+				TimeUnit.SECONDS);
+		assertEquals(1L, (long) stats.getHiresByYear().get(2020));
+
+		statistics.onChange(EmployeeChangeEvent.updated(1));
+		release.countDown();
+		first.get(5, TimeUnit.SECONDS);
+		assertEquals(3, reads.get());
+		assertEquals(Collections.singletonMap(2018, 1L), statistics.getStats(TODAY).getHiresByYear());
+	}
+
+	/**
+	 * This test-case tests the comparison of the counters with GROUP BY rows
+	 * of the database
+	 */
+	@Test
+	public void testMatches() {
+		List<Object[]> counts = Arrays.asList(new Object[] { Status.ACTIVE, 2020, 1, 2L },
+				new Object[] { Status.INACTIVE, null, null, 1L });
+		EmployeeStatistics statistics = statistics(employee(1, "2020-01-01", Status.ACTIVE),
+				employee(2, "2020-01-20", Status.ACTIVE), employee(3, null, Status.INACTIVE));
+		assertTrue(statistics.matches(counts));
+		assertFalse(statistics.matches(counts.subList(0, 1)));
+		assertFalse(statistics.matches(Arrays.asList(new Object[] { Status.ACTIVE, 2020, 2, 2L },
+				new Object[] { Status.INACTIVE, null, null, 1L })));
+	}
+
+	/**
+	 * This test-case tests in the time zone Asia/Tokyo that first-of-month
+	 * hires read from the database, by a scan or again by id, keep their
+	 * month and match the counts of the database
+	 */
+	@Test
+	public void testMonthsAheadOfUtc() {
+		TimeZone defaultZone = TimeZone.getDefault();
+		TimeZone.setDefault(TimeZone.getTimeZone("Asia/Tokyo"));
+		SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+				"jdbc:derby:memory:statistics;create=true", true);
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		try {
+			jdbcTemplate.execute("CREATE TABLE employee (id BIGINT NOT NULL PRIMARY KEY, first_name VARCHAR(255),"
+					+ " middle_initial VARCHAR(255), last_name VARCHAR(255), date_of_birth DATE,"
+					+ " date_of_employment DATE, status INTEGER, version BIGINT)");
+			jdbcTemplate.update("INSERT INTO employee VALUES (1, 'Ken', 'K', 'Emp', NULL, DATE('2020-01-01'), 0, 0)");
+			jdbcTemplate.update("INSERT INTO employee VALUES (2, 'Ken', 'K', 'Emp', NULL, DATE('2019-03-01'), 0, 0)");
+			String select = "SELECT " + EmployeeRowMapper.COLUMNS + " FROM employee";
+			EmployeeService employeeService = mock(EmployeeService.class);
+			when(employeeService.getEmployee(anyLong())).thenAnswer(invocation -> Optional.of(jdbcTemplate
+					.queryForObject(select + " WHERE id = ?", new EmployeeRowMapper(), (Long) invocation.getArgument(0))));
+
+			EmployeeStatistics statistics = new EmployeeStatistics();
+			ReflectionTestUtils.setField(statistics, "employeeService", employeeService);
+			statistics.rebuild(sink -> jdbcTemplate.query(select, new EmployeeRowMapper()).forEach(sink));
+			assertTrue(statistics.matches(counts(jdbcTemplate)));
+
+			jdbcTemplate.update("UPDATE employee SET date_of_employment = DATE('2018-12-01') WHERE id = 2");
+			statistics.onChange(EmployeeChangeEvent.updated(2));
+			assertTrue(statistics.matches(counts(jdbcTemplate)));
+			assertEquals(1L, (long) statistics.getStats(TODAY).getHiresByYear().get(2018));
+		} finally {
+			jdbcTemplate.execute("DROP TABLE employee");
+			dataSource.destroy();
+			TimeZone.setDefault(defaultZone);
+		}
+	}
+
+	/**
+	 * Rows of status, year and month of employment and count, as counted by
+	 * the repository
+	 */
+	private static List<Object[]> counts(JdbcTemplate jdbcTemplate) {
+		return jdbcTemplate.query(
+				"SELECT status, YEAR(date_of_employment), MONTH(date_of_employment), COUNT(*) FROM employee"
+						+ " GROUP BY status, YEAR(date_of_employment), MONTH(date_of_employment)",
+				(rs, row) -> new Object[] { Status.values()[rs.getInt(1)], rs.getObject(2), rs.getObject(3),
+						rs.getLong(4) });
+	}
+
+	/**
+	 * This test-case tests the id map against a HashMap with random puts
+	 * and removes
+	 */
+	@Test
+	public void testLongIntMap() {
+		EmployeeStatistics.LongIntMap map = new EmployeeStatistics.LongIntMap();
+		Map<Long, Integer> expected = new HashMap<>();
+		Random random = new Random(42);
+		for (int i = 0; i < 200000; i++) {
+			long key = random.nextInt(5000) * 1024L;
+			if (random.nextInt(3) == 0) {
+				map.remove(key);
+				expected.remove(key);
+			} else {
+				int value = random.nextInt(1000);
+				map.put(key, value);
+				expected.put(key, value);
+			}
+		}
+		assertEquals(expected.size(), map.size());
+		for (long key = 0; key < 5000 * 1024L; key += 1024) {
+			Integer value = expected.get(key);
+			assertEquals(value == null ? EmployeeStatistics.LongIntMap.ABSENT : (int) value, map.get(key));
+		}
+	}
+
+	private static EmployeeStatistics statistics(Employee... employees) {
+		EmployeeStatistics statistics = new EmployeeStatistics();
+		statistics.rebuild(sink -> Arrays.asList(employees).forEach(sink));
+		assertTrue(statistics.isReady());
+		return statistics;
+	}
+
+	private static Employee employee(long id, String dateOfEmployment, Status status) {
+		Date date = dateOfEmployment == null ? null
+				: Date.from(LocalDate.parse(dateOfEmployment).atStartOfDay(ZoneOffset.UTC).toInstant());
+		Employee employee = new Employee("First" + id, "M", "Last" + id, null, date, status);
+		employee.setId(id);
+		return employee;
+	}
+}